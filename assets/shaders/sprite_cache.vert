@@ -0,0 +1,19 @@
+// sprite_cache.vert
+#ifdef GL_ES
+precision mediump float;
+#endif
+
+attribute vec4 a_position;
+attribute vec4 a_color;
+attribute vec2 a_texCoord0;
+
+uniform mat4 u_projectionViewMatrix;
+
+varying vec4 v_color;
+varying vec2 v_texCoords;
+
+void main() {
+    v_color = a_color;
+    v_texCoords = a_texCoord0;
+    gl_Position = u_projectionViewMatrix * a_position;
+}
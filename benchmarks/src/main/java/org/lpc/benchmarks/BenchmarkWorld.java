@@ -0,0 +1,40 @@
+package org.lpc.benchmarks;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.lpc.GameStateManager;
+import org.lpc.MainGame;
+import org.lpc.Settings;
+
+/**
+ * Builds seeded worlds for benchmarks, without a window or GL context.
+ */
+public final class BenchmarkWorld {
+    public static final long SEED = 42L;
+
+    private BenchmarkWorld() { throw new IllegalStateException("Utility class for benchmark worlds"); }
+
+    static {
+        GdxNativesLoader.load();
+        // The map renderer sizes its camera from Gdx.graphics, nothing is drawn
+        Gdx.graphics = new MockGraphics();
+        // Debug logging to file would dominate the measurements
+        Configurator.setRootLevel(Level.WARN);
+    }
+
+    /**
+     * Creates a square world with the starting civilisation placed in its centre.
+     */
+    public static GameStateManager create(int size) {
+        Settings settings = new Settings();
+        settings.setWorldSeed(SEED);
+        settings.setMapWidth(size);
+        settings.setMapHeight(size);
+
+        // The game is never started, the map only hands it to its renderer and input
+        return new GameStateManager(new MainGame(), settings);
+    }
+}
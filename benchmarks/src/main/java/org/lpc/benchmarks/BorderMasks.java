@@ -0,0 +1,53 @@
+package org.lpc.benchmarks;
+
+import org.lpc.map.ChunkedTileStore;
+
+import static org.lpc.map.maps.BorderEdgeCache.BOTTOM_BORDER;
+import static org.lpc.map.maps.BorderEdgeCache.LEFT_BORDER;
+import static org.lpc.map.maps.BorderEdgeCache.RIGHT_BORDER;
+import static org.lpc.map.maps.BorderEdgeCache.TOP_BORDER;
+
+/**
+ * Border detection tile by tile, the way the renderer found borders before they were merged per chunk.
+ * Kept as the baseline the border edge cache is measured against.
+ */
+public final class BorderMasks {
+    private BorderMasks() { throw new IllegalStateException("Utility class for border detection"); }
+
+    /**
+     * Finds the sides of an owned tile that border a tile with a different owner.
+     * Sides on the map edge get no border.
+     * @return Combination of the side bits of {@link org.lpc.map.maps.BorderEdgeCache}
+     */
+    public static int borderMask(ChunkedTileStore tiles, int x, int y, short owner) {
+        int borders = 0;
+        if (needsBorder(tiles, x, y + 1, owner)) borders |= TOP_BORDER;
+        if (needsBorder(tiles, x + 1, y, owner)) borders |= RIGHT_BORDER;
+        if (needsBorder(tiles, x, y - 1, owner)) borders |= BOTTOM_BORDER;
+        if (needsBorder(tiles, x - 1, y, owner)) borders |= LEFT_BORDER;
+        return borders;
+    }
+
+    /**
+     * Finds the sides of a cell of a level of detail that border a cell with a different majority owner.
+     * Level 0 is the same as {@link #borderMask(ChunkedTileStore, int, int, short)}.
+     */
+    public static int borderMask(ChunkedTileStore tiles, int level, int cellX, int cellY, short owner) {
+        if (level == 0) return borderMask(tiles, cellX, cellY, owner);
+
+        int borders = 0;
+        if (needsBorder(tiles, level, cellX, cellY + 1, owner)) borders |= TOP_BORDER;
+        if (needsBorder(tiles, level, cellX + 1, cellY, owner)) borders |= RIGHT_BORDER;
+        if (needsBorder(tiles, level, cellX, cellY - 1, owner)) borders |= BOTTOM_BORDER;
+        if (needsBorder(tiles, level, cellX - 1, cellY, owner)) borders |= LEFT_BORDER;
+        return borders;
+    }
+
+    private static boolean needsBorder(ChunkedTileStore tiles, int x, int y, short owner) {
+        return tiles.isWithinBounds(x, y) && tiles.getOwnerId(x, y) != owner;
+    }
+
+    private static boolean needsBorder(ChunkedTileStore tiles, int level, int cellX, int cellY, short owner) {
+        return tiles.isWithinBounds(cellX << level, cellY << level) && tiles.getOwnerId(level, cellX, cellY) != owner;
+    }
+}
@@ -0,0 +1,53 @@
+package org.lpc.benchmarks;
+
+import org.lpc.map.TileStore;
+import org.lpc.map.maps.SurfaceMapGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Terrain and resource generation of a square block of tiles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerationBenchmark {
+    @Param({ "64", "256", "1024" })
+    public int size;
+
+    @Param({ "1", "4" })
+    public int threads;
+
+    private SurfaceMapGenerator generator;
+    private TileStore terrain;
+
+    @Setup
+    public void setup() {
+        generator = new SurfaceMapGenerator(BenchmarkWorld.SEED, threads);
+        terrain = new TileStore(size, size);
+        generator.generateTerrain(terrain);
+    }
+
+    @TearDown
+    public void tearDown() {
+        generator.dispose();
+    }
+
+    @Benchmark
+    public TileStore generateTerrain() {
+        TileStore store = new TileStore(size, size);
+        generator.generateTerrain(store);
+        return store;
+    }
+
+    @Benchmark
+    public TileStore generateResources() {
+        // Quantities saturate after a few runs, the work done per tile stays the same
+        generator.generateResources(terrain);
+        return terrain;
+    }
+}
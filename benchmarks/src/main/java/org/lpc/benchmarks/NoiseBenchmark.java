@@ -0,0 +1,55 @@
+package org.lpc.benchmarks;
+
+import org.lpc.utility.PerlinNoise;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Octave noise over one 64x64 chunk, point by point and as a block in double and float precision.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoiseBenchmark {
+    private static final int SIZE = 64;
+    private static final int OCTAVES = 5;
+    private static final double PERSISTENCE = 0.5;
+    private static final double SCALE = 0.04;
+
+    private PerlinNoise noise;
+    private double[] block;
+    private float[] floatBlock;
+
+    @Setup
+    public void setup() {
+        noise = new PerlinNoise(BenchmarkWorld.SEED);
+        block = new double[SIZE * SIZE];
+        floatBlock = new float[SIZE * SIZE];
+    }
+
+    @Benchmark
+    public void octaveNoisePoints(Blackhole blackhole) {
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                blackhole.consume(noise.octaveNoise(x, y, OCTAVES, PERSISTENCE, SCALE));
+            }
+        }
+    }
+
+    @Benchmark
+    public double[] octaveNoiseBlock() {
+        noise.octaveNoiseBlock(0, 0, SIZE, SIZE, OCTAVES, PERSISTENCE, SCALE, block);
+        return block;
+    }
+
+    @Benchmark
+    public float[] octaveNoiseBlockFloat() {
+        noise.octaveNoiseBlock(0, 0, SIZE, SIZE, OCTAVES, (float) PERSISTENCE, SCALE, floatBlock);
+        return floatBlock;
+    }
+}
@@ -0,0 +1,142 @@
+package org.lpc.benchmarks;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.utils.IntArray;
+import org.lpc.GameStateManager;
+import org.lpc.map.ChunkedTileStore;
+import org.lpc.map.MapScale;
+import org.lpc.map.TileStore;
+import org.lpc.map.maps.BorderEdgeCache;
+import org.lpc.map.maps.SurfaceMapRenderer;
+import org.lpc.map.maps.TerrainChunkCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.lpc.utility.Constants.MAX_BORDER_CHUNKS;
+import static org.lpc.utility.Constants.MAX_TERRAIN_TEXTURES;
+
+/**
+ * The CPU work the surface renderer does every frame, without drawing:
+ * view bounds from the camera, border detection of every visible owned tile or level of detail cell the way the
+ * renderer used to do it, see {@link BorderMasks}, the cached border edges that replace it,
+ * and the terrain chunk images that would be drawn.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderPreparationBenchmark {
+    private static final int MAP_SIZE = 1024;
+    private static final int VIEWPORT_WIDTH = 1920;
+    private static final int VIEWPORT_HEIGHT = 1080;
+
+    @Param({ "1", "4", "15", "40" })
+    public float zoom;
+
+    private ChunkedTileStore tiles;
+    private OrthographicCamera camera;
+    private TerrainChunkCache terrainCache;
+    private BorderEdgeCache borderCache;
+
+    @Setup
+    public void setup() {
+        GameStateManager gameStateManager = BenchmarkWorld.create(MAP_SIZE);
+        tiles = gameStateManager.getMapSystem().getSurfaceMap().getStore();
+
+        int center = MAP_SIZE / 2;
+        gameStateManager.getCivilisation().getTerritoryHandler().claimArea(center, center, 64);
+
+        float pixels = MapScale.SURFACE.getPixelsPerTile();
+        camera = new OrthographicCamera(VIEWPORT_WIDTH, VIEWPORT_HEIGHT);
+        camera.position.set(center * pixels, center * pixels, 0);
+        camera.zoom = zoom;
+        camera.update();
+
+        terrainCache = new TerrainChunkCache(tiles, MAX_TERRAIN_TEXTURES);
+        borderCache = new BorderEdgeCache(tiles, MAX_BORDER_CHUNKS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        terrainCache.dispose();
+    }
+
+    @Benchmark
+    public int borderDetection() {
+        SurfaceMapRenderer.ViewBounds bounds = SurfaceMapRenderer.calculateViewBounds(
+            camera, MapScale.SURFACE.getPixelsPerTile(), tiles);
+
+        int[] borders = new int[1];
+        tiles.forEachTile(bounds.startX, bounds.startY, bounds.endX, bounds.endY, (chunk, index, x, y) -> {
+            short owner = chunk.getOwnerId(index);
+            if (owner != TileStore.NO_OWNER) {
+                borders[0] += Integer.bitCount(BorderMasks.borderMask(tiles, x, y, owner));
+            }
+        });
+        return borders[0];
+    }
+
+    /**
+     * Border detection at the level of detail the renderer picks for the zoom, cells instead of tiles once zoomed out.
+     */
+    @Benchmark
+    public int levelOfDetailBorders() {
+        SurfaceMapRenderer.ViewBounds bounds = SurfaceMapRenderer.calculateViewBounds(
+            camera, MapScale.SURFACE.getPixelsPerTile(), tiles);
+        int level = SurfaceMapRenderer.selectLevel(camera.zoom, MapScale.SURFACE.getPixelsPerTile());
+
+        int borders = 0;
+        for (int cellX = bounds.startX >> level; cellX <= bounds.endX >> level; cellX++) {
+            for (int cellY = bounds.startY >> level; cellY <= bounds.endY >> level; cellY++) {
+                short owner = tiles.getOwnerId(level, cellX, cellY);
+                if (owner != TileStore.NO_OWNER) {
+                    borders += Integer.bitCount(BorderMasks.borderMask(tiles, level, cellX, cellY, owner));
+                }
+            }
+        }
+        return borders;
+    }
+
+    /**
+     * Border pass of a frame with unchanged ownership: one up to date check per visible chunk, then its merged edges.
+     */
+    @Benchmark
+    public int borderEdges() {
+        SurfaceMapRenderer.ViewBounds bounds = SurfaceMapRenderer.calculateViewBounds(
+            camera, MapScale.SURFACE.getPixelsPerTile(), tiles);
+        int level = SurfaceMapRenderer.selectLevel(camera.zoom, MapScale.SURFACE.getPixelsPerTile());
+
+        int chunkSize = tiles.getChunkSize();
+        int length = 0;
+        for (int chunkX = bounds.startX / chunkSize; chunkX <= bounds.endX / chunkSize; chunkX++) {
+            for (int chunkY = bounds.startY / chunkSize; chunkY <= bounds.endY / chunkSize; chunkY++) {
+                IntArray edges = borderCache.getEdges(chunkX, chunkY, level);
+                for (int i = 0; i < edges.size; i += BorderEdgeCache.EDGE_STRIDE) {
+                    length += edges.get(i + 3) - edges.get(i + 1) + edges.get(i + 4) - edges.get(i + 2);
+                }
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Terrain pass of a frame with an unchanged map: one up to date check per visible chunk, no baking.
+     */
+    @Benchmark
+    public int terrainChunks() {
+        SurfaceMapRenderer.ViewBounds bounds = SurfaceMapRenderer.calculateViewBounds(
+            camera, MapScale.SURFACE.getPixelsPerTile(), tiles);
+
+        int chunkSize = tiles.getChunkSize();
+        int texels = 0;
+        for (int chunkX = bounds.startX / chunkSize; chunkX <= bounds.endX / chunkSize; chunkX++) {
+            for (int chunkY = bounds.startY / chunkSize; chunkY <= bounds.endY / chunkSize; chunkY++) {
+                texels += terrainCache.getPixmap(chunkX, chunkY).getWidth();
+            }
+        }
+        return texels;
+    }
+}
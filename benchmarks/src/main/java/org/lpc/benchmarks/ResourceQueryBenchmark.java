@@ -0,0 +1,55 @@
+package org.lpc.benchmarks;
+
+import org.lpc.map.ChunkedTileStore;
+import org.lpc.map.ResourceIndex;
+import org.lpc.terrain.resources.ResourceType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summing a resource over a square region, through the resource index and by scanning the tiles.
+ * The region moves on every call so the chunk level and the tile level of the index both get exercised.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceQueryBenchmark {
+    private static final int MAP_SIZE = 1024;
+
+    @Param({ "16", "256" })
+    public int regionSize;
+
+    private ChunkedTileStore store;
+    private ResourceIndex resourceIndex;
+    private int offset;
+
+    @Setup(Level.Trial)
+    public void setupWorld() {
+        store = BenchmarkWorld.create(MAP_SIZE).getMapSystem().getSurfaceMap().getStore();
+        resourceIndex = store.getResourceIndex();
+    }
+
+    private int nextOrigin() {
+        offset = (offset + 97) % (MAP_SIZE - regionSize);
+        return offset;
+    }
+
+    @Benchmark
+    public long indexedSum() {
+        int origin = nextOrigin();
+        return resourceIndex.sum(ResourceType.FOOD, origin, origin, origin + regionSize - 1, origin + regionSize - 1);
+    }
+
+    @Benchmark
+    public long scannedSum() {
+        int origin = nextOrigin();
+        long[] sum = new long[1];
+        store.forEachTile(origin, origin, origin + regionSize - 1, origin + regionSize - 1,
+            (chunk, index, x, y) -> sum[0] += chunk.getResourceQuantity(index, ResourceType.FOOD));
+        return sum[0];
+    }
+}
@@ -0,0 +1,68 @@
+package org.lpc.benchmarks;
+
+import org.lpc.GameStateManager;
+import org.lpc.civilisation.Civilisation;
+import org.lpc.civilisation.TerritoryHandler;
+import org.lpc.map.maps.SurfaceMap;
+import org.lpc.terrain.buildings.buildings.Farm;
+import org.lpc.terrain.buildings.buildings.Sawmill;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tick cost of a civilisation owning a large territory with a building on every few tiles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationBenchmark {
+    private static final int MAP_SIZE = 1024;
+
+    @Param({ "16", "64", "128" })
+    public int territoryRadius;
+
+    @Param({ "16" })
+    public int tilesPerBuilding;
+
+    private GameStateManager gameStateManager;
+    private Civilisation civilisation;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        gameStateManager = BenchmarkWorld.create(MAP_SIZE);
+        civilisation = gameStateManager.getCivilisation();
+
+        int center = MAP_SIZE / 2;
+        TerritoryHandler territoryHandler = civilisation.getTerritoryHandler();
+        territoryHandler.claimArea(center, center, territoryRadius);
+
+        SurfaceMap map = gameStateManager.getMapSystem().getSurfaceMap();
+        int visited = 0;
+        for (int x = center - territoryRadius; x <= center + territoryRadius; x++) {
+            for (int y = center - territoryRadius; y <= center + territoryRadius; y++) {
+                if (!territoryHandler.owns(x, y) || visited++ % tilesPerBuilding != 0) continue;
+                SurfaceMap.SurfaceTile tile = map.getTile(x, y);
+                territoryHandler.placeBuilding(tile, visited % 2 == 0 ? new Farm(tile) : new Sawmill(tile));
+            }
+        }
+    }
+
+    /**
+     * A full game tick, including the harvests and population changes that fall due.
+     */
+    @Benchmark
+    public GameStateManager tick() {
+        gameStateManager.update();
+        return gameStateManager;
+    }
+
+    @Benchmark
+    public Civilisation civilisationUpdate() {
+        civilisation.update();
+        return civilisation;
+    }
+}
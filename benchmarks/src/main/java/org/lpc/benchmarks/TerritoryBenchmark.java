@@ -0,0 +1,52 @@
+package org.lpc.benchmarks;
+
+import org.lpc.GameStateManager;
+import org.lpc.civilisation.Civilisation;
+import org.lpc.civilisation.TerritoryHandler;
+import org.lpc.map.maps.SurfaceMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Placing a second civilisation next to the starting one.
+ * The claimed territory is released after every invocation, so each claim searches the same map.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TerritoryBenchmark {
+    @Param({ "5", "20" })
+    public int radius;
+
+    private GameStateManager gameStateManager;
+    private Civilisation civilisation;
+    private SurfaceMap map;
+    private TerritoryHandler territoryHandler;
+
+    @Setup(Level.Trial)
+    public void setupWorld() {
+        gameStateManager = BenchmarkWorld.create(512);
+        civilisation = gameStateManager.getCivilisation();
+        map = gameStateManager.getMapSystem().getSurfaceMap();
+    }
+
+    @Setup(Level.Invocation)
+    public void setupHandler() {
+        territoryHandler = new TerritoryHandler(civilisation);
+    }
+
+    @TearDown(Level.Invocation)
+    public void releaseTerritory() {
+        territoryHandler.getTerritory().forEach((x, y) -> map.getTile(x, y).setOwner(null));
+    }
+
+    @Benchmark
+    public TerritoryHandler claimStartingTerritory() {
+        territoryHandler.claimStartingTerritory(map.getWidth() / 2, map.getHeight() / 2, radius);
+        return territoryHandler;
+    }
+}
@@ -5,13 +5,20 @@ import lombok.NonNull;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.lpc.civilisation.Civilisation;
+import org.lpc.civilisation.CivilisationPipeline;
 import org.lpc.map.BaseMap;
+import org.lpc.map.GenerationProgress;
 import org.lpc.map.MapSystem;
+import org.lpc.utility.Seeds;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * The GameStateManager class is responsible for managing the game state, including the map system and the civilisation.
@@ -24,17 +31,66 @@ public class GameStateManager implements Serializable {
     private final transient Logger LOGGER = LogManager.getLogger(GameStateManager.class);
 
     private final @NonNull MapSystem mapSystem;
-    private final @NonNull Civilisation civilisation;
+    private final @NonNull List<Civilisation> civilisations;
+    private final transient CivilisationPipeline pipeline;
 
     public GameStateManager(@NonNull MainGame game, @NonNull Settings settings) {
+        this(game, settings, new GenerationProgress());
+    }
+
+    /**
+     * Builds the world, reporting each generation phase to the given progress.
+     * Does not touch the GL context, so it can run off the render thread.
+     */
+    public GameStateManager(@NonNull MainGame game, @NonNull Settings settings, @NonNull GenerationProgress progress) {
         LOGGER.info("Initializing GameStateManager");
-        this.mapSystem = new MapSystem(game);
-        this.civilisation = new Civilisation(game, this, "Test", settings.getStartingPopulation());
+        this.mapSystem = new MapSystem(game, settings);
+        mapSystem.preloadStartingArea(progress);
+
+        this.civilisations = createCivilisations(game, settings, progress);
+        this.pipeline = new CivilisationPipeline(civilisations, mapSystem.getSurfaceMap(), settings.getSimulationThreads());
+        progress.complete();
+    }
+
+    /**
+     * Creates the civilisations one after another, the first one starts at the map centre and the others at
+     * places drawn from the world seed, so the same settings always give the same civilisations.
+     */
+    private List<Civilisation> createCivilisations(MainGame game, Settings settings, GenerationProgress progress) {
+        int count = settings.getCivilisationCount();
+        int width = settings.getMapWidth();
+        int height = settings.getMapHeight();
+        SplittableRandom random = new SplittableRandom(Seeds.derive(settings.getWorldSeed(), Seeds.CIVILISATION_LAYER));
+
+        List<Civilisation> created = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            progress.update(GenerationProgress.Phase.CIVILISATION, i, count);
+
+            int startX = i == 0 ? width / 2 : random.nextInt(width);
+            int startY = i == 0 ? height / 2 : random.nextInt(height);
+            created.add(new Civilisation(game, this, i, "Civilisation " + (i + 1),
+                settings.getStartingPopulation(), startX, startY));
+        }
+
+        LOGGER.info("Created {} civilisations", count);
+        return Collections.unmodifiableList(created);
     }
 
     public void update() {
         mapSystem.update();
-        civilisation.update();
+        pipeline.tick();
+    }
+
+    /**
+     * Gets the civilisation of the player, the first one.
+     */
+    public Civilisation getCivilisation() {
+        return civilisations.get(0);
+    }
+
+    public void dispose() {
+        pipeline.dispose();
+        mapSystem.dispose();
     }
 
     public BaseMap<?> getMap() {
@@ -2,6 +2,7 @@ package org.lpc;
 
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputProcessor;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import lombok.Getter;
 import org.apache.logging.log4j.LogManager;
@@ -21,6 +22,7 @@ import java.util.Objects;
 public class MainGame extends Game {
     private static final Logger LOGGER = LogManager.getLogger(MainGame.class);
 
+    private WorldLoader worldLoader;
     private GameStateManager gameStateManager;
     private GameScreen gameScreen;
     private StartScreen startScreen;
@@ -30,7 +32,7 @@ public class MainGame extends Game {
     private UIRenderer uiRenderer;
 
     private ShaderProgram blurShader;
-    private float accumulator;
+    private SimulationScheduler scheduler;
 
     /// Features to be implemented:
     ///  - Add audio to the game (low hum in main menu, music in game)
@@ -46,11 +48,10 @@ public class MainGame extends Game {
 
         this.settings = new Settings();
         this.uiRenderer = new UIRenderer(this);
-        this.gameStateManager = new GameStateManager(this, settings);
-        this.inputHandler = new BaseInputHandler(this, gameStateManager.getMap().getInput());
-        this.accumulator = 0f;
 
-        this.gameScreen = new GameScreen(this, gameStateManager, uiRenderer);
+        this.worldLoader = new WorldLoader(this, settings);
+        worldLoader.start();
+
         this.menuScreen = new MenuScreen(this);
         this.startScreen = new StartScreen(this);
         setScreen(startScreen);
@@ -60,20 +61,38 @@ public class MainGame extends Game {
 
     @Override
     public void render() {
+        if (gameStateManager == null && worldLoader.isDone() && !worldLoader.isFailed()) {
+            onWorldLoaded();
+        }
+
         super.render(); // Delegate render to the current screen
         handleUpdate();
     }
 
-    private void handleUpdate() {
-        accumulator += Gdx.graphics.getDeltaTime();
+    /**
+     * Whether the world finished generating and the game screen can be shown.
+     */
+    public boolean isWorldReady() {
+        return gameScreen != null;
+    }
 
-        final float fixedTimeStep = 1f / settings.getTicksPerSecond();
-        if (accumulator >= fixedTimeStep) {
-            accumulator -= fixedTimeStep;
+    private void onWorldLoaded() {
+        // Creating the input handler claims input, hand it back to the screen that is still showing
+        InputProcessor currentInput = Gdx.input.getInputProcessor();
 
-            if (screen == gameScreen) {
-                gameStateManager.update();
-            }
+        this.gameStateManager = worldLoader.getGameStateManager();
+        this.inputHandler = new BaseInputHandler(this, gameStateManager.getMap().getInput());
+        this.gameScreen = new GameScreen(this, gameStateManager, uiRenderer);
+        this.scheduler = new SimulationScheduler(settings, gameStateManager::update);
+
+        Gdx.input.setInputProcessor(currentInput);
+
+        LOGGER.info("World ready, game screen created");
+    }
+
+    private void handleUpdate() {
+        if (gameScreen != null && screen == gameScreen) {
+            scheduler.advance(Gdx.graphics.getDeltaTime());
         }
     }
 
@@ -82,7 +101,10 @@ public class MainGame extends Game {
         LOGGER.info("Disposing game resources");
 
         super.dispose();
-        gameScreen.dispose();
+        worldLoader.dispose();
+        if (gameStateManager != null) gameStateManager.dispose();
+        if (gameScreen != null) gameScreen.dispose();
+        else uiRenderer.dispose();
         startScreen.dispose();
         menuScreen.dispose();
 
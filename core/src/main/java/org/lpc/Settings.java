@@ -3,6 +3,11 @@ package org.lpc;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.SplittableRandom;
+
+import static org.lpc.utility.Constants.SURFACE_MAP_HEIGHT;
+import static org.lpc.utility.Constants.SURFACE_MAP_WIDTH;
+
 @Getter
 @Setter
 public class Settings {
@@ -13,6 +18,16 @@ public class Settings {
     // Game settings
     private int startingPopulation;
     private float ticksPerSecond;
+    private int maxCatchUpSteps;
+    private boolean fastForward;
+    private int civilisationCount;
+    private int simulationThreads;
+
+    // World settings
+    private int mapWidth;
+    private int mapHeight;
+    private int generationThreads;
+    private long worldSeed;
 
     public Settings() {
         setDefaults();
@@ -23,6 +38,14 @@ public class Settings {
         this.renderGrid = true;
         this.startingPopulation = 50;
         this.ticksPerSecond = 20f;
+        this.maxCatchUpSteps = 8;
+        this.fastForward = false;
+        this.civilisationCount = 1;
+        this.simulationThreads = Runtime.getRuntime().availableProcessors();
+        this.mapWidth = SURFACE_MAP_WIDTH;
+        this.mapHeight = SURFACE_MAP_HEIGHT;
+        this.generationThreads = Runtime.getRuntime().availableProcessors();
+        this.worldSeed = new SplittableRandom().nextLong(); // Set explicitly to reproduce a world
     }
 
     public boolean changeRenderResources() {
@@ -47,6 +70,10 @@ public class Settings {
         }
     }
 
+    public void toggleFastForward() {
+        fastForward = !fastForward;
+    }
+
     public void toggleRenderResources() {
         renderResources = !renderResources;
     }
@@ -0,0 +1,114 @@
+package org.lpc;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Fixed-step scheduler running simulation ticks from the render loop.
+ * Runs as many ticks per frame as the configured tick rate needs, so rates above the frame rate are honoured.
+ * After a long frame it catches up by at most {@link Settings#getMaxCatchUpSteps()} ticks and drops the rest,
+ * instead of stalling rendering. In fast-forward mode it ticks as often as fits in a frame budget.
+ * Ticks run on the render thread, so rendering always sees the state between two ticks.
+ */
+public class SimulationScheduler {
+    private static final Logger LOGGER = LogManager.getLogger(SimulationScheduler.class);
+
+    private static final long FAST_FORWARD_BUDGET_NANOS = 12_000_000L; // Leaves room to render at 60 FPS
+    private static final float STATS_WINDOW_SECONDS = 1f;
+
+    private final Settings settings;
+    private final Runnable tick;
+    private float accumulator;
+
+    @Getter private long totalTicks;
+    @Getter private long droppedTicks;
+
+    // Published once per stats window
+    @Getter private float measuredTicksPerSecond;
+    @Getter private float averageTickMillis;
+    @Getter private float maxTickMillis;
+
+    private float windowSeconds;
+    private int windowTicks;
+    private long windowTickNanos;
+    private long windowMaxTickNanos;
+
+    public SimulationScheduler(@NonNull Settings settings, @NonNull Runnable tick) {
+        this.settings = settings;
+        this.tick = tick;
+    }
+
+    /**
+     * Advances the simulation by the time that passed since the last frame.
+     * @param delta Frame time in seconds
+     * @return Number of ticks run
+     */
+    public int advance(float delta) {
+        int steps = settings.isFastForward() ? runFastForward() : runFixedSteps(delta);
+        updateStats(delta);
+        return steps;
+    }
+
+    private int runFixedSteps(float delta) {
+        final float fixedTimeStep = 1f / settings.getTicksPerSecond();
+        final int maxSteps = settings.getMaxCatchUpSteps();
+
+        accumulator += delta;
+
+        int steps = 0;
+        while (accumulator >= fixedTimeStep && steps < maxSteps) {
+            runTick();
+            accumulator -= fixedTimeStep;
+            steps++;
+        }
+
+        if (accumulator >= fixedTimeStep) {
+            int skipped = (int) (accumulator / fixedTimeStep);
+            droppedTicks += skipped;
+            accumulator -= skipped * fixedTimeStep;
+            LOGGER.debug("Simulation fell behind, dropped {} ticks", skipped);
+        }
+
+        return steps;
+    }
+
+    private int runFastForward() {
+        accumulator = 0f;
+
+        long deadline = System.nanoTime() + FAST_FORWARD_BUDGET_NANOS;
+        int steps = 0;
+        do {
+            runTick();
+            steps++;
+        } while (System.nanoTime() < deadline);
+
+        return steps;
+    }
+
+    private void runTick() {
+        long start = System.nanoTime();
+        tick.run();
+        long duration = System.nanoTime() - start;
+
+        totalTicks++;
+        windowTicks++;
+        windowTickNanos += duration;
+        windowMaxTickNanos = Math.max(windowMaxTickNanos, duration);
+    }
+
+    private void updateStats(float delta) {
+        windowSeconds += delta;
+        if (windowSeconds < STATS_WINDOW_SECONDS) return;
+
+        measuredTicksPerSecond = windowTicks / windowSeconds;
+        averageTickMillis = windowTicks > 0 ? windowTickNanos / 1_000_000f / windowTicks : 0f;
+        maxTickMillis = windowMaxTickNanos / 1_000_000f;
+
+        windowSeconds = 0f;
+        windowTicks = 0;
+        windowTickNanos = 0L;
+        windowMaxTickNanos = 0L;
+    }
+}
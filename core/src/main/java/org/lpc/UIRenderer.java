@@ -13,8 +13,8 @@ import lombok.Setter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.lpc.civilisation.Civilisation;
+import org.lpc.map.ResourceIndex;
 import org.lpc.map.maps.SurfaceMap;
-import org.lpc.terrain.resources.ResourceNode;
 import org.lpc.terrain.resources.ResourceType;
 
 @Getter
@@ -26,6 +26,7 @@ public class UIRenderer {
     private static final Color BACKGROUND_COLOR = new Color(0.1f, 0.1f, 0.1f, 0.1f);
     private static final Color TEXT_COLOR = Color.WHITE;
     private static final float TOOLTIP_OFFSET = 20f;
+    private static final int AREA_RADIUS = 8; // Tiles around the selected tile summed up in the tooltip
 
     private final MainGame game;
     private final BitmapFont font;
@@ -46,18 +47,22 @@ public class UIRenderer {
 
         batch.begin();
         renderCivilisationInfo(batch, gameStateManager.getCivilisation());
+        renderSimulationInfo(batch, game.getScheduler());
         batch.end();
 
         if (selectedTile != null) {
-            renderTileTooltip(batch, camera);
+            renderTileTooltip(batch, camera, gameStateManager.getMapSystem().getSurfaceMap().getStore().getResourceIndex());
         }
     }
 
     private void renderCivilisationInfo(SpriteBatch batch, Civilisation civilisation) {
         String infoText = String.format(
             "[#89CFF0]Civilisation:[] %s\n" +
+                "[#89CFF0]Territory:[] %d / %d tiles\n" +
                 "[#89CFF0]Resources:[]\n%s",
             civilisation.getName(),
+            civilisation.getTerritoryHandler().getTerritorySize(),
+            civilisation.getExpansionHandler().getTargetTerritorySize(),
             formatCivilisationResources(civilisation)
         );
         float yPos = Gdx.graphics.getHeight() - PADDING;
@@ -65,22 +70,37 @@ public class UIRenderer {
         font.draw(batch, infoText, PADDING, yPos);
     }
 
+    private void renderSimulationInfo(SpriteBatch batch, SimulationScheduler scheduler) {
+        String target = game.getSettings().isFastForward()
+            ? "max"
+            : String.valueOf((int) game.getSettings().getTicksPerSecond());
+        String infoText = String.format(
+            "[#89CFF0]TPS:[] %.0f / %s  [#89CFF0]Tick:[] %.2f ms",
+            scheduler.getMeasuredTicksPerSecond(),
+            target,
+            scheduler.getAverageTickMillis()
+        );
+
+        font.draw(batch, infoText, PADDING, PADDING + LINE_HEIGHT);
+    }
+
     private String formatCivilisationResources(Civilisation civilisation) {
         StringBuilder sb = new StringBuilder();
         for (ResourceType type : ResourceType.values()) {
-            int amount = civilisation.getResourceHandler().getResources().get(type);
+            long amount = civilisation.getResourceAmount(type);
             if (amount > 0) {
-                sb.append(String.format("[#AAAAAA]%-8s[]: [#FFFFFF]%6d[]\n",
+                sb.append(String.format("[#AAAAAA]%-8s[]: [#FFFFFF]%6d[] [#AAAAAA]%+.0f/min[]\n",
                     type.toString(),
-                    amount
+                    amount,
+                    civilisation.getResourceHandler().getNetPerMinute(type)
                 ));
             }
         }
         return sb.toString();
     }
 
-    private void renderTileTooltip(SpriteBatch batch, OrthographicCamera camera) {
-        String tooltipText = createTooltipText();
+    private void renderTileTooltip(SpriteBatch batch, OrthographicCamera camera, ResourceIndex resourceIndex) {
+        String tooltipText = createTooltipText(resourceIndex);
         GlyphLayout layout = new GlyphLayout(font, tooltipText);
 
         // Convert screen coordinates properly
@@ -121,7 +141,7 @@ public class UIRenderer {
         Gdx.gl.glDisable(GL20.GL_BLEND);
     }
 
-    private String createTooltipText() {
+    private String createTooltipText(ResourceIndex resourceIndex) {
         if (selectedTile == null) return "";
 
         StringBuilder sb = new StringBuilder();
@@ -134,15 +154,33 @@ public class UIRenderer {
         }
 
         // Resources section
-        sb.append("[#89CFF0]Resources:[]\n").append(formatResources(selectedTile.getResources()));
+        sb.append("[#89CFF0]Resources:[]\n").append(formatResources(selectedTile));
+        sb.append("[#89CFF0]Area resources:[]\n").append(formatAreaResources(resourceIndex));
+        return sb.toString();
+    }
+
+    private String formatAreaResources(ResourceIndex resourceIndex) {
+        int x = selectedTile.getX();
+        int y = selectedTile.getY();
+
+        StringBuilder sb = new StringBuilder();
+        for (ResourceType type : ResourceType.values()) {
+            long quantity = resourceIndex.sum(type, x - AREA_RADIUS, y - AREA_RADIUS, x + AREA_RADIUS, y + AREA_RADIUS);
+            if (quantity > 0) {
+                sb.append(String.format("[#AAAAAA]%-8s[]: [#FFFFFF]%6d[]\n",
+                    type.toString(),
+                    quantity
+                ));
+            }
+        }
         return sb.toString();
     }
 
-    private String formatResources(ResourceNode resources) {
+    private String formatResources(SurfaceMap.SurfaceTile tile) {
         StringBuilder sb = new StringBuilder();
         // Manually format each line for perfect alignment
         for (ResourceType type : ResourceType.values()) {
-            int quantity = resources.getResourceQuantity(type);
+            int quantity = tile.getResourceQuantity(type);
             if (quantity > 0) {
                 sb.append(String.format("[#AAAAAA]%-8s[]: [#FFFFFF]%6d[]\n",
                     type.toString(),
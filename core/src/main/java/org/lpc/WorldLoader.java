@@ -0,0 +1,96 @@
+package org.lpc;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lpc.map.GenerationProgress;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Builds the game world on a background thread, so the start screen stays responsive while the map is generated.
+ * The render thread polls {@link #isDone()} and picks up the finished {@link GameStateManager},
+ * or the error generation failed with, which is logged here and shown on the start screen.
+ */
+public class WorldLoader {
+    private static final Logger LOGGER = LogManager.getLogger(WorldLoader.class);
+
+    private final MainGame game;
+    private final Settings settings;
+    @Getter private final GenerationProgress progress = new GenerationProgress();
+    private final ExecutorService executor;
+    private CompletableFuture<GameStateManager> result;
+
+    public WorldLoader(@NonNull MainGame game, @NonNull Settings settings) {
+        this.game = game;
+        this.settings = settings;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "world-generation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        if (result != null) {
+            throw new IllegalStateException("World generation already started");
+        }
+
+        LOGGER.info("Starting world generation");
+        long start = System.nanoTime();
+
+        result = CompletableFuture.supplyAsync(() -> new GameStateManager(game, settings, progress), executor);
+        result.whenComplete((gameStateManager, failure) -> {
+            if (failure != null) {
+                LOGGER.error("World generation failed", failure);
+            } else {
+                LOGGER.info("World generated in {} ms", (System.nanoTime() - start) / 1_000_000);
+            }
+            executor.shutdown();
+        });
+    }
+
+    public boolean isDone() {
+        return result != null && result.isDone();
+    }
+
+    /**
+     * Whether generation finished with an error, see {@link #getFailure()}.
+     */
+    public boolean isFailed() {
+        return isDone() && result.isCompletedExceptionally();
+    }
+
+    /**
+     * Gets the error generation failed with, without rethrowing it.
+     * @return The error, or null if generation has not failed
+     */
+    public Throwable getFailure() {
+        if (!isFailed()) return null;
+
+        Throwable failure = result.handle((gameStateManager, error) -> error).join();
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    /**
+     * Gets the generated world.
+     * @throws IllegalStateException If generation has not finished yet or failed, check {@link #isFailed()} first
+     */
+    public GameStateManager getGameStateManager() {
+        if (!isDone()) {
+            throw new IllegalStateException("World generation has not finished");
+        }
+        if (isFailed()) {
+            throw new IllegalStateException("World generation failed", getFailure());
+        }
+        return result.join();
+    }
+
+    public void dispose() {
+        executor.shutdownNow();
+    }
+}
@@ -8,43 +8,76 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.lpc.GameStateManager;
 import org.lpc.MainGame;
-import org.lpc.map.maps.SurfaceMap;
 import org.lpc.terrain.resources.ResourceType;
+import org.lpc.utility.TickScheduler;
 
+/**
+ * A civilisation and its civ-local state.
+ * {@link #update()} only touches state owned by this civilisation, so civilisations can be ticked in parallel,
+ * effects on shared state such as tile claims are queued and applied by the {@link CivilisationPipeline}.
+ */
 @Getter
 public class Civilisation {
+    private static final Color FIRST_COLOR = new Color(0.5f, 0.0f, 0.5f, 0.5f); // purple
+    private static final float FIRST_COLOR_HUE = 300f;
+    private static final float GOLDEN_ANGLE = 137.50777f;
+
     private final @NonNull MainGame game;
     private final @NonNull GameStateManager gameStateManager;
+    private final int index;
     private final @NonNull String name;
     private final @NonNull Color color;
     private final @NonNull ResourceHandler resourceHandler;
     private final @NonNull TerritoryHandler territoryHandler;
     private final @NonNull PopulationHandler populationHandler;
+    private final @NonNull ExpansionHandler expansionHandler;
+    // Timers of this civilisation's buildings, population and expansion
+    private final @NonNull TickScheduler scheduler = new TickScheduler();
 
+    /**
+     * @param index Position in the civilisation list of the game, decides contested claims between equals
+     * @param startX Where to start looking for a starting area
+     */
     public Civilisation(@NonNull MainGame game,
                         @NonNull GameStateManager gameStateManager,
+                        int index,
                         @NonNull String name,
-                        int population)
+                        int population,
+                        int startX,
+                        int startY)
     {
         this.game = game;
         this.gameStateManager = gameStateManager;
+        this.index = index;
         this.name = name;
         this.resourceHandler = new ResourceHandler(this);
         this.territoryHandler = new TerritoryHandler(this);
         this.populationHandler = new PopulationHandler(this, population);
-        this.color = new Color(0.5f, 0.0f, 0.5f, 0.5f); // purple
+        this.expansionHandler = new ExpansionHandler(this);
+        this.color = colorOf(index);
+
+        initCivilisation(startX, startY);
+    }
 
-        initCivilisation();
+    private static Color colorOf(int index) {
+        if (index == 0) {
+            return new Color(FIRST_COLOR);
+        }
+        // Golden angle steps keep neighbouring indices far apart on the colour wheel
+        Color color = new Color().fromHsv((FIRST_COLOR_HUE + index * GOLDEN_ANGLE) % 360f, 1f, 0.5f);
+        color.a = FIRST_COLOR.a;
+        return color;
     }
 
-    private void initCivilisation() {
-        claimStartingTerritory();
+    private void initCivilisation(int startX, int startY) {
+        claimStartingTerritory(startX, startY);
         addStartingResources();
+        populationHandler.start(scheduler);
+        expansionHandler.start(scheduler);
     }
 
-    private void claimStartingTerritory() {
-        SurfaceMap map = gameStateManager.getMapSystem().getSurfaceMap();
-        territoryHandler.claimStartingTerritory(map.getWidth() / 2,  map.getHeight() / 2, populationHandler.getStartingRadius());
+    private void claimStartingTerritory(int startX, int startY) {
+        territoryHandler.claimStartingTerritory(startX, startY, populationHandler.getStartingRadius());
         territoryHandler.setStartingBuildings();
     }
 
@@ -52,17 +85,20 @@ public class Civilisation {
         resourceHandler.addResource(ResourceType.FOOD, 100);
     }
 
+    /**
+     * Runs one tick of civ-local state: building, population and expansion timers, buildings and the resource ledger.
+     */
     public void update() {
+        scheduler.advance();
         territoryHandler.update();
-        resourceHandler.update();
-        populationHandler.update();
+        resourceHandler.endTick();
     }
 
     public void consumeResource(ResourceType type, int amount) {
         resourceHandler.removeResource(type, amount);
     }
 
-    public int getResourceAmount(ResourceType type) {
+    public long getResourceAmount(ResourceType type) {
         return resourceHandler.getResourceAmount(type);
     }
 
@@ -0,0 +1,166 @@
+package org.lpc.civilisation;
+
+import com.badlogic.gdx.utils.IntArray;
+import lombok.Getter;
+import lombok.NonNull;
+import org.lpc.map.maps.SurfaceMap;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Ticks all civilisations in two phases.
+ * The update phase runs {@link Civilisation#update()} for every civilisation, split over a worker pool.
+ * Updates only touch civ-local state and the resource views their buildings hold, so they cannot observe each other,
+ * and chunk lookups are locked meanwhile.
+ * The merge phase then applies what civilisations asked of the shared map, tile claims for now, on the calling
+ * thread in an order that only depends on the requests, so results are the same for any number of workers.
+ */
+public class CivilisationPipeline {
+    private static final int CIVILISATION_BITS = 16; // Owner ids are shorts, so indices fit
+    private static final long CIVILISATION_MASK = (1L << CIVILISATION_BITS) - 1;
+    private static final int CIVILISATIONS_PER_TASK = 4;
+
+    private final List<Civilisation> civilisations;
+    private final SurfaceMap map;
+    @Getter private final int parallelism;
+    private final ForkJoinPool pool;
+    // Task tree of the update phase, built once and reinitialized every tick
+    private final UpdateTask root;
+    // Live threads of the pool, for accounting that has to look past the ticking thread
+    private final List<Thread> workers = new CopyOnWriteArrayList<>();
+
+    // Tile index and civilisation index of every claim request of a tick, reused between ticks
+    private long[] claims = new long[64];
+
+    public CivilisationPipeline(@NonNull List<Civilisation> civilisations, @NonNull SurfaceMap map, int threads) {
+        this.civilisations = civilisations;
+        this.map = map;
+        this.parallelism = Math.max(1, Math.min(threads, civilisations.size()));
+        this.pool = this.parallelism > 1 ? new ForkJoinPool(this.parallelism, this::newWorker, null, false) : null;
+        this.root = this.pool != null ? new UpdateTask(0, civilisations.size()) : null;
+    }
+
+    /**
+     * Gets the threads the update phase runs on besides the ticking thread, empty without a worker pool.
+     * Idle workers may retire and be replaced, so look them up again rather than keeping the list.
+     */
+    public List<Thread> getWorkerThreads() {
+        return Collections.unmodifiableList(workers);
+    }
+
+    private ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        workers.removeIf(worker -> !worker.isAlive());
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        workers.add(worker);
+        return worker;
+    }
+
+    public void tick() {
+        // Chunk lookups are not thread-safe, the update phase must not need them with one worker or many
+        map.getStore().setLookupsLocked(true);
+        try {
+            if (pool == null) {
+                for (int i = 0; i < civilisations.size(); i++) {
+                    civilisations.get(i).update();
+                }
+            } else {
+                root.reinitialize();
+                pool.invoke(root);
+            }
+        } finally {
+            map.getStore().setLookupsLocked(false);
+        }
+
+        mergeClaims();
+    }
+
+    /**
+     * Claims every requested tile that is still unowned.
+     * A tile asked for by several civilisations in the same tick goes to the largest population,
+     * ties go to the civilisation that comes first in the list.
+     */
+    private void mergeClaims() {
+        int count = collectClaims();
+        if (count == 0) return;
+
+        // Groups requests per tile, tiles in index order and civilisations in list order within a tile
+        Arrays.sort(claims, 0, count);
+
+        int i = 0;
+        while (i < count) {
+            int tileIndex = (int) (claims[i] >>> CIVILISATION_BITS);
+            Civilisation winner = civilisations.get((int) (claims[i] & CIVILISATION_MASK));
+
+            for (i++; i < count && (int) (claims[i] >>> CIVILISATION_BITS) == tileIndex; i++) {
+                Civilisation contender = civilisations.get((int) (claims[i] & CIVILISATION_MASK));
+                if (contender.getPopulationHandler().getPopulation() > winner.getPopulationHandler().getPopulation()) {
+                    winner = contender;
+                }
+            }
+
+            winner.getTerritoryHandler().claimTile(tileIndex % map.getWidth(), tileIndex / map.getWidth());
+        }
+    }
+
+    private int collectClaims() {
+        int count = 0;
+        for (int civilisation = 0; civilisation < civilisations.size(); civilisation++) {
+            IntArray requested = civilisations.get(civilisation).getTerritoryHandler().getPendingClaims();
+            if (requested.size == 0) continue;
+
+            if (count + requested.size > claims.length) {
+                claims = Arrays.copyOf(claims, Math.max(claims.length * 2, count + requested.size));
+            }
+            for (int j = 0; j < requested.size; j++) {
+                claims[count++] = ((long) requested.get(j) << CIVILISATION_BITS) | civilisation;
+            }
+            requested.clear();
+        }
+        return count;
+    }
+
+    public void dispose() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private class UpdateTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final UpdateTask left;
+        private final UpdateTask right;
+
+        UpdateTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+
+            boolean split = to - from > CIVILISATIONS_PER_TASK;
+            int middle = (from + to) >>> 1;
+            this.left = split ? new UpdateTask(from, middle) : null;
+            this.right = split ? new UpdateTask(middle, to) : null;
+        }
+
+        @Override
+        protected void compute() {
+            if (left == null) {
+                for (int i = from; i < to; i++) {
+                    civilisations.get(i).update();
+                }
+                return;
+            }
+
+            left.reinitialize();
+            right.reinitialize();
+            invokeAll(left, right);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.lpc.civilisation;
+
+import lombok.Getter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lpc.utility.PackedPosition;
+import org.lpc.utility.TickScheduler;
+import org.lpc.utility.TickedTimer;
+
+import static org.lpc.utility.Constants.EXPANSION_DELAY_TICKS;
+import static org.lpc.utility.Constants.EXPANSION_POPULATION_PER_CLAIM;
+import static org.lpc.utility.Constants.EXPANSION_POPULATION_PER_TILE;
+
+/**
+ * Grows the territory of a civilisation towards what its population can hold.
+ * Every expansion asks for the best tiles of the {@link Frontier}, which the territory keeps up to date as tiles
+ * are claimed, so an expansion costs O(log n) per tile asked for, whatever the size of the territory.
+ * The claims go through {@link TerritoryHandler#requestClaim(int, int)} and are settled in the merge phase.
+ */
+@Getter
+public class ExpansionHandler {
+    private static final Logger LOGGER = LogManager.getLogger(ExpansionHandler.class);
+
+    private final Civilisation civilisation;
+    private final TickedTimer expansionTimer;
+
+    public ExpansionHandler(Civilisation civilisation) {
+        this.civilisation = civilisation;
+        this.expansionTimer = new TickedTimer(EXPANSION_DELAY_TICKS, this::expand);
+    }
+
+    public void start(TickScheduler scheduler) {
+        expansionTimer.start(scheduler);
+    }
+
+    private void expand() {
+        TerritoryHandler territoryHandler = civilisation.getTerritoryHandler();
+        Frontier frontier = territoryHandler.getFrontier();
+
+        int claims = getClaimsPerExpansion();
+        for (int i = 0; i < claims && !frontier.isEmpty(); i++) {
+            long tile = frontier.poll();
+            territoryHandler.requestClaim(PackedPosition.x(tile), PackedPosition.y(tile));
+        }
+
+        if (claims > 0 && LOGGER.isDebugEnabled()) {
+            LOGGER.debug("{} asks for {} tiles, {} left on the frontier", civilisation.getName(), claims, frontier.size());
+        }
+    }
+
+    /**
+     * Gets the number of tiles the population can hold.
+     */
+    public int getTargetTerritorySize() {
+        return civilisation.getPopulationHandler().getPopulation() / EXPANSION_POPULATION_PER_TILE;
+    }
+
+    /**
+     * Gets the number of tiles the next expansion asks for, at least one while the territory is below its target.
+     */
+    public int getClaimsPerExpansion() {
+        int missing = getTargetTerritorySize() - civilisation.getTerritoryHandler().getTerritorySize();
+        if (missing <= 0) return 0;
+
+        int rate = Math.max(1, civilisation.getPopulationHandler().getPopulation() / EXPANSION_POPULATION_PER_CLAIM);
+        return Math.min(missing, rate);
+    }
+}
@@ -0,0 +1,128 @@
+package org.lpc.civilisation;
+
+import org.lpc.utility.PositionIntMap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Unowned tiles next to a territory, as an indexed max-heap of packed positions by expansion score.
+ * Ties go to the tile that joined the frontier first, so the order only depends on the order of claims.
+ * Adding, removing any tile and taking the best one are O(log n).
+ */
+public class Frontier {
+    private static final int ABSENT = -1;
+
+    // Heap of packed positions, with the score and join order of each entry
+    private long[] tiles = new long[16];
+    private int[] scores = new int[16];
+    private long[] joined = new long[16];
+    private int size;
+    private long joinCounter;
+
+    // Packed position to heap position
+    private final PositionIntMap positions = new PositionIntMap();
+
+    /**
+     * @return Whether the tile was not on the frontier yet
+     */
+    public boolean add(long tile, int score) {
+        if (positions.containsKey(tile)) return false;
+
+        if (size == tiles.length) {
+            tiles = Arrays.copyOf(tiles, size * 2);
+            scores = Arrays.copyOf(scores, size * 2);
+            joined = Arrays.copyOf(joined, size * 2);
+        }
+        tiles[size] = tile;
+        scores[size] = score;
+        joined[size] = joinCounter++;
+        siftUp(size++);
+        return true;
+    }
+
+    /**
+     * @return Whether the tile was on the frontier
+     */
+    public boolean remove(long tile) {
+        int position = positions.remove(tile, ABSENT);
+        if (position == ABSENT) return false;
+
+        int last = --size;
+        if (position != last) {
+            long moved = tiles[last];
+            move(last, position);
+            siftUp(position);
+            siftDown(positions.get(moved, ABSENT));
+        }
+        return true;
+    }
+
+    /**
+     * Removes and returns the best tile.
+     */
+    public long poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("Frontier is empty");
+        }
+        long best = tiles[0];
+        remove(best);
+        return best;
+    }
+
+    public boolean contains(long tile) {
+        return positions.containsKey(tile);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private boolean ranksAbove(int a, int b) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && joined[a] < joined[b]);
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!ranksAbove(position, parent)) break;
+            swap(position, parent);
+            position = parent;
+        }
+        positions.put(tiles[position], position);
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) break;
+            if (child + 1 < size && ranksAbove(child + 1, child)) child++;
+            if (!ranksAbove(child, position)) break;
+            swap(position, child);
+            position = child;
+        }
+        positions.put(tiles[position], position);
+    }
+
+    private void swap(int a, int b) {
+        long tile = tiles[a];
+        int score = scores[a];
+        long join = joined[a];
+        move(b, a);
+        tiles[b] = tile;
+        scores[b] = score;
+        joined[b] = join;
+        positions.put(tile, b);
+    }
+
+    private void move(int from, int to) {
+        tiles[to] = tiles[from];
+        scores[to] = scores[from];
+        joined[to] = joined[from];
+        positions.put(tiles[to], to);
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Setter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.lpc.terrain.resources.ResourceType;
+import org.lpc.utility.TickScheduler;
 import org.lpc.utility.TickedTimer;
 
 import static org.lpc.utility.Constants.POPULATION_CHANGE_DELAY_TICKS;
@@ -29,21 +30,16 @@ public class PopulationHandler {
     public PopulationHandler(Civilisation civilisation, int population) {
         this.civilisation = civilisation;
         this.population = population;
-        this.populationChangeTimer = new TickedTimer(POPULATION_CHANGE_DELAY_TICKS);
-        this.foodConsumptionTimer = new TickedTimer(POPULATION_FOOD_CONSUMPTION_DELAY_TICKS);
+        this.populationChangeTimer = new TickedTimer(POPULATION_CHANGE_DELAY_TICKS, this::changePopulation);
+        this.foodConsumptionTimer = new TickedTimer(POPULATION_FOOD_CONSUMPTION_DELAY_TICKS, this::feedPopulation);
     }
 
-    public void update() {
-        populationChangeTimer.tick();
-        foodConsumptionTimer.tick();
-
-        if (foodConsumptionTimer.isTime()) {
-            feedPopulation();
-        }
-
-        if (populationChangeTimer.isTime()) {
-            changePopulation();
-        }
+    /**
+     * Starts feeding and growth, the population is fed before it changes when both fall on the same tick.
+     */
+    public void start(TickScheduler scheduler) {
+        foodConsumptionTimer.start(scheduler);
+        populationChangeTimer.start(scheduler);
     }
 
     private void feedPopulation() {
@@ -52,25 +48,25 @@ public class PopulationHandler {
     }
 
     private void changePopulation() {
-        int food = civilisation.getResourceAmount(ResourceType.FOOD);
+        long food = civilisation.getResourceAmount(ResourceType.FOOD);
 
         if (hasEnoughFoodForGrowth(food)) {
-            int excessFoodPercentage = (food - population) / population;
+            long excessFoodPercentage = (food - population) / population;
 
-            growPopulation(excessFoodPercentage / 10);
+            growPopulation((int) Math.min(excessFoodPercentage / 10, Integer.MAX_VALUE));
         } else if (doesNotHaveEnoughFood(food)) {
-            int foodShortagePercentage = (population - food) / population;
+            long foodShortagePercentage = (population - food) / population;
 
-            shrinkPopulation(foodShortagePercentage / 10);
+            shrinkPopulation((int) (foodShortagePercentage / 10));
         }
     }
 
-    private boolean hasEnoughFoodForGrowth(int food) {
+    private boolean hasEnoughFoodForGrowth(long food) {
         // Ensure there is enough food to support growth
-        return food >= population * 2;
+        return food >= population * 2L;
     }
 
-    private boolean doesNotHaveEnoughFood(int food) {
+    private boolean doesNotHaveEnoughFood(long food) {
         // Ensure there is not enough food to support the population
         return food <  population;
     }
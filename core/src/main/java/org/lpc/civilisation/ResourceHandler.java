@@ -1,62 +1,125 @@
 package org.lpc.civilisation;
 
 import lombok.Getter;
-import lombok.Setter;
-import org.javatuples.Pair;
-import org.lpc.map.maps.SurfaceMap;
+import org.lpc.terrain.resources.ResourceSink;
 import org.lpc.terrain.resources.ResourceType;
 
-import javax.swing.text.html.Option;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.Arrays;
 
-@Getter
-@Setter
-public class ResourceHandler {
-    private final Civilisation civilisation;
-    private final Map<ResourceType, Integer> resources;
+import static org.lpc.utility.Constants.RESOURCE_HISTORY_SECONDS;
+import static org.lpc.utility.Constants.TICKS_PER_GAME_SECOND;
+
+/**
+ * Resource ledger of a civilisation, indexed by resource ordinal.
+ * Buildings deposit their harvests into it directly when their harvest timers fire.
+ * Besides the stockpile it records what came in and went out each tick, and keeps a history of
+ * the last seconds so income and expense rates can be read without rescanning anything.
+ */
+public class ResourceHandler implements ResourceSink {
+    private static final ResourceType[] TYPES = ResourceType.values();
+
+    @Getter private final Civilisation civilisation;
+    @Getter private final ResourceHistory history = new ResourceHistory(RESOURCE_HISTORY_SECONDS);
+
+    private final long[] amounts = new long[TYPES.length];
+
+    // Deltas of the tick in progress, the last finished tick and the second in progress
+    private final long[] tickIncome = new long[TYPES.length];
+    private final long[] tickExpense = new long[TYPES.length];
+    private final long[] lastTickIncome = new long[TYPES.length];
+    private final long[] lastTickExpense = new long[TYPES.length];
+    private final long[] secondIncome = new long[TYPES.length];
+    private final long[] secondExpense = new long[TYPES.length];
+    private int ticksIntoSecond;
 
     public ResourceHandler(Civilisation civilisation) {
         this.civilisation = civilisation;
-        this.resources = new HashMap<>();
+    }
 
-        for (ResourceType type : ResourceType.values()) {
-            resources.put(type, 0);
-        }
+    @Override
+    public void addResource(ResourceType type, int amount) {
+        validateAmount(amount);
+        int slot = type.ordinal();
+        amounts[slot] = saturatedAdd(amounts[slot], amount);
+        tickIncome[slot] += amount;
     }
 
-    public void update() {
-        harvestSurfaceTiles();
+    /**
+     * Removes up to the given amount, the stockpile never goes below zero.
+     * @return Amount actually removed
+     */
+    public int removeResource(ResourceType type, int amount) {
+        validateAmount(amount);
+        int slot = type.ordinal();
+        int removed = (int) Math.min(amounts[slot], amount);
+        amounts[slot] -= removed;
+        tickExpense[slot] += removed;
+        return removed;
     }
 
-    private void harvestSurfaceTiles() {
-        List<SurfaceMap.SurfaceTile> territory = civilisation.getTerritoryHandler().getSurfaceTerritory();
+    public long getResourceAmount(ResourceType type) {
+        return amounts[type.ordinal()];
+    }
 
-        for (SurfaceMap.SurfaceTile tile : territory) {
-            Optional<Pair<ResourceType, Integer>> harvested = tile.harvestResource();
+    /**
+     * Closes the bookkeeping of the current tick, recording a second of history every {@code TICKS_PER_GAME_SECOND} ticks.
+     */
+    public void endTick() {
+        for (int slot = 0; slot < TYPES.length; slot++) {
+            lastTickIncome[slot] = tickIncome[slot];
+            lastTickExpense[slot] = tickExpense[slot];
+            secondIncome[slot] += tickIncome[slot];
+            secondExpense[slot] += tickExpense[slot];
+            tickIncome[slot] = 0;
+            tickExpense[slot] = 0;
+        }
 
-            harvested.ifPresent(pair ->
-                addResource(pair.getValue0(), pair.getValue1())
-            );
+        if (++ticksIntoSecond == TICKS_PER_GAME_SECOND) {
+            history.record(secondIncome, secondExpense);
+            Arrays.fill(secondIncome, 0);
+            Arrays.fill(secondExpense, 0);
+            ticksIntoSecond = 0;
         }
     }
 
-    public void addResource(ResourceType type, int amount) {
-        resources.put(type, resources.get(type) + amount);
+    /**
+     * Gets the income of the last finished tick.
+     */
+    public long getTickIncome(ResourceType type) {
+        return lastTickIncome[type.ordinal()];
     }
 
-    public void removeResource(ResourceType type, int amount) {
-        if (resources.get(type) >= amount) {
-            resources.put(type, resources.get(type) - amount);
-        } else {
-            resources.put(type, 0);
-        }
+    /**
+     * Gets the expense of the last finished tick.
+     */
+    public long getTickExpense(ResourceType type) {
+        return lastTickExpense[type.ordinal()];
     }
 
-    public int getResourceAmount(ResourceType type) {
-        return resources.get(type);
+    /**
+     * Gets the average net change per game second over the recorded history.
+     */
+    public double getNetPerSecond(ResourceType type) {
+        return history.getIncomePerSecond(type) - history.getExpensePerSecond(type);
+    }
+
+    /**
+     * Gets the average net change per game minute over the recorded history.
+     */
+    public double getNetPerMinute(ResourceType type) {
+        return getNetPerSecond(type) * 60;
+    }
+
+    private static long saturatedAdd(long amount, int added) {
+        long sum = amount + added;
+        // Both operands are non-negative, so overflow shows as a negative sum
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static void validateAmount(int amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount cannot be negative: " + amount);
+        }
     }
 
     @Override
@@ -64,8 +127,8 @@ public class ResourceHandler {
         // format nicely
         StringBuilder builder = new StringBuilder();
         builder.append("Resources: \n");
-        for (Map.Entry<ResourceType, Integer> entry : resources.entrySet()) {
-            builder.append(" - ").append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+        for (ResourceType type : TYPES) {
+            builder.append(" - ").append(type).append(": ").append(getResourceAmount(type)).append("\n");
         }
         return builder.toString();
     }
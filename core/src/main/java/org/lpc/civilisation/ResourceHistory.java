@@ -0,0 +1,96 @@
+package org.lpc.civilisation;
+
+import lombok.Getter;
+import org.lpc.terrain.resources.ResourceType;
+
+/**
+ * Ring buffer of the resource income and expense of the last seconds of game time, one slot per second.
+ * Running sums over the whole buffer are kept up to date as seconds are recorded, so rates are O(1) to query.
+ */
+public class ResourceHistory {
+    private static final int TYPES = ResourceType.values().length;
+
+    @Getter private final int capacity;
+    private final long[] income;  // [slot * TYPES + ordinal]
+    private final long[] expense; // [slot * TYPES + ordinal]
+    private final long[] incomeSums = new long[TYPES];
+    private final long[] expenseSums = new long[TYPES];
+
+    private int next;
+    @Getter private int size;
+
+    /**
+     * @param capacity Number of seconds kept
+     */
+    public ResourceHistory(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("History must keep at least one second: " + capacity);
+        }
+        this.capacity = capacity;
+        this.income = new long[capacity * TYPES];
+        this.expense = new long[capacity * TYPES];
+    }
+
+    /**
+     * Records a finished second, overwriting the oldest one once the buffer is full.
+     * @param secondIncome Income of the second per resource ordinal
+     * @param secondExpense Expense of the second per resource ordinal
+     */
+    void record(long[] secondIncome, long[] secondExpense) {
+        int base = next * TYPES;
+        for (int type = 0; type < TYPES; type++) {
+            incomeSums[type] += secondIncome[type] - income[base + type];
+            expenseSums[type] += secondExpense[type] - expense[base + type];
+            income[base + type] = secondIncome[type];
+            expense[base + type] = secondExpense[type];
+        }
+
+        next = (next + 1) % capacity;
+        size = Math.min(size + 1, capacity);
+    }
+
+    /**
+     * Gets the income of a recorded second.
+     * @param secondsAgo 0 for the last finished second, up to {@link #getSize()} - 1
+     */
+    public long getIncome(ResourceType type, int secondsAgo) {
+        return income[slot(secondsAgo) * TYPES + type.ordinal()];
+    }
+
+    /**
+     * Gets the expense of a recorded second.
+     * @param secondsAgo 0 for the last finished second, up to {@link #getSize()} - 1
+     */
+    public long getExpense(ResourceType type, int secondsAgo) {
+        return expense[slot(secondsAgo) * TYPES + type.ordinal()];
+    }
+
+    public long getTotalIncome(ResourceType type) {
+        return incomeSums[type.ordinal()];
+    }
+
+    public long getTotalExpense(ResourceType type) {
+        return expenseSums[type.ordinal()];
+    }
+
+    /**
+     * Gets the average income per second over the recorded seconds.
+     */
+    public double getIncomePerSecond(ResourceType type) {
+        return size == 0 ? 0 : (double) incomeSums[type.ordinal()] / size;
+    }
+
+    /**
+     * Gets the average expense per second over the recorded seconds.
+     */
+    public double getExpensePerSecond(ResourceType type) {
+        return size == 0 ? 0 : (double) expenseSums[type.ordinal()] / size;
+    }
+
+    private int slot(int secondsAgo) {
+        if (secondsAgo < 0 || secondsAgo >= size) {
+            throw new IndexOutOfBoundsException("No second recorded " + secondsAgo + " seconds ago, " + size + " recorded");
+        }
+        return Math.floorMod(next - 1 - secondsAgo, capacity);
+    }
+}
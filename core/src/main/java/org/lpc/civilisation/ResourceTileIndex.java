@@ -0,0 +1,266 @@
+package org.lpc.civilisation;
+
+import com.badlogic.gdx.utils.LongArray;
+import lombok.NonNull;
+import org.lpc.map.TileStore;
+import org.lpc.map.maps.SurfaceMap;
+import org.lpc.terrain.resources.ResourceType;
+import org.lpc.utility.PackedPosition;
+import org.lpc.utility.PositionIntMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ranks the unbuilt tiles of a territory by resource quantity, one indexed max-heap per resource type.
+ * Tiles are ordered by quantity, ties by the order they were claimed in. A tile is only in the heap of a type
+ * while it has some of it and no building, so the best tile to build on is always at the top.
+ * Adding, removing and updating a tile are O(log n) per type, the best k tiles are found in O(k log k).
+ * Tiles are kept as packed positions, a tile object is only made for the tiles handed out.
+ * Quantities are snapshots, anything changing the resources of an indexed tile reports it through
+ * {@link #quantityChanged(int, int)}. Harvests never need to, only built tiles are harvested.
+ */
+public class ResourceTileIndex {
+    private static final ResourceType[] TYPES = ResourceType.values();
+    private static final int ABSENT = -1;
+
+    private final SurfaceMap map;
+    // Packed tile positions by local id, ids are handed out in claim order
+    private final LongArray tiles = new LongArray();
+    // Packed tile position to local id
+    private final PositionIntMap ids = new PositionIntMap();
+
+    // Per type: heap of local ids, heap position and quantity of every local id
+    private final int[][] heaps = new int[TYPES.length][16];
+    private final int[][] positions = new int[TYPES.length][16];
+    private final int[][] quantities = new int[TYPES.length][16];
+    private final int[] sizes = new int[TYPES.length];
+
+    public ResourceTileIndex(@NonNull SurfaceMap map) {
+        this.map = map;
+    }
+
+    /**
+     * Adds a newly claimed tile.
+     */
+    public void add(int x, int y) {
+        int id = tiles.size;
+        long tile = PackedPosition.pack(x, y);
+        tiles.add(tile);
+        ids.put(tile, id);
+
+        if (id == positions[0].length) {
+            grow(id * 2);
+        }
+        for (int type = 0; type < TYPES.length; type++) {
+            positions[type][id] = ABSENT;
+        }
+        refresh(x, y, id);
+    }
+
+    public void buildingPlaced(int x, int y) {
+        int id = ids.get(PackedPosition.pack(x, y), ABSENT);
+        if (id == ABSENT) return;
+
+        for (int type = 0; type < TYPES.length; type++) {
+            remove(type, id);
+        }
+    }
+
+    public void buildingRemoved(int x, int y) {
+        quantityChanged(x, y);
+    }
+
+    /**
+     * Re-reads the quantities of an indexed tile.
+     */
+    public void quantityChanged(int x, int y) {
+        int id = ids.get(PackedPosition.pack(x, y), ABSENT);
+        if (id != ABSENT) {
+            refresh(x, y, id);
+        }
+    }
+
+    /**
+     * Gets the unbuilt tile with the most of a resource.
+     * @return The tile, or null if no unbuilt tile has any
+     */
+    public SurfaceMap.SurfaceTile best(@NonNull ResourceType type) {
+        int slot = type.ordinal();
+        return sizes[slot] == 0 ? null : tileOf(heaps[slot][0]);
+    }
+
+    /**
+     * Gets up to k unbuilt tiles with the most of a resource, best first.
+     * Walks the heap from the top with a small frontier heap, so only O(k) heap entries are looked at.
+     */
+    public List<SurfaceMap.SurfaceTile> best(@NonNull ResourceType type, int k) {
+        int slot = type.ordinal();
+        int[] heap = heaps[slot];
+        int size = sizes[slot];
+        List<SurfaceMap.SurfaceTile> result = new ArrayList<>(Math.min(k, size));
+        if (k <= 0 || size == 0) return result;
+
+        // Heap positions whose parents were already taken, ordered like the heap itself
+        int[] frontier = new int[k + 1];
+        int frontierSize = 0;
+        frontier[frontierSize++] = 0;
+
+        while (result.size() < k && frontierSize > 0) {
+            int position = frontier[0];
+            frontier[0] = frontier[--frontierSize];
+            siftDownFrontier(slot, frontier, frontierSize);
+            result.add(tileOf(heap[position]));
+
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+                if (frontierSize == frontier.length) {
+                    frontier = Arrays.copyOf(frontier, frontier.length * 2);
+                }
+                frontier[frontierSize] = child;
+                siftUpFrontier(slot, frontier, frontierSize++);
+            }
+        }
+        return result;
+    }
+
+    public int size(@NonNull ResourceType type) {
+        return sizes[type.ordinal()];
+    }
+
+    private void refresh(int x, int y, int id) {
+        TileStore chunk = map.getStore().getChunk(x, y);
+        int index = chunk.index(x, y);
+        boolean built = chunk.hasBuilding(index);
+
+        for (int type = 0; type < TYPES.length; type++) {
+            int quantity = built ? 0 : chunk.getResourceQuantity(index, TYPES[type]);
+            if (quantity > 0) {
+                set(type, id, quantity);
+            } else {
+                remove(type, id);
+            }
+        }
+    }
+
+    private void set(int type, int id, int quantity) {
+        int previous = quantities[type][id];
+        quantities[type][id] = quantity;
+
+        int position = positions[type][id];
+        if (position == ABSENT) {
+            position = sizes[type]++;
+            if (position == heaps[type].length) {
+                heaps[type] = Arrays.copyOf(heaps[type], position * 2);
+            }
+            heaps[type][position] = id;
+            positions[type][id] = position;
+            siftUp(type, position);
+        } else if (quantity > previous) {
+            siftUp(type, position);
+        } else if (quantity < previous) {
+            siftDown(type, position);
+        }
+    }
+
+    private void remove(int type, int id) {
+        int position = positions[type][id];
+        if (position == ABSENT) return;
+
+        int last = --sizes[type];
+        positions[type][id] = ABSENT;
+        if (position == last) return;
+
+        int moved = heaps[type][last];
+        heaps[type][position] = moved;
+        positions[type][moved] = position;
+        siftUp(type, position);
+        siftDown(type, positions[type][moved]);
+    }
+
+    /**
+     * Whether local id a ranks above b: more of the resource, or as much and claimed earlier.
+     */
+    private boolean ranksAbove(int type, int a, int b) {
+        int quantityA = quantities[type][a];
+        int quantityB = quantities[type][b];
+        return quantityA > quantityB || (quantityA == quantityB && a < b);
+    }
+
+    private void siftUp(int type, int position) {
+        int[] heap = heaps[type];
+        int id = heap[position];
+
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!ranksAbove(type, id, heap[parent])) break;
+
+            heap[position] = heap[parent];
+            positions[type][heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = id;
+        positions[type][id] = position;
+    }
+
+    private void siftDown(int type, int position) {
+        int[] heap = heaps[type];
+        int size = sizes[type];
+        int id = heap[position];
+
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) break;
+            if (child + 1 < size && ranksAbove(type, heap[child + 1], heap[child])) child++;
+            if (!ranksAbove(type, heap[child], id)) break;
+
+            heap[position] = heap[child];
+            positions[type][heap[position]] = position;
+            position = child;
+        }
+        heap[position] = id;
+        positions[type][id] = position;
+    }
+
+    private void siftUpFrontier(int type, int[] frontier, int index) {
+        int[] heap = heaps[type];
+        int position = frontier[index];
+
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksAbove(type, heap[position], heap[frontier[parent]])) break;
+            frontier[index] = frontier[parent];
+            index = parent;
+        }
+        frontier[index] = position;
+    }
+
+    private void siftDownFrontier(int type, int[] frontier, int size) {
+        int[] heap = heaps[type];
+        int index = 0;
+        if (size == 0) return;
+        int position = frontier[0];
+
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) break;
+            if (child + 1 < size && ranksAbove(type, heap[frontier[child + 1]], heap[frontier[child]])) child++;
+            if (!ranksAbove(type, heap[frontier[child]], heap[position])) break;
+            frontier[index] = frontier[child];
+            index = child;
+        }
+        frontier[index] = position;
+    }
+
+    private void grow(int capacity) {
+        for (int type = 0; type < TYPES.length; type++) {
+            positions[type] = Arrays.copyOf(positions[type], capacity);
+            quantities[type] = Arrays.copyOf(quantities[type], capacity);
+        }
+    }
+
+    private SurfaceMap.SurfaceTile tileOf(int id) {
+        long tile = tiles.get(id);
+        return map.getTile(PackedPosition.x(tile), PackedPosition.y(tile));
+    }
+}
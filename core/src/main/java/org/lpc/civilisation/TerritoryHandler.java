@@ -1,207 +1,343 @@
 package org.lpc.civilisation;
 
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongArray;
 import lombok.Getter;
+import lombok.NonNull;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.lpc.map.BaseMap;
+import org.lpc.map.ChunkedTileStore;
+import org.lpc.map.TerritoryBitSet;
+import org.lpc.map.TileStore;
 import org.lpc.map.maps.SurfaceMap;
 import org.lpc.terrain.TerrainType;
 import org.lpc.terrain.buildings.BaseBuilding;
 import org.lpc.terrain.buildings.buildings.Farm;
 import org.lpc.terrain.buildings.buildings.Sawmill;
 import org.lpc.terrain.resources.ResourceType;
-import org.lpc.utility.Position;
+import org.lpc.utility.PackedPosition;
+import org.lpc.utility.PositionSet;
+import org.lpc.utility.Stencil;
 
 import java.util.*;
 
+import static org.lpc.utility.Constants.EXPANSION_DISTANCE_WEIGHT;
+import static org.lpc.utility.Constants.EXPANSION_RESOURCE_WEIGHT;
+import static org.lpc.utility.Constants.EXPANSION_TERRAIN_WEIGHT;
+
 @Getter
 public class TerritoryHandler {
     private static final Logger LOGGER = LogManager.getLogger(TerritoryHandler.class);
+    private static final int[] NEIGHBOR_DX = { 1, -1, 0, 0 };
+    private static final int[] NEIGHBOR_DY = { 0, 0, 1, -1 };
+    private static final ResourceType[] RESOURCE_TYPES = ResourceType.values();
 
     private final Civilisation civilisation;
-    private final List<BaseMap.BaseTile> territory = new ArrayList<>();
-    private final List<SurfaceMap.SurfaceTile> surfaceTerritory = new ArrayList<>();
+    // Owned tiles, the tiles themselves store the owner id
+    private final TerritoryBitSet territory;
+    // Buildings still doing work, in placement order, so ticks scale with buildings instead of territory size.
+    // A list walked by index keeps the tick free of iterator garbage, removals are rare
+    private final List<BaseBuilding> activeBuildings = new ArrayList<>();
+    // Tiles asked for during the parallel tick phase as y * width + x, claimed in the merge phase
+    private final IntArray pendingClaims = new IntArray();
+    // Unbuilt territory tiles ranked per resource, for picking building sites
+    private final ResourceTileIndex resourceTiles;
+    // Unowned land next to the territory, ranked for expansion
+    private final Frontier frontier = new Frontier();
+    // Centre of the first claimed area, expansion favours tiles close to it
+    private int coreX = -1;
+    private int coreY = -1;
+    // Id of this civilisation in the tile store, looked up once
+    private short ownerId = TileStore.NO_OWNER;
 
     public TerritoryHandler(Civilisation civilisation) {
         this.civilisation = Objects.requireNonNull(civilisation, "Civilisation cannot be null");
+        this.territory = new TerritoryBitSet(getSurfaceMap().getStore());
+        this.resourceTiles = new ResourceTileIndex(getSurfaceMap());
     }
 
     public void update() {
-        for (BaseMap.BaseTile tile : territory) {
-            tile.update();
+        for (int i = 0; i < activeBuildings.size(); i++) {
+            activeBuildings.get(i).update();
         }
     }
 
+    /**
+     * Places a farm on the best food tile and a sawmill on the best wood tile left.
+     */
     public void setStartingBuildings() {
-        SurfaceMap.SurfaceTile bestFoodTile = findBestResourceTile(ResourceType.FOOD);
-        SurfaceMap.SurfaceTile bestWoodTile = findBestResourceTile(ResourceType.WOOD);
-        SurfaceMap.SurfaceTile secondBestWoodTile = findSecondBestResourceTile(ResourceType.WOOD);
+        SurfaceMap.SurfaceTile foodTile = resourceTiles.best(ResourceType.FOOD);
+        if (foodTile == null) {
+            LOGGER.warn("No suitable food tile found for starting buildings");
+            return;
+        }
+        placeBuilding(foodTile, new Farm(foodTile));
 
-        placeStartingBuildings(bestFoodTile, bestWoodTile, secondBestWoodTile);
+        // Built tiles drop out of the index, so this never picks the farm tile
+        SurfaceMap.SurfaceTile woodTile = resourceTiles.best(ResourceType.WOOD);
+        if (woodTile != null) {
+            placeBuilding(woodTile, new Sawmill(woodTile));
+        }
     }
 
-    private SurfaceMap.SurfaceTile findBestResourceTile(ResourceType resourceType) {
-        SurfaceMap.SurfaceTile bestTile = null;
-        int bestAmount = -1;
-
-        for (SurfaceMap.SurfaceTile tile : surfaceTerritory) {
-            int currentAmount = tile.getResources().getResourceQuantity(resourceType);
-            if (currentAmount > bestAmount) {
-                bestAmount = currentAmount;
-                bestTile = tile;
-            }
+    /**
+     * Places a building on an empty tile and starts it.
+     * @return Whether the building was placed
+     */
+    public boolean placeBuilding(SurfaceMap.SurfaceTile tile, BaseBuilding building) {
+        if (tile == null || tile.getBuilding() != null) {
+            return false;
         }
-        return bestTile;
-    }
-
-    private SurfaceMap.SurfaceTile findSecondBestResourceTile(ResourceType resourceType) {
-        SurfaceMap.SurfaceTile best = null;
-        SurfaceMap.SurfaceTile secondBest = null;
-        int bestAmount = -1;
-        int secondBestAmount = -1;
-
-        for (SurfaceMap.SurfaceTile tile : surfaceTerritory) {
-            int currentAmount = tile.getResources().getResourceQuantity(resourceType);
-            if (currentAmount > bestAmount) {
-                secondBest = best;
-                secondBestAmount = bestAmount;
-                best = tile;
-                bestAmount = currentAmount;
-            } else if (currentAmount > secondBestAmount) {
-                secondBest = tile;
-                secondBestAmount = currentAmount;
-            }
+
+        tile.setBuilding(building);
+        resourceTiles.buildingPlaced(tile.getX(), tile.getY());
+        building.setOwner(civilisation);
+        activeBuildings.add(building);
+        building.start(civilisation.getScheduler());
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Placed {} at {}", building.getClass().getSimpleName(), tile.getPosition());
         }
-        return secondBest;
+        return true;
     }
 
-    private void placeStartingBuildings(SurfaceMap.SurfaceTile foodTile,
-                                        SurfaceMap.SurfaceTile woodTile,
-                                        SurfaceMap.SurfaceTile backupWoodTile) {
-        if (foodTile == null) {
-            LOGGER.warn("No suitable food tile found for starting buildings");
-            return;
+    /**
+     * Removes the building of a tile, stopping it.
+     * @return Whether the tile had a building
+     */
+    public boolean removeBuilding(SurfaceMap.SurfaceTile tile) {
+        BaseBuilding building = tile == null ? null : tile.getBuilding();
+        if (building == null) {
+            return false;
         }
 
-        SurfaceMap.SurfaceTile actualWoodTile = woodTile;
-        if (woodTile != null && woodTile == foodTile) {
-            actualWoodTile = backupWoodTile;
+        deactivateBuilding(building);
+        building.setOwner(null);
+        tile.setBuilding(null);
+        resourceTiles.buildingRemoved(tile.getX(), tile.getY());
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Removed {} at {}", building.getClass().getSimpleName(), tile.getPosition());
         }
+        return true;
+    }
 
-        placeBuilding(foodTile, new Farm(foodTile));
-        if (actualWoodTile != null) {
-            placeBuilding(actualWoodTile, new Sawmill(actualWoodTile));
+    /**
+     * Stops a building that has no work left, such as a destroyed one or one whose resource is exhausted.
+     * The building stays on its tile.
+     */
+    public void deactivateBuilding(@NonNull BaseBuilding building) {
+        building.stop();
+        if (activeBuildings.remove(building) && LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Deactivated {} at {}", building.getClass().getSimpleName(), building.getTile().getPosition());
         }
     }
 
-    private void placeBuilding(SurfaceMap.SurfaceTile tile, BaseBuilding building) {
-        if (tile != null && tile.getBuilding() == null) {
-            tile.setBuilding(building);
-            LOGGER.debug("Placed {} at {}", building.getClass().getSimpleName(), tile.getPosition());
+    public boolean owns(int x, int y) {
+        return territory.contains(x, y);
+    }
+
+    public int getTerritorySize() {
+        return territory.size();
+    }
+
+    public List<BaseBuilding> getActiveBuildings() {
+        return Collections.unmodifiableList(activeBuildings);
+    }
+
+    public int getActiveBuildingCount() {
+        return activeBuildings.size();
+    }
+
+    /**
+     * Asks for an unowned tile. Safe to call while civilisations tick in parallel, the tile is claimed
+     * in the merge phase after the tick, unless it is owned by then or a stronger civilisation asked for it too.
+     */
+    public void requestClaim(int x, int y) {
+        SurfaceMap map = getSurfaceMap();
+        if (!isWithinMapBounds(x, y, map)) {
+            throw new IllegalArgumentException("Claim outside the map: " + x + ", " + y);
         }
+        pendingClaims.add(y * map.getWidth() + x);
+    }
+
+    IntArray getPendingClaims() {
+        return pendingClaims;
     }
 
     public void claimStartingTerritory(int startX, int startY, int populationRadius) {
         SurfaceMap map = getSurfaceMap();
-        Position validStart = findValidStartingPosition(startX, startY, populationRadius, map);
-        claimTerritoryArea(validStart, populationRadius, map);
+        if (!isWithinMapBounds(startX, startY, map)) {
+            throw new IllegalArgumentException("Starting position outside the map: " + startX + ", " + startY);
+        }
+        long validStart = findValidStartingPosition(startX, startY, populationRadius, map);
+        claimTerritoryArea(PackedPosition.x(validStart), PackedPosition.y(validStart), populationRadius, map);
+    }
+
+    /**
+     * Claims every unowned tile in a square around a position, without looking for a valid starting area.
+     * @return Number of tiles claimed
+     */
+    public int claimArea(int centerX, int centerY, int radius) {
+        SurfaceMap map = getSurfaceMap();
+        return claimTerritoryArea(centerX, centerY, radius, map);
     }
 
     private SurfaceMap getSurfaceMap() {
         return civilisation.getGameStateManager().getMapSystem().getSurfaceMap();
     }
 
-    private Position findValidStartingPosition(int startX, int startY, int radius, SurfaceMap map) {
-        Queue<Position> searchQueue = new LinkedList<>();
-        Set<Position> visited = new HashSet<>();
-        Position initialPosition = new Position(startX, startY, map.getScale());
-
-        searchQueue.add(initialPosition);
-        visited.add(initialPosition);
-
-        while (!searchQueue.isEmpty()) {
-            Position current = searchQueue.poll();
-
-            if (isValidStartingArea(current, radius, map)) {
-                LOGGER.info("Found valid starting position at {}", current);
+    /**
+     * Searches outwards from a position, in rings of neighbours, for the nearest square of claimable tiles.
+     * Each candidate is checked in O(1) against the summed-area tables of the map.
+     * Positions stay packed in primitive collections, so the search only allocates when they grow.
+     * @return The centre of the square, packed
+     */
+    private long findValidStartingPosition(int startX, int startY, int radius, SurfaceMap map) {
+        PositionSet visited = new PositionSet(1024);
+        LongArray queue = new LongArray(1024);
+        int head = 0;
+
+        long start = PackedPosition.pack(startX, startY);
+        queue.add(start);
+        visited.add(start);
+
+        while (head < queue.size) {
+            long current = queue.get(head++);
+            int x = PackedPosition.x(current);
+            int y = PackedPosition.y(current);
+
+            if (isValidStartingArea(x, y, radius, map)) {
+                LOGGER.info("Found valid starting position at {}", PackedPosition.toString(current));
                 return current;
             }
 
-            addNeighborPositions(current, map, searchQueue, visited);
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    if (dx == 0 && dy == 0) continue;
+
+                    int neighborX = x + dx;
+                    int neighborY = y + dy;
+                    if (isWithinMapBounds(neighborX, neighborY, map) && visited.add(neighborX, neighborY)) {
+                        queue.add(PackedPosition.pack(neighborX, neighborY));
+                    }
+                }
+            }
         }
 
         throw new IllegalStateException("Failed to find valid starting position after checking "
             + visited.size() + " locations");
     }
 
-    private boolean isValidStartingArea(Position center, int radius, SurfaceMap map) {
-        for (int x = center.getGridX() - radius; x <= center.getGridX() + radius; x++) {
-            for (int y = center.getGridY() - radius; y <= center.getGridY() + radius; y++) {
-                if (!isValidTileForClaiming(x, y, map)) {
-                    return false;
-                }
-            }
-        }
-        return true;
-    }
+    private boolean isValidStartingArea(int centerX, int centerY, int radius, SurfaceMap map) {
+        int startX = centerX - radius;
+        int startY = centerY - radius;
+        int endX = centerX + radius;
+        int endY = centerY + radius;
 
-    private boolean isValidTileForClaiming(int x, int y, SurfaceMap map) {
-        if (x < 0 || x >= map.getWidth() || y < 0 || y >= map.getHeight()) {
+        if (!isWithinMapBounds(startX, startY, map) || !isWithinMapBounds(endX, endY, map)) {
             return false;
         }
 
-        SurfaceMap.SurfaceTile tile = map.getTile(x, y);
-        return tile.getTerrain() != TerrainType.WATER && tile.getOwner() == null;
+        int side = 2 * radius + 1;
+        return map.getStore().countClaimable(startX, startY, endX, endY) == side * side;
     }
 
-    private void addNeighborPositions(Position current, SurfaceMap map,
-                                      Queue<Position> queue, Set<Position> visited) {
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dy = -1; dy <= 1; dy++) {
-                if (dx == 0 && dy == 0) continue;
-
-                int newX = current.getGridX() + dx;
-                int newY = current.getGridY() + dy;
+    private boolean isWithinMapBounds(int x, int y, SurfaceMap map) {
+        return x >= 0 && x < map.getWidth() && y >= 0 && y < map.getHeight();
+    }
 
-                if (isWithinMapBounds(newX, newY, map)) {
-                    Position neighbor = new Position(newX, newY, map.getScale());
-                    if (visited.add(neighbor)) {
-                        queue.add(neighbor);
-                    }
-                }
-            }
+    private int claimTerritoryArea(int centerX, int centerY, int radius, SurfaceMap map) {
+        if (territory.isEmpty()) {
+            coreX = centerX;
+            coreY = centerY;
         }
+
+        int claimedBefore = territory.size();
+        Stencil.square(radius).forEach(centerX, centerY, map.getWidth(), map.getHeight(),
+            this::claimTile);
+        int tilesClaimed = territory.size() - claimedBefore;
+
+        LOGGER.info("Successfully claimed {} tiles around position [{},{}]", tilesClaimed, centerX, centerY);
+        return tilesClaimed;
     }
 
-    private boolean isWithinMapBounds(int x, int y, SurfaceMap map) {
-        return x >= 0 && x < map.getWidth() && y >= 0 && y < map.getHeight();
+    /**
+     * Claims an unowned tile and moves the frontiers around it. Only called outside the parallel tick phase,
+     * it reads the shared map and edits the frontiers of neighbouring civilisations.
+     * Works on the chunk directly, so claiming never creates tile objects.
+     */
+    boolean claimTile(int x, int y) {
+        TileStore chunk = getSurfaceMap().getStore().getChunk(x, y);
+        int index = chunk.index(x, y);
+        if (chunk.getOwnerId(index) != TileStore.NO_OWNER) {
+            return false;
+        }
+
+        chunk.setOwnerId(index, getOwnerId());
+        territory.add(x, y);
+        resourceTiles.add(x, y);
+        updateFrontiers(x, y);
+        return true;
     }
 
-    private void claimTerritoryArea(Position center, int radius, SurfaceMap map) {
-        int tilesClaimed = 0;
+    /**
+     * Gets the id this civilisation is stored under in the tile store, registered by the first claim.
+     */
+    private short getOwnerId() {
+        if (ownerId == TileStore.NO_OWNER) {
+            ownerId = getSurfaceMap().getOwnerId(civilisation);
+        }
+        return ownerId;
+    }
 
-        for (int x = center.getGridX() - radius; x <= center.getGridX() + radius; x++) {
-            for (int y = center.getGridY() - radius; y <= center.getGridY() + radius; y++) {
-                if (isWithinMapBounds(x, y, map)) {
-                    SurfaceMap.SurfaceTile tile = map.getTile(x, y);
-                    if (claimTile(tile)) {
-                        tilesClaimed++;
-                    }
+    /**
+     * Takes a newly owned tile off every frontier it was on, which are the frontiers of the owners of its
+     * neighbours, and puts its unowned land neighbours on this frontier.
+     */
+    private void updateFrontiers(int x, int y) {
+        SurfaceMap map = getSurfaceMap();
+        ChunkedTileStore store = map.getStore();
+        long claimed = PackedPosition.pack(x, y);
+        frontier.remove(claimed);
+
+        for (int i = 0; i < NEIGHBOR_DX.length; i++) {
+            int neighborX = x + NEIGHBOR_DX[i];
+            int neighborY = y + NEIGHBOR_DY[i];
+            if (!store.isWithinBounds(neighborX, neighborY)) continue;
+
+            short ownerId = store.getOwnerId(neighborX, neighborY);
+            if (ownerId != TileStore.NO_OWNER) {
+                Civilisation neighbor = map.getOwner(ownerId);
+                if (neighbor != civilisation) {
+                    neighbor.getTerritoryHandler().getFrontier().remove(claimed);
                 }
+                continue;
             }
-        }
 
-        LOGGER.info("Successfully claimed {} tiles around position {}", tilesClaimed, center);
+            long candidate = PackedPosition.pack(neighborX, neighborY);
+            if (!frontier.contains(candidate) && store.getTerrain(neighborX, neighborY) != TerrainType.WATER) {
+                frontier.add(candidate, scoreFrontierTile(neighborX, neighborY, store));
+            }
+        }
     }
 
-    private boolean claimTile(SurfaceMap.SurfaceTile tile) {
-        if (tile.getOwner() != null) {
-            return false;
+    /**
+     * Scores an unowned tile for expansion: easy terrain and resources count for it, distance from the core against it.
+     */
+    private int scoreFrontierTile(int x, int y, ChunkedTileStore store) {
+        TileStore chunk = store.getChunk(x, y);
+        int index = chunk.index(x, y);
+
+        int resources = 0;
+        for (ResourceType type : RESOURCE_TYPES) {
+            resources += chunk.getResourceQuantity(index, type);
         }
 
-        tile.setOwner(civilisation);
-        territory.add(tile);
-        surfaceTerritory.add(tile);
-        return true;
+        int dx = x - coreX;
+        int dy = y - coreY;
+        float distance = (float) Math.sqrt(dx * dx + dy * dy);
+
+        return (int) (TerrainType.getMovementModifier(chunk.getTerrain(index)) * EXPANSION_TERRAIN_WEIGHT
+            + resources * EXPANSION_RESOURCE_WEIGHT
+            - distance * EXPANSION_DISTANCE_WEIGHT);
     }
 }
@@ -5,16 +5,19 @@ import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
-import org.javatuples.Pair;
 import org.lpc.MainGame;
 import org.lpc.civilisation.Civilisation;
-import org.lpc.terrain.resources.ResourceType;
 import org.lpc.utility.Position;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.lpc.utility.Constants.CHUNK_SIZE;
+import static org.lpc.utility.Constants.MAX_RESIDENT_CHUNKS;
 
 /**
  * Base class for all game maps containing grid-based tiles.
+ * Tile data lives in lazily generated {@link TileStore} chunks, tiles themselves are views created on demand.
  * @param <T> Concrete tile type extending BaseTile
  */
 @Getter
@@ -24,35 +27,34 @@ public abstract class BaseMap<T extends BaseMap.BaseTile> {
 
     protected final @NonNull MainGame game;
     protected final @NonNull MapScale scale;
-    protected final @NonNull IMapGenerator<T> mapGenerator;
+    protected final @NonNull IMapGenerator mapGenerator;
     protected final @NonNull IMapRenderer<T> renderer;
     protected final @NonNull IMapInput input;
-    protected final @NonNull T[][] tiles;
+    protected final @NonNull ChunkedTileStore store;
+
+    // Owner id n maps to owners[n - 1], id 0 means unowned
+    protected final List<Civilisation> owners = new ArrayList<>();
 
     protected int width;
     protected int height;
 
     /**
      * Base class for all map tiles.
+     * Tiles are lightweight views, two views of the same grid cell are equal.
      */
     @Getter
-    @Setter
     public abstract static class BaseTile {
-        protected final @NonNull Position position;
         protected final @NonNull MapScale scale;
-        protected Civilisation owner;
 
-        protected BaseTile(@NonNull Position position, @NonNull MapScale scale) {
-            this.position = position;
+        protected BaseTile(@NonNull MapScale scale) {
             this.scale = scale;
         }
 
-        /**
-         * Attempts to harvest resources from this tile.
-         * @return Optional containing resource type and amount if available,
-         *         empty Optional if no resources can be harvested
-         */
-        public abstract Optional<Pair<ResourceType, Integer>> harvestResource();
+        public abstract Position getPosition();
+
+        public abstract Civilisation getOwner();
+
+        public abstract void setOwner(Civilisation owner);
 
         /**
          * Updates tile state each game tick
@@ -65,13 +67,11 @@ public abstract class BaseMap<T extends BaseMap.BaseTile> {
         int width,
         int height,
         @NonNull MainGame game,
-        @NonNull IMapGenerator<T> mapGenerator,
+        @NonNull IMapGenerator mapGenerator,
         @NonNull IMapRenderer<T> renderer,
-        @NonNull T[][] tiles,
         @NonNull IMapInput input
     ) {
         validateDimensions(width, height);
-        validateTileArrayDimensions(tiles, width, height);
 
         this.scale = scale;
         this.width = width;
@@ -79,44 +79,53 @@ public abstract class BaseMap<T extends BaseMap.BaseTile> {
         this.game = game;
         this.mapGenerator = mapGenerator;
         this.renderer = renderer;
-        this.tiles = tiles;
+        this.store = new ChunkedTileStore(width, height, CHUNK_SIZE, MAX_RESIDENT_CHUNKS, mapGenerator);
         this.input = input;
-
-        generateMap();
     }
 
     public abstract void update();
 
+    public abstract T getTile(int x, int y);
+
     public void render(@NonNull ShapeRenderer shapeRenderer, @NonNull SpriteBatch batch) {
-        renderer.render(tiles, shapeRenderer, batch);
+        renderer.render(this, shapeRenderer, batch);
     }
 
-    protected final void generateMap() {
-        mapGenerator.generateTerrain(tiles, width, height);
-        mapGenerator.generateResources(tiles);
+    public void dispose() {
+        renderer.dispose();
+        mapGenerator.dispose();
     }
 
-    private static void validateDimensions(int width, int height) {
-        if (width < MIN_MAP_DIMENSION || height < MIN_MAP_DIMENSION) {
-            throw new IllegalArgumentException(
-                "Map dimensions must be at least " + MIN_MAP_DIMENSION + "x" + MIN_MAP_DIMENSION
-            );
+    /**
+     * Resolves an owner id stored in the tile store.
+     * @return Owning civilisation, or null for {@link TileStore#NO_OWNER}
+     */
+    public Civilisation getOwner(short ownerId) {
+        return ownerId == TileStore.NO_OWNER ? null : owners.get(ownerId - 1);
+    }
+
+    /**
+     * Gets the id used to store a civilisation in the tile store, registering it on first use.
+     */
+    public short getOwnerId(Civilisation owner) {
+        if (owner == null) return TileStore.NO_OWNER;
+
+        int index = owners.indexOf(owner);
+        if (index < 0) {
+            if (owners.size() >= Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many tile owners registered: " + owners.size());
+            }
+            owners.add(owner);
+            index = owners.size() - 1;
         }
+        return (short) (index + 1);
     }
 
-    private static <T extends BaseTile> void validateTileArrayDimensions(T[][] tiles, int expectedWidth, int expectedHeight) {
-        if (tiles.length != expectedWidth) {
+    private static void validateDimensions(int width, int height) {
+        if (width < MIN_MAP_DIMENSION || height < MIN_MAP_DIMENSION) {
             throw new IllegalArgumentException(
-                "Tile array width mismatch. Expected: " + expectedWidth + ", Actual: " + tiles.length
+                "Map dimensions must be at least " + MIN_MAP_DIMENSION + "x" + MIN_MAP_DIMENSION
             );
         }
-
-        for (int x = 0; x < tiles.length; x++) {
-            if (tiles[x].length != expectedHeight) {
-                throw new IllegalArgumentException(
-                    "Tile array height mismatch at column " + x + ". Expected: " + expectedHeight + ", Actual: " + tiles[x].length
-                );
-            }
-        }
     }
 }
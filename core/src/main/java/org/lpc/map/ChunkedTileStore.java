@@ -0,0 +1,309 @@
+package org.lpc.map;
+
+import com.badlogic.gdx.utils.IntArray;
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lpc.terrain.TerrainType;
+
+/**
+ * World-sized tile storage split into fixed-size square chunks.
+ * Chunks are {@link TileStore} blocks generated on first access through the map generator
+ * and kept in a bounded cache. When the cache is full the least recently used chunk that
+ * holds no owned tiles and no changes is dropped, it can always be regenerated later.
+ * Lookups are not thread-safe, they move the access clock and may generate or evict chunks. While civilisations
+ * update in parallel lookups are locked, see {@link #setLookupsLocked(boolean)}.
+ */
+public class ChunkedTileStore {
+    private static final Logger LOGGER = LogManager.getLogger(ChunkedTileStore.class);
+
+    @Getter private final int width;
+    @Getter private final int height;
+    @Getter private final int chunkSize;
+    @Getter private final int chunksX;
+    @Getter private final int chunksY;
+    @Getter private final int maxResidentChunks;
+
+    private final IMapGenerator generator;
+    private final TileStore[] chunks;
+    private final long[] lastAccess;
+    private final IntArray resident = new IntArray();
+    private long accessClock;
+    // Plain field, the pipeline sets it before handing the update phase to its workers and clears it after
+    private boolean lookupsLocked;
+
+    @Getter private final ResourceIndex resourceIndex;
+
+    /**
+     * Callback for visiting tiles chunk by chunk.
+     */
+    @FunctionalInterface
+    public interface TileVisitor {
+        /**
+         * @param chunk Chunk holding the tile
+         * @param index Index of the tile inside the chunk
+         * @param x World x coordinate
+         * @param y World y coordinate
+         */
+        void visit(TileStore chunk, int index, int x, int y);
+    }
+
+    public ChunkedTileStore(int width, int height, int chunkSize, int maxResidentChunks, @NonNull IMapGenerator generator) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("World dimensions must be positive: " + width + "x" + height);
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        if (maxResidentChunks < 1) {
+            throw new IllegalArgumentException("Chunk cache must hold at least one chunk: " + maxResidentChunks);
+        }
+
+        this.width = width;
+        this.height = height;
+        this.chunkSize = chunkSize;
+        this.chunksX = (width + chunkSize - 1) / chunkSize;
+        this.chunksY = (height + chunkSize - 1) / chunkSize;
+        this.maxResidentChunks = maxResidentChunks;
+        this.generator = generator;
+        this.chunks = new TileStore[chunksX * chunksY];
+        this.lastAccess = new long[chunks.length];
+        this.resourceIndex = new ResourceIndex(this);
+    }
+
+    public boolean isWithinBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    /**
+     * Gets the world-wide index of a tile, {@code x * height + y}.
+     */
+    public int index(int x, int y) {
+        return x * height + y;
+    }
+
+    /**
+     * Gets the chunk holding a tile, generating it if it is not resident.
+     * @param x World x coordinate
+     * @param y World y coordinate
+     */
+    public TileStore getChunk(int x, int y) {
+        return getChunkAt(x / chunkSize, y / chunkSize);
+    }
+
+    /**
+     * Gets a chunk by chunk coordinates, generating it if it is not resident.
+     */
+    public TileStore getChunkAt(int chunkX, int chunkY) {
+        assert !lookupsLocked : "Chunk lookup while civilisations update in parallel";
+
+        int slot = chunkX * chunksY + chunkY;
+        lastAccess[slot] = ++accessClock;
+
+        TileStore chunk = chunks[slot];
+        return chunk != null ? chunk : loadChunk(slot, chunkX, chunkY);
+    }
+
+    /**
+     * Locks or unlocks chunk lookups. The civilisation pipeline locks them for its update phase, which must only
+     * touch civ-local state and views it already holds, with assertions enabled a lookup then fails.
+     */
+    public void setLookupsLocked(boolean locked) {
+        this.lookupsLocked = locked;
+    }
+
+    public boolean isChunkResident(int chunkX, int chunkY) {
+        return chunks[chunkX * chunksY + chunkY] != null;
+    }
+
+    public int getResidentChunkCount() {
+        return resident.size;
+    }
+
+    public TerrainType getTerrain(int x, int y) {
+        TileStore chunk = getChunk(x, y);
+        return chunk.getTerrain(chunk.index(x, y));
+    }
+
+    public short getOwnerId(int x, int y) {
+        TileStore chunk = getChunk(x, y);
+        return chunk.getOwnerId(chunk.index(x, y));
+    }
+
+    /**
+     * Gets the majority owner of a cell of a level of detail, see {@link TilePyramid}.
+     * Cells line up with chunks as long as the chunk size is a multiple of the cell size.
+     * @param cellX World x coordinate shifted right by the level
+     * @param cellY World y coordinate shifted right by the level
+     */
+    public short getOwnerId(int level, int cellX, int cellY) {
+        if (level == 0) return getOwnerId(cellX, cellY);
+
+        TileStore chunk = getChunk(cellX << level, cellY << level);
+        return chunk.getPyramid().getOwnerId(level,
+            cellX - (chunk.getOriginX() >> level),
+            cellY - (chunk.getOriginY() >> level));
+    }
+
+    /**
+     * Counts the claimable tiles of an inclusive rectangle, which must lie inside the world.
+     * Sums the summed-area tables of the chunks it overlaps, so a query costs O(1) per chunk.
+     */
+    public int countClaimable(int startX, int startY, int endX, int endY) {
+        int count = 0;
+        for (int chunkX = startX / chunkSize; chunkX <= endX / chunkSize; chunkX++) {
+            for (int chunkY = startY / chunkSize; chunkY <= endY / chunkSize; chunkY++) {
+                TileStore chunk = getChunkAt(chunkX, chunkY);
+
+                count += chunk.countClaimable(
+                    Math.max(startX, chunk.getOriginX()),
+                    Math.max(startY, chunk.getOriginY()),
+                    Math.min(endX, chunk.getOriginX() + chunk.getWidth() - 1),
+                    Math.min(endY, chunk.getOriginY() + chunk.getHeight() - 1)
+                );
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Visits every tile of an inclusive rectangle, chunk by chunk and in memory order inside each chunk.
+     * The rectangle is clipped to the world bounds.
+     */
+    public void forEachTile(int startX, int startY, int endX, int endY, @NonNull TileVisitor visitor) {
+        startX = Math.max(0, startX);
+        startY = Math.max(0, startY);
+        endX = Math.min(width - 1, endX);
+        endY = Math.min(height - 1, endY);
+
+        if (startX > endX || startY > endY) return;
+
+        for (int chunkX = startX / chunkSize; chunkX <= endX / chunkSize; chunkX++) {
+            for (int chunkY = startY / chunkSize; chunkY <= endY / chunkSize; chunkY++) {
+                TileStore chunk = getChunkAt(chunkX, chunkY);
+
+                int fromX = Math.max(startX, chunk.getOriginX());
+                int toX = Math.min(endX, chunk.getOriginX() + chunk.getWidth() - 1);
+                int fromY = Math.max(startY, chunk.getOriginY());
+                int toY = Math.min(endY, chunk.getOriginY() + chunk.getHeight() - 1);
+
+                for (int x = fromX; x <= toX; x++) {
+                    int index = chunk.index(x, fromY);
+                    for (int y = fromY; y <= toY; y++, index++) {
+                        visitor.visit(chunk, index, x, y);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates every chunk overlapping an inclusive tile rectangle up front, so they are resident before first use.
+     * Terrain is generated for all chunks before resources, and both passes are reported to the progress.
+     * The rectangle is clipped to the world bounds.
+     */
+    public void preload(int startX, int startY, int endX, int endY, @NonNull GenerationProgress progress) {
+        startX = Math.max(0, startX);
+        startY = Math.max(0, startY);
+        endX = Math.min(width - 1, endX);
+        endY = Math.min(height - 1, endY);
+
+        IntArray slots = new IntArray();
+        if (startX <= endX && startY <= endY) {
+            for (int chunkX = startX / chunkSize; chunkX <= endX / chunkSize; chunkX++) {
+                for (int chunkY = startY / chunkSize; chunkY <= endY / chunkSize; chunkY++) {
+                    if (!isChunkResident(chunkX, chunkY)) {
+                        slots.add(chunkX * chunksY + chunkY);
+                    }
+                }
+            }
+        }
+
+        TileStore[] pending = new TileStore[slots.size];
+        for (int i = 0; i < pending.length; i++) {
+            progress.update(GenerationProgress.Phase.TERRAIN, i, pending.length);
+            pending[i] = createChunk(slots.get(i) / chunksY, slots.get(i) % chunksY);
+            generator.generateTerrain(pending[i]);
+        }
+
+        for (int i = 0; i < pending.length; i++) {
+            progress.update(GenerationProgress.Phase.RESOURCES, i, pending.length);
+            generator.generateResources(pending[i]);
+            installChunk(slots.get(i), pending[i]);
+        }
+        progress.update(GenerationProgress.Phase.RESOURCES, pending.length, pending.length);
+
+        LOGGER.info("Preloaded {} chunks, {} resident", pending.length, resident.size);
+    }
+
+    /**
+     * Generates a chunk as it would be loaded, without installing it or touching the cache.
+     * For reading what a chunk that was never generated will hold, without evicting chunks in use.
+     */
+    TileStore generateDetached(int chunkX, int chunkY) {
+        TileStore chunk = createChunk(chunkX, chunkY);
+
+        generator.generateTerrain(chunk);
+        generator.generateResources(chunk);
+        chunk.markGenerated();
+        return chunk;
+    }
+
+    private TileStore loadChunk(int slot, int chunkX, int chunkY) {
+        TileStore chunk = createChunk(chunkX, chunkY);
+
+        generator.generateTerrain(chunk);
+        generator.generateResources(chunk);
+        installChunk(slot, chunk);
+
+        LOGGER.debug("Generated chunk [{},{}], {} resident", chunkX, chunkY, resident.size);
+        return chunk;
+    }
+
+    private TileStore createChunk(int chunkX, int chunkY) {
+        int originX = chunkX * chunkSize;
+        int originY = chunkY * chunkSize;
+        return new TileStore(
+            originX,
+            originY,
+            Math.min(chunkSize, width - originX),
+            Math.min(chunkSize, height - originY)
+        );
+    }
+
+    private void installChunk(int slot, TileStore chunk) {
+        chunk.markGenerated();
+        resourceIndex.chunkInstalled(chunk);
+        chunk.setResourceIndex(resourceIndex);
+
+        chunks[slot] = chunk;
+        lastAccess[slot] = ++accessClock;
+        resident.add(slot);
+
+        if (resident.size > maxResidentChunks) {
+            evictLeastRecentlyUsed(slot);
+        }
+    }
+
+    private void evictLeastRecentlyUsed(int keepSlot) {
+        int victim = -1;
+        long oldest = Long.MAX_VALUE;
+
+        for (int i = 0; i < resident.size; i++) {
+            int slot = resident.get(i);
+            if (slot == keepSlot || chunks[slot].isPinned()) continue;
+
+            if (lastAccess[slot] < oldest) {
+                oldest = lastAccess[slot];
+                victim = i;
+            }
+        }
+
+        // Everything resident is pinned, let the cache grow rather than lose state
+        if (victim < 0) return;
+
+        int slot = resident.removeIndex(victim);
+        chunks[slot] = null;
+    }
+}
@@ -0,0 +1,64 @@
+package org.lpc.map;
+
+import lombok.Getter;
+
+/**
+ * Progress of world generation, written by the generating thread and read by the UI.
+ */
+public class GenerationProgress {
+    @Getter
+    public enum Phase {
+        PENDING("Preparing world", 0f),
+        TERRAIN("Generating terrain", 0.6f),
+        RESOURCES("Placing resources", 0.3f),
+        CIVILISATION("Founding civilisation", 0.1f),
+        DONE("World ready", 0f);
+
+        private final String description;
+        private final float weight; // Share of the total generation time
+
+        Phase(String description, float weight) {
+            this.description = description;
+            this.weight = weight;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    @Getter private volatile Phase phase = Phase.PENDING;
+    @Getter private volatile float phaseProgress;
+
+    /**
+     * Reports the current phase and how many of its steps are done.
+     */
+    public void update(Phase phase, int done, int total) {
+        this.phaseProgress = total > 0 ? Math.min(1f, (float) done / total) : 1f;
+        this.phase = phase;
+    }
+
+    public void complete() {
+        update(Phase.DONE, 1, 1);
+    }
+
+    public boolean isDone() {
+        return phase == Phase.DONE;
+    }
+
+    /**
+     * Gets the progress over all phases, from 0 to 1.
+     */
+    public float getOverallProgress() {
+        Phase current = phase;
+        if (current == Phase.DONE) return 1f;
+
+        float progress = 0f;
+        for (int i = 0; i < current.ordinal(); i++) {
+            progress += PHASES[i].getWeight();
+        }
+        return progress + current.getWeight() * phaseProgress;
+    }
+
+    public int getPercentage() {
+        return Math.round(getOverallProgress() * 100);
+    }
+}
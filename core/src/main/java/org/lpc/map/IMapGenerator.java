@@ -1,6 +1,16 @@
 package org.lpc.map;
 
-public interface IMapGenerator<T extends BaseMap.BaseTile> {
-    void generateTerrain(T[][] tiles, int width, int height);
-    void generateResources(T[][] tiles);
+import com.badlogic.gdx.utils.Disposable;
+
+public interface IMapGenerator extends Disposable {
+    void generateTerrain(TileStore store);
+    void generateResources(TileStore store);
+
+    /**
+     * Releases the threads or other resources of the generator, no chunks can be generated afterwards.
+     */
+    @Override
+    default void dispose() {
+        // Default no-op implementation
+    }
 }
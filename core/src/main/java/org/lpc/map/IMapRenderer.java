@@ -6,6 +6,7 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 
 public interface IMapRenderer<T extends BaseMap.BaseTile> {
-    void render(T[][] tiles, ShapeRenderer shapeRenderer, SpriteBatch batch);
+    void render(BaseMap<T> map, ShapeRenderer shapeRenderer, SpriteBatch batch);
     OrthographicCamera getCamera();
+    void dispose();
 }
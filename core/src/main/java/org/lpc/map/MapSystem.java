@@ -6,10 +6,10 @@ import lombok.Setter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.lpc.MainGame;
+import org.lpc.Settings;
 import org.lpc.map.maps.SurfaceMap;
 
-import static org.lpc.utility.Constants.SURFACE_MAP_HEIGHT;
-import static org.lpc.utility.Constants.SURFACE_MAP_WIDTH;
+import static org.lpc.utility.Constants.PRELOAD_RADIUS;
 
 @Getter @Setter
 public class MapSystem {
@@ -20,16 +20,43 @@ public class MapSystem {
     /// private PlanetaryMap planetMap;      // Multiple planets
     private MapScale currentScale;
 
-    public MapSystem(MainGame game) {
-        LOGGER.info("SurfaceMap created with dimensions: {}x{}", SURFACE_MAP_WIDTH, SURFACE_MAP_HEIGHT);
+    public MapSystem(MainGame game, Settings settings) {
+        LOGGER.info("SurfaceMap created with dimensions: {}x{} and seed {}",
+            settings.getMapWidth(), settings.getMapHeight(), settings.getWorldSeed());
         this.currentScale = MapScale.SURFACE;
-        this.surfaceMap = new SurfaceMap(SURFACE_MAP_WIDTH, SURFACE_MAP_HEIGHT, game);
+        this.surfaceMap = new SurfaceMap(
+            settings.getMapWidth(),
+            settings.getMapHeight(),
+            game,
+            settings.getWorldSeed(),
+            settings.getGenerationThreads()
+        );
+    }
+
+    /**
+     * Generates the area around the map centre, where the game starts, ahead of time.
+     */
+    public void preloadStartingArea(GenerationProgress progress) {
+        int centerX = surfaceMap.getWidth() / 2;
+        int centerY = surfaceMap.getHeight() / 2;
+
+        surfaceMap.getStore().preload(
+            centerX - PRELOAD_RADIUS,
+            centerY - PRELOAD_RADIUS,
+            centerX + PRELOAD_RADIUS,
+            centerY + PRELOAD_RADIUS,
+            progress
+        );
     }
 
     public void update() {
         surfaceMap.update();
     }
 
+    public void dispose() {
+        surfaceMap.dispose();
+    }
+
     public BaseMap<?> getMap() {
         switch (currentScale) {
             case SURFACE:
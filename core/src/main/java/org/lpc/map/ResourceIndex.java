@@ -0,0 +1,230 @@
+package org.lpc.map;
+
+import lombok.NonNull;
+import org.lpc.terrain.resources.ResourceType;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Rectangle sums of resource quantities over a {@link ChunkedTileStore}, per resource type.
+ * Two levels of 2D Fenwick trees: one over chunk totals covering the world, and one per chunk over its tiles,
+ * built on the first query that cuts through the chunk. A rectangle sum takes one query on the chunk level for
+ * the chunks it covers whole plus one per chunk on its edge, each O(log^2 n), and a quantity change updates both
+ * levels in O(log^2 n).
+ * Chunks are counted on the chunk level when first generated and stay counted when evicted, since an evicted
+ * chunk is regenerated unchanged. Chunks a query covers whole that were never generated are counted from a
+ * detached generation, so large queries do not push the chunks in use out of the cache; only the chunks on the
+ * edge of a query are loaded. Updates are atomic so buildings can harvest while civilisations tick in parallel,
+ * sums must not be queried at the same time.
+ */
+public class ResourceIndex {
+    private static final ResourceType[] TYPES = ResourceType.values();
+
+    private final ChunkedTileStore store;
+    private final int chunkSize;
+    private final int chunksX;
+    private final int chunksY;
+
+    // [type][chunkX + 1][chunkY + 1]
+    private final AtomicLongArray chunkTree;
+    private final BitSet counted;
+
+    ResourceIndex(@NonNull ChunkedTileStore store) {
+        this.store = store;
+        this.chunkSize = store.getChunkSize();
+        this.chunksX = store.getChunksX();
+        this.chunksY = store.getChunksY();
+        this.chunkTree = new AtomicLongArray(TYPES.length * (chunksX + 1) * (chunksY + 1));
+        this.counted = new BitSet(chunksX * chunksY);
+    }
+
+    /**
+     * Sums a resource over an inclusive tile rectangle, counting chunks of it that were never generated.
+     * The rectangle is clipped to the world bounds.
+     */
+    public long sum(@NonNull ResourceType type, int startX, int startY, int endX, int endY) {
+        startX = Math.max(0, startX);
+        startY = Math.max(0, startY);
+        endX = Math.min(store.getWidth() - 1, endX);
+        endY = Math.min(store.getHeight() - 1, endY);
+        if (startX > endX || startY > endY) return 0;
+
+        int firstChunkX = startX / chunkSize;
+        int firstChunkY = startY / chunkSize;
+        int lastChunkX = endX / chunkSize;
+        int lastChunkY = endY / chunkSize;
+
+        // Chunks the rectangle covers whole
+        int wholeFromX = startX % chunkSize == 0 ? firstChunkX : firstChunkX + 1;
+        int wholeFromY = startY % chunkSize == 0 ? firstChunkY : firstChunkY + 1;
+        int wholeToX = isLastColumnOfChunk(endX, store.getWidth()) ? lastChunkX : lastChunkX - 1;
+        int wholeToY = isLastColumnOfChunk(endY, store.getHeight()) ? lastChunkY : lastChunkY - 1;
+        boolean hasWhole = wholeFromX <= wholeToX && wholeFromY <= wholeToY;
+
+        long total = 0;
+        if (hasWhole) {
+            countChunks(wholeFromX, wholeFromY, wholeToX, wholeToY);
+            total += chunkRectangle(type.ordinal(), wholeFromX, wholeFromY, wholeToX, wholeToY);
+        }
+
+        for (int chunkX = firstChunkX; chunkX <= lastChunkX; chunkX++) {
+            for (int chunkY = firstChunkY; chunkY <= lastChunkY; chunkY++) {
+                if (hasWhole && chunkX >= wholeFromX && chunkX <= wholeToX && chunkY >= wholeFromY && chunkY <= wholeToY) {
+                    continue;
+                }
+
+                TileStore chunk = store.getChunkAt(chunkX, chunkY);
+                total += tileRectangle(chunk, type.ordinal(),
+                    Math.max(startX, chunk.getOriginX()) - chunk.getOriginX(),
+                    Math.max(startY, chunk.getOriginY()) - chunk.getOriginY(),
+                    Math.min(endX, chunk.getOriginX() + chunk.getWidth() - 1) - chunk.getOriginX(),
+                    Math.min(endY, chunk.getOriginY() + chunk.getHeight() - 1) - chunk.getOriginY());
+            }
+        }
+        return total;
+    }
+
+    private boolean isLastColumnOfChunk(int coordinate, int worldSize) {
+        return coordinate % chunkSize == chunkSize - 1 || coordinate == worldSize - 1;
+    }
+
+    /**
+     * Adds a generated chunk to the chunk level the first time it is installed.
+     */
+    void chunkInstalled(TileStore chunk) {
+        int chunkX = chunk.getOriginX() / chunkSize;
+        int chunkY = chunk.getOriginY() / chunkSize;
+        if (!counted.get(chunkX * chunksY + chunkY)) {
+            count(chunk, chunkX, chunkY);
+        }
+    }
+
+    private void count(TileStore chunk, int chunkX, int chunkY) {
+        for (ResourceType type : TYPES) {
+            long total = 0;
+            for (int index = 0; index < chunk.size(); index++) {
+                total += chunk.getResourceQuantity(index, type);
+            }
+            if (total != 0) {
+                addToChunkTree(type.ordinal(), chunkX, chunkY, total);
+            }
+        }
+        counted.set(chunkX * chunksY + chunkY);
+    }
+
+    /**
+     * Applies a quantity change of a tile to both levels.
+     */
+    void tileChanged(TileStore chunk, int index, ResourceType resourceType, int delta) {
+        int type = resourceType.ordinal();
+        addToChunkTree(type, chunk.getOriginX() / chunkSize, chunk.getOriginY() / chunkSize, delta);
+
+        AtomicIntegerArray tree = chunk.getResourceTree();
+        if (tree != null) {
+            int width = chunk.getWidth();
+            int height = chunk.getHeight();
+            int base = type * (width + 1) * (height + 1);
+            for (int x = index / height + 1; x <= width; x += x & -x) {
+                for (int y = index % height + 1; y <= height; y += y & -y) {
+                    tree.addAndGet(base + x * (height + 1) + y, delta);
+                }
+            }
+        }
+    }
+
+    private void countChunks(int fromX, int fromY, int toX, int toY) {
+        for (int chunkX = fromX; chunkX <= toX; chunkX++) {
+            int rowStart = chunkX * chunksY;
+            int chunkY = counted.nextClearBit(rowStart + fromY) - rowStart;
+            for (; chunkY <= toY; chunkY = counted.nextClearBit(rowStart + chunkY + 1) - rowStart) {
+                count(store.generateDetached(chunkX, chunkY), chunkX, chunkY);
+            }
+        }
+    }
+
+    private void addToChunkTree(int type, int chunkX, int chunkY, long delta) {
+        int base = type * (chunksX + 1) * (chunksY + 1);
+        for (int x = chunkX + 1; x <= chunksX; x += x & -x) {
+            for (int y = chunkY + 1; y <= chunksY; y += y & -y) {
+                chunkTree.addAndGet(base + x * (chunksY + 1) + y, delta);
+            }
+        }
+    }
+
+    private long chunkRectangle(int type, int fromX, int fromY, int toX, int toY) {
+        return chunkPrefix(type, toX + 1, toY + 1) - chunkPrefix(type, fromX, toY + 1)
+            - chunkPrefix(type, toX + 1, fromY) + chunkPrefix(type, fromX, fromY);
+    }
+
+    // Sum over chunks [0, x) x [0, y)
+    private long chunkPrefix(int type, int x, int y) {
+        int base = type * (chunksX + 1) * (chunksY + 1);
+        long sum = 0;
+        for (int i = x; i > 0; i -= i & -i) {
+            for (int j = y; j > 0; j -= j & -j) {
+                sum += chunkTree.get(base + i * (chunksY + 1) + j);
+            }
+        }
+        return sum;
+    }
+
+    private long tileRectangle(TileStore chunk, int type, int fromX, int fromY, int toX, int toY) {
+        AtomicIntegerArray tree = chunk.getResourceTree();
+        if (tree == null) {
+            tree = buildTileTree(chunk);
+            chunk.setResourceTree(tree);
+        }
+
+        int stride = chunk.getHeight() + 1;
+        int base = type * (chunk.getWidth() + 1) * stride;
+        return tilePrefix(tree, base, stride, toX + 1, toY + 1) - tilePrefix(tree, base, stride, fromX, toY + 1)
+            - tilePrefix(tree, base, stride, toX + 1, fromY) + tilePrefix(tree, base, stride, fromX, fromY);
+    }
+
+    // Sum over local tiles [0, x) x [0, y)
+    private static long tilePrefix(AtomicIntegerArray tree, int base, int stride, int x, int y) {
+        long sum = 0;
+        for (int i = x; i > 0; i -= i & -i) {
+            for (int j = y; j > 0; j -= j & -j) {
+                sum += tree.get(base + i * stride + j);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Builds the Fenwick trees of a chunk in linear time, pushing each node into its parent along y, then along x.
+     */
+    private static AtomicIntegerArray buildTileTree(TileStore chunk) {
+        int width = chunk.getWidth();
+        int height = chunk.getHeight();
+        int stride = height + 1;
+        int[] tree = new int[TYPES.length * (width + 1) * stride];
+
+        for (ResourceType type : TYPES) {
+            int base = type.ordinal() * (width + 1) * stride;
+
+            for (int x = 1; x <= width; x++) {
+                int index = (x - 1) * height;
+                for (int y = 1; y <= height; y++, index++) {
+                    tree[base + x * stride + y] += chunk.getResourceQuantity(index, type);
+                    int parent = y + (y & -y);
+                    if (parent <= height) {
+                        tree[base + x * stride + parent] += tree[base + x * stride + y];
+                    }
+                }
+            }
+
+            for (int x = 1; x <= width; x++) {
+                int parent = x + (x & -x);
+                if (parent > width) continue;
+                for (int y = 1; y <= height; y++) {
+                    tree[base + parent * stride + y] += tree[base + x * stride + y];
+                }
+            }
+        }
+        return new AtomicIntegerArray(tree);
+    }
+}
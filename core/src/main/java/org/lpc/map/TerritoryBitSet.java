@@ -0,0 +1,251 @@
+package org.lpc.map;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.lpc.utility.TileVisitor;
+
+import java.util.Arrays;
+
+/**
+ * Set of world tiles as bits, laid out like a {@link ChunkedTileStore}: one page of bits per chunk, allocated on
+ * the first tile added to it, tiles inside a page in the order the chunk stores them.
+ * A territory costs a bit per tile of the chunks it touches instead of a list entry per tile. Counting is O(1),
+ * set operations are plain loops over words, and iteration visits tiles in memory order.
+ */
+public class TerritoryBitSet {
+    @Getter private final int width;
+    @Getter private final int height;
+    @Getter private final int chunkSize;
+    private final int chunksY;
+    private final int wordsPerPage;
+
+    // Bit (x % chunkSize) * chunkSize + y % chunkSize of the page of chunk slot chunkX * chunksY + chunkY
+    private final long[][] pages;
+    private int size;
+
+    public TerritoryBitSet(@NonNull ChunkedTileStore store) {
+        this(store.getWidth(), store.getHeight(), store.getChunkSize());
+    }
+
+    public TerritoryBitSet(int width, int height, int chunkSize) {
+        if (width < 1 || height < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Invalid territory layout: " + width + "x" + height + " in chunks of " + chunkSize);
+        }
+        this.width = width;
+        this.height = height;
+        this.chunkSize = chunkSize;
+        this.chunksY = (height + chunkSize - 1) / chunkSize;
+        this.wordsPerPage = (chunkSize * chunkSize + 63) >>> 6;
+        this.pages = new long[((width + chunkSize - 1) / chunkSize) * chunksY][];
+    }
+
+    /**
+     * @return Whether the tile was not in the set yet
+     */
+    public boolean add(int x, int y) {
+        checkBounds(x, y);
+        int slot = slot(x, y);
+        long[] page = pages[slot];
+        if (page == null) {
+            page = new long[wordsPerPage];
+            pages[slot] = page;
+        }
+
+        int bit = bit(x, y);
+        long mask = 1L << bit;
+        if ((page[bit >>> 6] & mask) != 0) return false;
+        page[bit >>> 6] |= mask;
+        size++;
+        return true;
+    }
+
+    /**
+     * @return Whether the tile was in the set
+     */
+    public boolean remove(int x, int y) {
+        checkBounds(x, y);
+        long[] page = pages[slot(x, y)];
+        if (page == null) return false;
+
+        int bit = bit(x, y);
+        long mask = 1L << bit;
+        if ((page[bit >>> 6] & mask) == 0) return false;
+        page[bit >>> 6] &= ~mask;
+        size--;
+        return true;
+    }
+
+    public boolean contains(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) return false;
+        long[] page = pages[slot(x, y)];
+        if (page == null) return false;
+
+        int bit = bit(x, y);
+        return (page[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every tile and frees the pages.
+     */
+    public void clear() {
+        Arrays.fill(pages, null);
+        size = 0;
+    }
+
+    /**
+     * Calls the visitor for every tile, chunk by chunk and in storage order within a chunk.
+     */
+    public void forEach(@NonNull TileVisitor visitor) {
+        for (int slot = 0; slot < pages.length; slot++) {
+            long[] page = pages[slot];
+            if (page == null) continue;
+
+            int originX = (slot / chunksY) * chunkSize;
+            int originY = (slot % chunksY) * chunkSize;
+            for (int word = 0; word < page.length; word++) {
+                for (long bits = page[word]; bits != 0; bits &= bits - 1) {
+                    int bit = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    visitor.visit(originX + bit / chunkSize, originY + bit % chunkSize);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the tiles in this set or the other.
+     */
+    public TerritoryBitSet union(@NonNull TerritoryBitSet other) {
+        checkLayout(other);
+        TerritoryBitSet result = new TerritoryBitSet(width, height, chunkSize);
+        for (int slot = 0; slot < pages.length; slot++) {
+            long[] a = pages[slot];
+            long[] b = other.pages[slot];
+            if (a == null && b == null) continue;
+
+            long[] page = a == null ? b.clone() : a.clone();
+            if (a != null && b != null) {
+                for (int word = 0; word < page.length; word++) {
+                    page[word] |= b[word];
+                }
+            }
+            result.install(slot, page);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the tiles in both this set and the other.
+     */
+    public TerritoryBitSet intersection(@NonNull TerritoryBitSet other) {
+        checkLayout(other);
+        TerritoryBitSet result = new TerritoryBitSet(width, height, chunkSize);
+        for (int slot = 0; slot < pages.length; slot++) {
+            long[] a = pages[slot];
+            long[] b = other.pages[slot];
+            if (a == null || b == null) continue;
+
+            long[] page = new long[wordsPerPage];
+            for (int word = 0; word < page.length; word++) {
+                page[word] = a[word] & b[word];
+            }
+            result.install(slot, page);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the tiles in this set but not in the other.
+     */
+    public TerritoryBitSet difference(@NonNull TerritoryBitSet other) {
+        checkLayout(other);
+        TerritoryBitSet result = new TerritoryBitSet(width, height, chunkSize);
+        for (int slot = 0; slot < pages.length; slot++) {
+            long[] a = pages[slot];
+            if (a == null) continue;
+
+            long[] b = other.pages[slot];
+            long[] page = a.clone();
+            if (b != null) {
+                for (int word = 0; word < page.length; word++) {
+                    page[word] &= ~b[word];
+                }
+            }
+            result.install(slot, page);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the tiles in both sets without building the intersection.
+     */
+    public int intersectionSize(@NonNull TerritoryBitSet other) {
+        checkLayout(other);
+        int count = 0;
+        for (int slot = 0; slot < pages.length; slot++) {
+            long[] a = pages[slot];
+            long[] b = other.pages[slot];
+            if (a == null || b == null) continue;
+
+            for (int word = 0; word < a.length; word++) {
+                count += Long.bitCount(a[word] & b[word]);
+            }
+        }
+        return count;
+    }
+
+    public boolean intersects(@NonNull TerritoryBitSet other) {
+        checkLayout(other);
+        for (int slot = 0; slot < pages.length; slot++) {
+            long[] a = pages[slot];
+            long[] b = other.pages[slot];
+            if (a == null || b == null) continue;
+
+            for (int word = 0; word < a.length; word++) {
+                if ((a[word] & b[word]) != 0) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Keeps a page built by a set operation unless it came out empty.
+     */
+    private void install(int slot, long[] page) {
+        int count = 0;
+        for (long word : page) {
+            count += Long.bitCount(word);
+        }
+        if (count > 0) {
+            pages[slot] = page;
+            size += count;
+        }
+    }
+
+    private int slot(int x, int y) {
+        return (x / chunkSize) * chunksY + y / chunkSize;
+    }
+
+    private int bit(int x, int y) {
+        return (x % chunkSize) * chunkSize + y % chunkSize;
+    }
+
+    private void checkBounds(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException("Tile outside the map: " + x + ", " + y);
+        }
+    }
+
+    private void checkLayout(TerritoryBitSet other) {
+        if (other.width != width || other.height != height || other.chunkSize != chunkSize) {
+            throw new IllegalArgumentException("Territories of different maps cannot be combined");
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.lpc.map;
+
+import lombok.Getter;
+import org.lpc.terrain.TerrainType;
+
+import java.util.Arrays;
+
+/**
+ * Levels of detail of a {@link TileStore}, mip-map style: level n merges blocks of 2^n x 2^n tiles into one cell,
+ * level 0 being the tiles themselves. A cell has the dominant terrain of its tiles, their average height and
+ * their majority owner, unowned counting as an owner. Ties go to the lower terrain ordinal or owner id.
+ * Cells are aligned to the world grid as long as the chunk size is a multiple of the largest cell.
+ * Built in one pass per level, then kept up to date one cell per level on every tile change.
+ */
+public class TilePyramid {
+    public static final int LEVELS = 3; // 2x2, 4x4 and 8x8 tiles per cell
+    private static final TerrainType[] TERRAIN_TYPES = TerrainType.values();
+
+    private final TileStore tiles;
+
+    // Indexed [level - 1][cellX * cellHeight + cellY]
+    private final int[] cellWidths = new int[LEVELS];
+    private final int[] cellHeights = new int[LEVELS];
+    private final byte[][] terrain = new byte[LEVELS][];
+    private final float[][] heights = new float[LEVELS][];
+    private final short[][] owners = new short[LEVELS][];
+
+    // Scratch space for the owner vote, a cell has at most 64 tiles
+    private final int[] terrainCounts = new int[TERRAIN_TYPES.length];
+    private final short[] ownerVotes = new short[1 << (2 * LEVELS)];
+
+    @Getter private long cellUpdates;
+
+    TilePyramid(TileStore tiles) {
+        this.tiles = tiles;
+
+        for (int level = 1; level <= LEVELS; level++) {
+            int cellWidth = (tiles.getWidth() + (1 << level) - 1) >> level;
+            int cellHeight = (tiles.getHeight() + (1 << level) - 1) >> level;
+            cellWidths[level - 1] = cellWidth;
+            cellHeights[level - 1] = cellHeight;
+            terrain[level - 1] = new byte[cellWidth * cellHeight];
+            heights[level - 1] = new float[cellWidth * cellHeight];
+            owners[level - 1] = new short[cellWidth * cellHeight];
+
+            for (int cellX = 0; cellX < cellWidth; cellX++) {
+                for (int cellY = 0; cellY < cellHeight; cellY++) {
+                    updateCell(level, cellX, cellY);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of cell columns of a level.
+     */
+    public int getWidth(int level) {
+        return level == 0 ? tiles.getWidth() : cellWidths[level - 1];
+    }
+
+    /**
+     * Gets the number of cell rows of a level.
+     */
+    public int getHeight(int level) {
+        return level == 0 ? tiles.getHeight() : cellHeights[level - 1];
+    }
+
+    /**
+     * @param cellX Cell column within the block
+     * @param cellY Cell row within the block
+     */
+    public TerrainType getTerrain(int level, int cellX, int cellY) {
+        if (level == 0) return tiles.getTerrain(cellX * tiles.getHeight() + cellY);
+        return TERRAIN_TYPES[terrain[level - 1][cellX * cellHeights[level - 1] + cellY]];
+    }
+
+    public float getHeight(int level, int cellX, int cellY) {
+        if (level == 0) return tiles.getHeight(cellX * tiles.getHeight() + cellY);
+        return heights[level - 1][cellX * cellHeights[level - 1] + cellY];
+    }
+
+    public short getOwnerId(int level, int cellX, int cellY) {
+        if (level == 0) return tiles.getOwnerId(cellX * tiles.getHeight() + cellY);
+        return owners[level - 1][cellX * cellHeights[level - 1] + cellY];
+    }
+
+    /**
+     * Recomputes the cells holding a tile, one per level.
+     * @param index Index of the tile in the block
+     */
+    void tileChanged(int index) {
+        int x = index / tiles.getHeight();
+        int y = index % tiles.getHeight();
+        for (int level = 1; level <= LEVELS; level++) {
+            updateCell(level, x >> level, y >> level);
+        }
+    }
+
+    private void updateCell(int level, int cellX, int cellY) {
+        int fromX = cellX << level;
+        int fromY = cellY << level;
+        int toX = Math.min(tiles.getWidth(), fromX + (1 << level));
+        int toY = Math.min(tiles.getHeight(), fromY + (1 << level));
+
+        Arrays.fill(terrainCounts, 0);
+        float heightSum = 0;
+        int count = 0;
+
+        for (int x = fromX; x < toX; x++) {
+            int index = x * tiles.getHeight() + fromY;
+            for (int y = fromY; y < toY; y++, index++) {
+                terrainCounts[tiles.getTerrainOrdinal(index)]++;
+                heightSum += tiles.getHeight(index);
+                ownerVotes[count++] = tiles.getOwnerId(index);
+            }
+        }
+
+        int dominant = 0;
+        for (int type = 1; type < terrainCounts.length; type++) {
+            if (terrainCounts[type] > terrainCounts[dominant]) dominant = type;
+        }
+
+        int cell = cellX * cellHeights[level - 1] + cellY;
+        terrain[level - 1][cell] = (byte) dominant;
+        heights[level - 1][cell] = heightSum / count;
+        owners[level - 1][cell] = majorityOwner(count);
+        cellUpdates++;
+    }
+
+    private short majorityOwner(int count) {
+        Arrays.sort(ownerVotes, 0, count);
+
+        short majority = ownerVotes[0];
+        int majorityVotes = 0;
+        for (int start = 0; start < count; ) {
+            int end = start + 1;
+            while (end < count && ownerVotes[end] == ownerVotes[start]) end++;
+            if (end - start > majorityVotes) {
+                majority = ownerVotes[start];
+                majorityVotes = end - start;
+            }
+            start = end;
+        }
+        return majority;
+    }
+}
@@ -0,0 +1,363 @@
+package org.lpc.map;
+
+import com.badlogic.gdx.utils.IntArray;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import org.lpc.terrain.TerrainType;
+import org.lpc.terrain.buildings.BaseBuilding;
+import org.lpc.terrain.resources.ResourceListener;
+import org.lpc.terrain.resources.ResourceNode;
+import org.lpc.terrain.resources.ResourceType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Struct-of-arrays storage for a rectangular block of grid tiles.
+ * Every tile attribute lives in its own flat primitive array indexed by {@code x * height + y}
+ * relative to the block origin, so a tile costs a few dozen bytes and scans walk memory linearly.
+ * Tile objects are only created as lightweight views on top of this store.
+ */
+public class TileStore {
+    public static final short NO_OWNER = 0;
+    public static final int NO_BUILDING = 0;
+    public static final int RESOURCE_TYPES = ResourceType.values().length;
+
+    private static final TerrainType[] TERRAIN_TYPES = TerrainType.values();
+    private static final float VEGETATION_SCALE = 255f;
+    private static final int WATER = TerrainType.WATER.ordinal();
+
+    @Getter private final int originX;
+    @Getter private final int originY;
+    @Getter private final int width;
+    @Getter private final int height;
+
+    private final byte[] terrain;
+    private final float[] heights;
+    private final float[] moisture;
+    private final byte[] vegetation;
+    private final short[] owners;
+    private final int[] buildingIds;
+    private final BitSet explored;
+
+    // Resource quantities, RESOURCE_TYPES consecutive entries per tile
+    private final short[] resources;
+
+    // Building id n lives at buildings[n - 1], freed ids are reused
+    private final List<BaseBuilding> buildings = new ArrayList<>();
+    private final IntArray freeBuildingIds = new IntArray();
+
+    // Tracks whether the block diverged from what the generator produced
+    @Getter private boolean modified;
+    // Bumped on every terrain or height write, lets caches of the terrain tell when to rebuild
+    @Getter private int terrainVersion;
+    // Bumped on every ownership write, the same for caches of the borders
+    @Getter private int ownerVersion;
+    // Bumped on every building placed or removed, for caches of the building sprites
+    @Getter private int buildingVersion;
+    @Getter private int ownedTileCount;
+
+    // Summed-area table of claimable tiles, (width + 1) * (height + 1) entries with a zero first row and column.
+    // Rebuilt on the first query after a tile became claimable or stopped being so. Tiles are claimed every tick
+    // but counted only while placing civilisations, so one rebuild per query beats updating it on every claim
+    private int[] claimableSums;
+    private boolean claimableDirty = true;
+
+    // Set once the block is installed in a chunked store, resource changes from then on are reported to it
+    private ResourceIndex resourceIndex;
+    private final ResourceListener resourceListener = this::resourceChanged;
+    // Tile level Fenwick trees of the resource index, built on first use
+    @Getter(AccessLevel.PACKAGE) @Setter(AccessLevel.PACKAGE)
+    private AtomicIntegerArray resourceTree;
+    // Levels of detail for rendering, built on first use
+    private TilePyramid pyramid;
+
+    public TileStore(int width, int height) {
+        this(0, 0, width, height);
+    }
+
+    public TileStore(int originX, int originY, int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Tile store dimensions must be positive: " + width + "x" + height);
+        }
+
+        int size = width * height;
+
+        this.originX = originX;
+        this.originY = originY;
+        this.width = width;
+        this.height = height;
+        this.terrain = new byte[size];
+        this.heights = new float[size];
+        this.moisture = new float[size];
+        this.vegetation = new byte[size];
+        this.owners = new short[size];
+        this.buildingIds = new int[size];
+        this.explored = new BitSet(size);
+        this.resources = new short[size * RESOURCE_TYPES];
+    }
+
+    public int size() {
+        return width * height;
+    }
+
+    /**
+     * Gets the array index of a tile from its world coordinates.
+     */
+    public int index(int x, int y) {
+        return (x - originX) * height + (y - originY);
+    }
+
+    public boolean isWithinBounds(int x, int y) {
+        return x >= originX && x < originX + width && y >= originY && y < originY + height;
+    }
+
+    /**
+     * A block that holds owned tiles or player-made changes cannot be regenerated from its seed.
+     */
+    public boolean isPinned() {
+        return modified || ownedTileCount > 0;
+    }
+
+    /**
+     * Marks the current contents as the generated baseline.
+     */
+    public void markGenerated() {
+        modified = false;
+    }
+
+    /**
+     * Writes the generated terrain attributes of a tile in one go.
+     */
+    public void setTile(int index, @NonNull TerrainType terrainType, float height, float moisture) {
+        boolean wasClaimable = isClaimable(index);
+        this.terrain[index] = (byte) terrainType.ordinal();
+        this.heights[index] = height;
+        this.moisture[index] = moisture;
+        this.vegetation[index] = quantizeVegetation(TerrainType.calculateVegetationDensity(terrainType, moisture, height));
+        claimableDirty |= isClaimable(index) != wasClaimable;
+        terrainVersion++;
+        if (pyramid != null) pyramid.tileChanged(index);
+    }
+
+    public TerrainType getTerrain(int index) {
+        return TERRAIN_TYPES[terrain[index]];
+    }
+
+    public int getTerrainOrdinal(int index) {
+        return terrain[index];
+    }
+
+    public void setTerrain(int index, @NonNull TerrainType terrainType) {
+        boolean wasClaimable = isClaimable(index);
+        terrain[index] = (byte) terrainType.ordinal();
+        modified = true;
+        claimableDirty |= isClaimable(index) != wasClaimable;
+        terrainVersion++;
+        if (pyramid != null) pyramid.tileChanged(index);
+    }
+
+    public float getHeight(int index) {
+        return heights[index];
+    }
+
+    public void setHeight(int index, float height) {
+        heights[index] = height;
+        modified = true;
+        terrainVersion++;
+        if (pyramid != null) pyramid.tileChanged(index);
+    }
+
+    public float getMoisture(int index) {
+        return moisture[index];
+    }
+
+    public void setMoisture(int index, float moisture) {
+        this.moisture[index] = moisture;
+        modified = true;
+    }
+
+    public float getVegetationDensity(int index) {
+        return (vegetation[index] & 0xFF) / VEGETATION_SCALE;
+    }
+
+    public void setVegetationDensity(int index, float density) {
+        vegetation[index] = quantizeVegetation(density);
+        modified = true;
+    }
+
+    public boolean isExplored(int index) {
+        return explored.get(index);
+    }
+
+    public void setExplored(int index, boolean value) {
+        explored.set(index, value);
+        modified = true;
+    }
+
+    public short getOwnerId(int index) {
+        return owners[index];
+    }
+
+    public void setOwnerId(int index, short ownerId) {
+        if (owners[index] == NO_OWNER && ownerId != NO_OWNER) ownedTileCount++;
+        else if (owners[index] != NO_OWNER && ownerId == NO_OWNER) ownedTileCount--;
+
+        boolean wasClaimable = isClaimable(index);
+        owners[index] = ownerId;
+        claimableDirty |= isClaimable(index) != wasClaimable;
+        ownerVersion++;
+        if (pyramid != null) pyramid.tileChanged(index);
+    }
+
+    /**
+     * Gets the levels of detail of the block, building them on first use.
+     */
+    public TilePyramid getPyramid() {
+        if (pyramid == null) {
+            pyramid = new TilePyramid(this);
+        }
+        return pyramid;
+    }
+
+    /**
+     * Whether a tile can be claimed by a civilisation, it is neither water nor owned.
+     */
+    public boolean isClaimable(int index) {
+        return owners[index] == NO_OWNER && terrain[index] != WATER;
+    }
+
+    /**
+     * Counts the claimable tiles of an inclusive rectangle in world coordinates, which must lie inside the block.
+     * O(1) apart from rebuilding the summed-area table after claimability changed, one pass over the block.
+     */
+    public int countClaimable(int startX, int startY, int endX, int endY) {
+        if (claimableDirty) {
+            buildClaimableSums();
+        }
+
+        int stride = height + 1;
+        int x0 = startX - originX;
+        int y0 = startY - originY;
+        int x1 = endX - originX + 1;
+        int y1 = endY - originY + 1;
+
+        return claimableSums[x1 * stride + y1] - claimableSums[x0 * stride + y1]
+            - claimableSums[x1 * stride + y0] + claimableSums[x0 * stride + y0];
+    }
+
+    private void buildClaimableSums() {
+        int stride = height + 1;
+        if (claimableSums == null) {
+            claimableSums = new int[(width + 1) * stride];
+        }
+
+        for (int x = 0; x < width; x++) {
+            int column = 0;
+            int index = x * height;
+            int row = (x + 1) * stride;
+            for (int y = 0; y < height; y++, index++) {
+                if (isClaimable(index)) column++;
+                // Left neighbour plus this column up to y
+                claimableSums[row + y + 1] = claimableSums[row - stride + y + 1] + column;
+            }
+        }
+        claimableDirty = false;
+    }
+
+    public int getResourceQuantity(int index, @NonNull ResourceType type) {
+        return resources[index * RESOURCE_TYPES + type.ordinal()];
+    }
+
+    public void addResource(int index, @NonNull ResourceType type, int quantity) {
+        int slot = index * RESOURCE_TYPES + type.ordinal();
+        short previous = resources[slot];
+        resources[slot] = saturate(previous + quantity);
+
+        if (resources[slot] != previous) {
+            resourceChanged(index * RESOURCE_TYPES, type, resources[slot] - previous);
+        }
+    }
+
+    /**
+     * Gets a writable resource view of a tile. Writes through the view count as modifications, reads do not,
+     * so only hold on to views of blocks that stay resident: owned, built on or written to.
+     * Use {@link #getResourceQuantity(int, ResourceType)} for reading.
+     */
+    public ResourceNode getResourceNode(int index) {
+        return new ResourceNode(resources, index * RESOURCE_TYPES, resourceListener);
+    }
+
+    void setResourceIndex(ResourceIndex resourceIndex) {
+        this.resourceIndex = resourceIndex;
+    }
+
+    private void resourceChanged(int offset, ResourceType type, int delta) {
+        modified = true;
+        if (resourceIndex != null) {
+            resourceIndex.tileChanged(this, offset / RESOURCE_TYPES, type, delta);
+        }
+    }
+
+    public boolean hasBuilding(int index) {
+        return buildingIds[index] != NO_BUILDING;
+    }
+
+    public BaseBuilding getBuilding(int index) {
+        int id = buildingIds[index];
+        return id == NO_BUILDING ? null : buildings.get(id - 1);
+    }
+
+    /**
+     * Places a building on a tile, replacing and releasing any building already there.
+     * Passing null removes the building.
+     */
+    public void setBuilding(int index, BaseBuilding building) {
+        releaseBuilding(index);
+
+        if (building == null) return;
+
+        int id;
+        if (freeBuildingIds.notEmpty()) {
+            id = freeBuildingIds.pop();
+            buildings.set(id - 1, building);
+        } else {
+            buildings.add(building);
+            id = buildings.size();
+        }
+        buildingIds[index] = id;
+        buildingVersion++;
+        modified = true;
+    }
+
+    public int getBuildingCount() {
+        return buildings.size() - freeBuildingIds.size;
+    }
+
+    private void releaseBuilding(int index) {
+        int id = buildingIds[index];
+        if (id == NO_BUILDING) return;
+
+        buildings.set(id - 1, null);
+        freeBuildingIds.add(id);
+        buildingIds[index] = NO_BUILDING;
+        buildingVersion++;
+        modified = true;
+    }
+
+    /**
+     * Clamps a resource quantity into the storable range instead of wrapping around.
+     */
+    public static short saturate(int quantity) {
+        return (short) Math.max(0, Math.min(Short.MAX_VALUE, quantity));
+    }
+
+    private static byte quantizeVegetation(float density) {
+        if (!(density > 0f)) return 0;
+        return (byte) Math.min(255, Math.round(density * VEGETATION_SCALE));
+    }
+}
@@ -0,0 +1,301 @@
+package org.lpc.map.maps;
+
+import com.badlogic.gdx.utils.IntArray;
+import lombok.Getter;
+import lombok.NonNull;
+import org.lpc.map.ChunkedTileStore;
+import org.lpc.map.TileStore;
+
+/**
+ * Civilisation borders of a {@link ChunkedTileStore} as merged edges, bucketed per chunk, so a frame draws
+ * the edges of the visible chunks instead of testing every visible tile.
+ * Collinear unit sides of the same owner are merged into one run, runs are grouped by owner.
+ * A chunk is only merged again once its ownership or that of a neighbouring chunk changed,
+ * told apart by the owner version of the chunks. Works on tiles or on the cells of a level of detail.
+ * At most {@code capacity} chunks stay cached, the least recently used are dropped first.
+ */
+public class BorderEdgeCache {
+    // Ints per edge: owner, then both ends in cell corners, x0 <= x1 and y0 <= y1
+    public static final int EDGE_STRIDE = 5;
+
+    // Border sides of a cell, bits of a side mask
+    public static final int TOP_BORDER    = 1;
+    public static final int RIGHT_BORDER  = 1 << 1;
+    public static final int BOTTOM_BORDER = 1 << 2;
+    public static final int LEFT_BORDER   = 1 << 3;
+
+    // Owner of the cells beyond the map edge, which never get a border
+    private static final short OUTSIDE = -1;
+    // Own chunk and its four neighbours: top, right, bottom, left
+    private static final int[][] NEIGHBOURS = { { 0, 0 }, { 0, 1 }, { 1, 0 }, { 0, -1 }, { -1, 0 } };
+
+    private final ChunkedTileStore tiles;
+    @Getter private final int capacity;
+
+    // Per chunk slot, chunkX * chunksY + chunkY, the stamps per slot and neighbour
+    private final IntArray[] edges;
+    private final TileStore[] builtChunks;
+    private final int[] builtVersions;
+    private final int[] builtLevels;
+    private final long[] lastUse;
+    private final IntArray cached = new IntArray();
+    private long useClock;
+
+    // Scratch space of a merge: owners with a one cell apron, then the border sides of every cell
+    private short[] owners = new short[0];
+    private byte[] masks = new byte[0];
+    private final IntArray groupOwners = new IntArray();
+    private final IntArray unsorted = new IntArray();
+
+    // Number of merges so far, for telling cache hits from rebuilds
+    @Getter private long mergeCount;
+
+    public BorderEdgeCache(@NonNull ChunkedTileStore tiles, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Border cache must hold at least one chunk: " + capacity);
+        }
+
+        int slots = tiles.getChunksX() * tiles.getChunksY();
+        this.tiles = tiles;
+        this.capacity = capacity;
+        this.edges = new IntArray[slots];
+        this.builtChunks = new TileStore[slots * NEIGHBOURS.length];
+        this.builtVersions = new int[slots * NEIGHBOURS.length];
+        this.builtLevels = new int[slots];
+        this.lastUse = new long[slots];
+    }
+
+    /**
+     * Merges the edges of a chunk at a level of detail unless they are up to date.
+     * @return Whether the chunk was merged
+     */
+    public boolean refresh(int chunkX, int chunkY, int level) {
+        int slot = chunkX * tiles.getChunksY() + chunkY;
+        lastUse[slot] = ++useClock;
+
+        if (edges[slot] != null && builtLevels[slot] == level && isUpToDate(slot, chunkX, chunkY)) {
+            return false;
+        }
+
+        if (edges[slot] == null) {
+            edges[slot] = new IntArray();
+            cached.add(slot);
+            if (cached.size > capacity) {
+                evictLeastRecentlyUsed(slot);
+            }
+        }
+
+        for (int i = 0; i < NEIGHBOURS.length; i++) {
+            TileStore chunk = neighbour(chunkX + NEIGHBOURS[i][0], chunkY + NEIGHBOURS[i][1]);
+            builtChunks[slot * NEIGHBOURS.length + i] = chunk;
+            builtVersions[slot * NEIGHBOURS.length + i] = chunk == null ? 0 : chunk.getOwnerVersion();
+        }
+        builtLevels[slot] = level;
+        merge(tiles.getChunkAt(chunkX, chunkY), level, edges[slot]);
+        mergeCount++;
+        return true;
+    }
+
+    /**
+     * Gets the up to date edges of a chunk at a level of detail, {@link #EDGE_STRIDE} ints per edge.
+     * Edges of one owner are next to each other.
+     */
+    public IntArray getEdges(int chunkX, int chunkY, int level) {
+        refresh(chunkX, chunkY, level);
+        return edges[chunkX * tiles.getChunksY() + chunkY];
+    }
+
+    public int getCachedChunkCount() {
+        return cached.size;
+    }
+
+    private boolean isUpToDate(int slot, int chunkX, int chunkY) {
+        for (int i = 0; i < NEIGHBOURS.length; i++) {
+            TileStore chunk = neighbour(chunkX + NEIGHBOURS[i][0], chunkY + NEIGHBOURS[i][1]);
+            int stamp = slot * NEIGHBOURS.length + i;
+            if (builtChunks[stamp] != chunk || (chunk != null && builtVersions[stamp] != chunk.getOwnerVersion())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private TileStore neighbour(int chunkX, int chunkY) {
+        if (chunkX < 0 || chunkY < 0 || chunkX >= tiles.getChunksX() || chunkY >= tiles.getChunksY()) return null;
+        return tiles.getChunkAt(chunkX, chunkY);
+    }
+
+    private void merge(TileStore chunk, int level, IntArray out) {
+        int originX = chunk.getOriginX() >> level;
+        int originY = chunk.getOriginY() >> level;
+        int width = level == 0 ? chunk.getWidth() : chunk.getPyramid().getWidth(level);
+        int height = level == 0 ? chunk.getHeight() : chunk.getPyramid().getHeight(level);
+        int stride = height + 2;
+
+        readOwners(chunk, level, originX, originY, width, height);
+
+        // Border sides of every owned cell, compared against the apron for cells on the chunk edge
+        if (masks.length < width * height) {
+            masks = new byte[width * height];
+        }
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int at = (x + 1) * stride + y + 1;
+                short owner = owners[at];
+                int borders = 0;
+                if (owner != TileStore.NO_OWNER) {
+                    if (differs(owners[at + 1], owner)) borders |= TOP_BORDER;
+                    if (differs(owners[at + stride], owner)) borders |= RIGHT_BORDER;
+                    if (differs(owners[at - 1], owner)) borders |= BOTTOM_BORDER;
+                    if (differs(owners[at - stride], owner)) borders |= LEFT_BORDER;
+                }
+                masks[x * height + y] = (byte) borders;
+            }
+        }
+
+        unsorted.clear();
+        for (int y = 0; y < height; y++) {
+            mergeRow(y, width, height, stride, TOP_BORDER, 1, originX, originY);
+            mergeRow(y, width, height, stride, BOTTOM_BORDER, 0, originX, originY);
+        }
+        for (int x = 0; x < width; x++) {
+            mergeColumn(x, height, stride, RIGHT_BORDER, 1, originX, originY);
+            mergeColumn(x, height, stride, LEFT_BORDER, 0, originX, originY);
+        }
+        groupByOwner(out);
+    }
+
+    private void readOwners(TileStore chunk, int level, int originX, int originY, int width, int height) {
+        int stride = height + 2;
+        if (owners.length < (width + 2) * stride) {
+            owners = new short[(width + 2) * stride];
+        }
+
+        for (int x = -1; x <= width; x++) {
+            for (int y = -1; y <= height; y++) {
+                int at = (x + 1) * stride + y + 1;
+                if (x >= 0 && x < width && y >= 0 && y < height) {
+                    owners[at] = level == 0
+                        ? chunk.getOwnerId(x * height + y)
+                        : chunk.getPyramid().getOwnerId(level, x, y);
+                } else if ((x >= 0 && x < width) || (y >= 0 && y < height)) {
+                    int cellX = originX + x;
+                    int cellY = originY + y;
+                    owners[at] = tiles.isWithinBounds(cellX << level, cellY << level)
+                        ? tiles.getOwnerId(level, cellX, cellY)
+                        : OUTSIDE;
+                } else {
+                    owners[at] = OUTSIDE; // Diagonal corners are never compared
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges the top or bottom sides of a row into runs of one owner.
+     */
+    private void mergeRow(int y, int width, int height, int stride, int side, int offset, int originX, int originY) {
+        int runStart = -1;
+        short runOwner = TileStore.NO_OWNER;
+
+        for (int x = 0; x <= width; x++) {
+            boolean border = x < width && (masks[x * height + y] & side) != 0;
+            short owner = border ? owners[(x + 1) * stride + y + 1] : TileStore.NO_OWNER;
+            if (runStart >= 0 && (!border || owner != runOwner)) {
+                addEdge(runOwner, originX + runStart, originY + y + offset, originX + x, originY + y + offset);
+                runStart = -1;
+            }
+            if (border && runStart < 0) {
+                runStart = x;
+                runOwner = owner;
+            }
+        }
+    }
+
+    /**
+     * Merges the right or left sides of a column into runs of one owner.
+     */
+    private void mergeColumn(int x, int height, int stride, int side, int offset, int originX, int originY) {
+        int runStart = -1;
+        short runOwner = TileStore.NO_OWNER;
+
+        for (int y = 0; y <= height; y++) {
+            boolean border = y < height && (masks[x * height + y] & side) != 0;
+            short owner = border ? owners[(x + 1) * stride + y + 1] : TileStore.NO_OWNER;
+            if (runStart >= 0 && (!border || owner != runOwner)) {
+                addEdge(runOwner, originX + x + offset, originY + runStart, originX + x + offset, originY + y);
+                runStart = -1;
+            }
+            if (border && runStart < 0) {
+                runStart = y;
+                runOwner = owner;
+            }
+        }
+    }
+
+    private void addEdge(short owner, int x0, int y0, int x1, int y1) {
+        unsorted.add(owner);
+        unsorted.add(x0);
+        unsorted.add(y0);
+        unsorted.add(x1);
+        unsorted.add(y1);
+    }
+
+    /**
+     * Copies the merged edges owner by owner, a chunk borders only a handful of owners.
+     */
+    private void groupByOwner(IntArray out) {
+        groupOwners.clear();
+        for (int i = 0; i < unsorted.size; i += EDGE_STRIDE) {
+            if (!groupOwners.contains(unsorted.get(i))) {
+                groupOwners.add(unsorted.get(i));
+            }
+        }
+
+        out.clear();
+        out.ensureCapacity(unsorted.size);
+        for (int g = 0; g < groupOwners.size; g++) {
+            int owner = groupOwners.get(g);
+            for (int i = 0; i < unsorted.size; i += EDGE_STRIDE) {
+                if (unsorted.get(i) == owner) {
+                    out.addAll(unsorted, i, EDGE_STRIDE);
+                }
+            }
+        }
+    }
+
+    private static boolean differs(short neighbour, short owner) {
+        return neighbour != OUTSIDE && neighbour != owner;
+    }
+
+    private void evictLeastRecentlyUsed(int keepSlot) {
+        int victim = -1;
+        long oldest = Long.MAX_VALUE;
+
+        for (int i = 0; i < cached.size; i++) {
+            int slot = cached.get(i);
+            if (slot != keepSlot && lastUse[slot] < oldest) {
+                oldest = lastUse[slot];
+                victim = i;
+            }
+        }
+
+        if (victim >= 0) {
+            release(cached.removeIndex(victim));
+        }
+    }
+
+    private void release(int slot) {
+        edges[slot] = null;
+        for (int i = 0; i < NEIGHBOURS.length; i++) {
+            builtChunks[slot * NEIGHBOURS.length + i] = null;
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < cached.size; i++) {
+            release(cached.get(i));
+        }
+        cached.clear();
+    }
+}
@@ -0,0 +1,237 @@
+package org.lpc.map.maps;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import lombok.Getter;
+import lombok.NonNull;
+import org.lpc.map.ChunkedTileStore;
+import org.lpc.map.MapScale;
+import org.lpc.map.TileStore;
+import org.lpc.terrain.buildings.BaseBuilding;
+import org.lpc.terrain.buildings.BuildingRegion;
+
+import java.util.Arrays;
+
+import static org.lpc.utility.Constants.MAX_CACHED_BUILDINGS;
+
+/**
+ * Building sprites of the visible chunks of a {@link ChunkedTileStore}, kept in a {@link SpriteCache} with one
+ * cache per chunk, so a frame is one draw call per chunk instead of positioning and submitting every sprite.
+ * All building art is in one texture atlas, buildings only name their {@link BuildingRegion}.
+ * A chunk is cached again once a building was placed on it or removed, told apart by its building version.
+ * A chunk that shrank is redefined in place; new or grown chunks rebuild the caches of all visible chunks.
+ * Chunks that do not fit into {@code MAX_CACHED_BUILDINGS} are drawn sprite by sprite instead, with the blur shader.
+ * Needs a GL context.
+ */
+public class BuildingSpriteCache implements Disposable {
+    private static final int NO_CACHE = -1;
+
+    private final ChunkedTileStore tiles;
+    private final TextureAtlas atlas;
+    private final TextureRegion[] regions;
+    private final ShaderProgram blurShader;
+    // Owned and disposed by the sprite cache
+    private final ShaderProgram cacheShader;
+    private final SpriteCache cache;
+
+    // Per chunk slot, chunkX * chunksY + chunkY
+    private final int[] cacheIds;
+    private final int[] cacheSizes;
+    private final TileStore[] builtChunks;
+    private final int[] builtVersions;
+    private final IntArray cached = new IntArray();
+    private final IntArray uncached = new IntArray();
+    private final IntArray visible = new IntArray();
+    private int cachedSprites;
+
+    // Number of chunk caches defined so far, in place or from scratch, for telling cache hits from rebuilds.
+    // Chunks without buildings and chunks drawn sprite by sprite are never cached
+    @Getter private long cacheCount;
+
+    public BuildingSpriteCache(@NonNull ChunkedTileStore tiles, @NonNull ShaderProgram blurShader) {
+        int slots = tiles.getChunksX() * tiles.getChunksY();
+        this.tiles = tiles;
+        this.atlas = new TextureAtlas(Gdx.files.internal(BuildingRegion.ATLAS_PATH));
+        this.regions = new TextureRegion[BuildingRegion.values().length];
+        for (BuildingRegion region : BuildingRegion.values()) {
+            regions[region.ordinal()] = atlas.findRegion(region.getRegionName());
+            if (regions[region.ordinal()] == null) {
+                throw new IllegalStateException("Building atlas has no region " + region.getRegionName());
+            }
+        }
+        this.blurShader = blurShader;
+        this.cacheShader = createCacheShader();
+        this.cache = new SpriteCache(MAX_CACHED_BUILDINGS, cacheShader, true);
+        this.cacheIds = new int[slots];
+        this.cacheSizes = new int[slots];
+        this.builtChunks = new TileStore[slots];
+        this.builtVersions = new int[slots];
+        Arrays.fill(cacheIds, NO_CACHE);
+    }
+
+    /**
+     * Draws the buildings of the chunks overlapping an inclusive tile rectangle.
+     * @param blur Blur of the building shader, see the blur fragment shader
+     */
+    public void render(@NonNull Matrix4 projection, int startX, int endX, int startY, int endY,
+                       float blur, @NonNull SpriteBatch fallback) {
+        int chunkSize = tiles.getChunkSize();
+        visible.clear();
+        boolean rebuild = false;
+        for (int chunkX = startX / chunkSize; chunkX <= endX / chunkSize; chunkX++) {
+            for (int chunkY = startY / chunkSize; chunkY <= endY / chunkSize; chunkY++) {
+                int slot = chunkX * tiles.getChunksY() + chunkY;
+                visible.add(slot);
+                rebuild |= !refresh(slot, tiles.getChunkAt(chunkX, chunkY));
+            }
+        }
+        if (rebuild) {
+            rebuildVisible();
+        }
+
+        cache.setProjectionMatrix(projection);
+        cache.begin();
+        cacheShader.setUniformf("blur", blur);
+        for (int i = 0; i < visible.size; i++) {
+            int cacheId = cacheIds[visible.get(i)];
+            if (cacheId != NO_CACHE) {
+                cache.draw(cacheId);
+            }
+        }
+        cache.end();
+
+        if (uncached.notEmpty()) {
+            renderUncached(projection, blur, fallback);
+        }
+    }
+
+    /**
+     * Brings the cache of a chunk up to date where that is possible in place.
+     * @return False if the chunk needs a new or larger cache
+     */
+    private boolean refresh(int slot, TileStore chunk) {
+        if (builtChunks[slot] == chunk && builtVersions[slot] == chunk.getBuildingVersion()) return true;
+        if (builtChunks[slot] == null) return false;
+        if (uncached.contains(slot)) {
+            markBuilt(slot, chunk); // Drawn sprite by sprite anyway
+            return true;
+        }
+
+        int count = chunk.getBuildingCount();
+        if (count == 0 && cacheIds[slot] == NO_CACHE) {
+            markBuilt(slot, chunk);
+            return true;
+        }
+        if (cacheIds[slot] == NO_CACHE || count > cacheSizes[slot]) return false;
+
+        cache.beginCache(cacheIds[slot]);
+        addSprites(chunk);
+        cache.endCache();
+        cacheCount++;
+        markBuilt(slot, chunk);
+        return true;
+    }
+
+    /**
+     * Drops every cache and caches the visible chunks from scratch, dropping the chunks out of view.
+     */
+    private void rebuildVisible() {
+        cache.clear();
+        for (int i = 0; i < cached.size; i++) {
+            int slot = cached.get(i);
+            cacheIds[slot] = NO_CACHE;
+            builtChunks[slot] = null;
+        }
+        cached.clear();
+        uncached.clear();
+        cachedSprites = 0;
+
+        for (int i = 0; i < visible.size; i++) {
+            int slot = visible.get(i);
+            TileStore chunk = tiles.getChunkAt(slot / tiles.getChunksY(), slot % tiles.getChunksY());
+            int count = chunk.getBuildingCount();
+            cached.add(slot);
+            markBuilt(slot, chunk);
+
+            if (count == 0) continue;
+            if (cachedSprites + count > MAX_CACHED_BUILDINGS) {
+                uncached.add(slot);
+                continue;
+            }
+
+            cache.beginCache();
+            addSprites(chunk);
+            cacheIds[slot] = cache.endCache();
+            cacheCount++;
+            cacheSizes[slot] = count;
+            cachedSprites += count;
+        }
+    }
+
+    private void markBuilt(int slot, TileStore chunk) {
+        builtChunks[slot] = chunk;
+        builtVersions[slot] = chunk.getBuildingVersion();
+    }
+
+    private void addSprites(TileStore chunk) {
+        float tileSize = MapScale.SURFACE.getPixelsPerTile();
+        for (int x = 0; x < chunk.getWidth(); x++) {
+            int index = x * chunk.getHeight();
+            for (int y = 0; y < chunk.getHeight(); y++, index++) {
+                BaseBuilding building = chunk.getBuilding(index);
+                if (building == null) continue;
+
+                cache.add(regions[building.getRegion().ordinal()],
+                    (chunk.getOriginX() + x) * tileSize, (chunk.getOriginY() + y) * tileSize, tileSize, tileSize);
+            }
+        }
+    }
+
+    private void renderUncached(Matrix4 projection, float blur, SpriteBatch batch) {
+        float tileSize = MapScale.SURFACE.getPixelsPerTile();
+
+        batch.setShader(blurShader);
+        batch.setProjectionMatrix(projection);
+        batch.begin();
+        blurShader.setUniformf("blur", blur);
+        for (int i = 0; i < uncached.size; i++) {
+            int slot = uncached.get(i);
+            TileStore chunk = tiles.getChunkAt(slot / tiles.getChunksY(), slot % tiles.getChunksY());
+            tiles.forEachTile(chunk.getOriginX(), chunk.getOriginY(),
+                chunk.getOriginX() + chunk.getWidth() - 1, chunk.getOriginY() + chunk.getHeight() - 1,
+                (store, index, x, y) -> {
+                    BaseBuilding building = store.getBuilding(index);
+                    if (building != null) {
+                        batch.draw(regions[building.getRegion().ordinal()], x * tileSize, y * tileSize, tileSize, tileSize);
+                    }
+                });
+        }
+        batch.end();
+        batch.setShader(null);
+    }
+
+    /**
+     * The blur fragment shader behind a vertex shader taking the matrix the sprite cache sets on its own shader.
+     */
+    private static ShaderProgram createCacheShader() {
+        ShaderProgram program = new ShaderProgram(Gdx.files.internal("shaders/sprite_cache.vert"),
+            Gdx.files.internal("shaders/blur.frag"));
+        if (!program.isCompiled()) {
+            throw new IllegalStateException("Error compiling sprite cache shader: " + program.getLog());
+        }
+        return program;
+    }
+
+    @Override
+    public void dispose() {
+        cache.dispose();
+        atlas.dispose();
+    }
+}
@@ -0,0 +1,116 @@
+package org.lpc.map.maps;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+import lombok.NonNull;
+import org.lpc.map.ChunkedTileStore;
+import org.lpc.map.MapScale;
+
+import static org.lpc.utility.Constants.GRID_FADE_PIXELS;
+import static org.lpc.utility.Constants.GRID_MAX_LINES;
+import static org.lpc.utility.Constants.LOD_MIN_CELL_PIXELS;
+
+/**
+ * Grid over the visible cells of a map, drawn from two meshes built once: {@code GRID_MAX_LINES} parallel
+ * lines of unit length per direction, which the transform stretches over the view and moves into place.
+ * A frame is one draw call per direction and generates no vertices, however large the map.
+ * Lines follow the cells of the level of detail being drawn and fade out as the cells shrink on screen.
+ * Needs a GL context.
+ */
+public class GridOverlay implements Disposable {
+    private static final Color GRID_COLOR = new Color(0.8f, 0.8f, 0.8f, 0.1f);
+
+    // Lines from (i, 0) to (i, 1) and from (0, i) to (1, i)
+    private final Mesh verticalLines = buildLines(true);
+    private final Mesh horizontalLines = buildLines(false);
+    private final ShaderProgram shader;
+
+    private final Matrix4 transform = new Matrix4();
+    private final Color color = new Color();
+
+    public GridOverlay() {
+        shader = new ShaderProgram(Gdx.files.internal("shaders/grid.vert"), Gdx.files.internal("shaders/grid.frag"));
+        if (!shader.isCompiled()) {
+            Gdx.app.error("Shader", "Error compiling shader: " + shader.getLog());
+        }
+    }
+
+    /**
+     * Draws the lines between the cells of the view bounds, blending has to be enabled.
+     * @param cellPixels On-screen size of a cell of the level
+     */
+    public void render(@NonNull Matrix4 projection, @NonNull ChunkedTileStore tiles,
+                       @NonNull SurfaceMapRenderer.ViewBounds bounds, int level, float cellPixels) {
+        float alpha = lineAlpha(cellPixels);
+        if (alpha == 0f) return;
+
+        int cellSize = MapScale.SURFACE.getPixelsPerTile() << level;
+        int startCellX = bounds.startX >> level;
+        int endCellX = bounds.endX >> level;
+        int startCellY = bounds.startY >> level;
+        int endCellY = bounds.endY >> level;
+
+        // Lines stop at the view and the map edge
+        float fromX = startCellX * cellSize;
+        float fromY = startCellY * cellSize;
+        float toX = Math.min(endCellX + 1, (tiles.getWidth() + (1 << level) - 1) >> level) * cellSize;
+        float toY = Math.min(endCellY + 1, (tiles.getHeight() + (1 << level) - 1) >> level) * cellSize;
+
+        shader.bind();
+        shader.setUniformf("u_color", color.set(GRID_COLOR.r, GRID_COLOR.g, GRID_COLOR.b, GRID_COLOR.a * alpha));
+
+        for (int first = startCellX; first <= endCellX; first += GRID_MAX_LINES) {
+            int count = Math.min(GRID_MAX_LINES, endCellX - first + 1);
+            transform.set(projection).translate(first * cellSize, fromY, 0).scale(cellSize, toY - fromY, 1);
+            shader.setUniformMatrix("u_projTrans", transform);
+            verticalLines.render(shader, GL20.GL_LINES, 0, count * 2);
+        }
+
+        for (int first = startCellY; first <= endCellY; first += GRID_MAX_LINES) {
+            int count = Math.min(GRID_MAX_LINES, endCellY - first + 1);
+            transform.set(projection).translate(fromX, first * cellSize, 0).scale(toX - fromX, cellSize, 1);
+            shader.setUniformMatrix("u_projTrans", transform);
+            horizontalLines.render(shader, GL20.GL_LINES, 0, count * 2);
+        }
+    }
+
+    /**
+     * Gets how opaque the grid is drawn for a cell size on screen, relative to its colour.
+     * Fully drawn from {@code GRID_FADE_PIXELS} on, hidden once the lines would be closer than half the
+     * smallest level of detail cell.
+     */
+    public static float lineAlpha(float cellPixels) {
+        if (cellPixels < LOD_MIN_CELL_PIXELS / 2f) return 0f;
+        return Math.min(1f, cellPixels / GRID_FADE_PIXELS);
+    }
+
+    private static Mesh buildLines(boolean vertical) {
+        float[] vertices = new float[GRID_MAX_LINES * 4];
+        for (int i = 0; i < GRID_MAX_LINES; i++) {
+            int at = i * 4;
+            vertices[at]     = vertical ? i : 0;
+            vertices[at + 1] = vertical ? 0 : i;
+            vertices[at + 2] = vertical ? i : 1;
+            vertices[at + 3] = vertical ? 1 : i;
+        }
+
+        Mesh mesh = new Mesh(true, vertices.length / 2, 0,
+            new VertexAttribute(VertexAttributes.Usage.Position, 2, ShaderProgram.POSITION_ATTRIBUTE));
+        mesh.setVertices(vertices);
+        return mesh;
+    }
+
+    @Override
+    public void dispose() {
+        verticalLines.dispose();
+        horizontalLines.dispose();
+        shader.dispose();
+    }
+}
@@ -1,72 +1,179 @@
 package org.lpc.map.maps;
 
 import com.badlogic.gdx.math.Vector2;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.NonNull;
 import lombok.Setter;
-import org.javatuples.Pair;
 import org.lpc.MainGame;
+import org.lpc.civilisation.Civilisation;
 import org.lpc.map.BaseMap;
 import org.lpc.map.MapScale;
+import org.lpc.map.TileStore;
 import org.lpc.terrain.TerrainType;
 import org.lpc.terrain.buildings.BaseBuilding;
 import org.lpc.terrain.resources.ResourceNode;
 import org.lpc.terrain.resources.ResourceType;
 import org.lpc.utility.Position;
 
-import java.util.Optional;
-
 import static org.lpc.map.maps.SurfaceMap.*;
 
 @Getter
 @Setter
 public class SurfaceMap extends BaseMap<SurfaceTile> {
+    /**
+     * Flyweight view of a single surface tile.
+     * Holds only its coordinates, all tile data is read from and written to the chunk holding the tile.
+     */
     @Getter
-    @Setter
     public static class SurfaceTile extends BaseTile {
-        private TerrainType terrain;
+        private final SurfaceMap map;
+        private final int x;
+        private final int y;
+
+        @Getter(AccessLevel.NONE)
         private ResourceNode resources;
-        private BaseBuilding building;
-        private boolean explored;
-        private float moisture;
-        private float height;
-        private float movementModifier;
-        private float vegetationDensity;
-
-        public SurfaceTile(Position pos, TerrainType terrain, float moisture, float height) {
-            super(pos, MapScale.SURFACE);
-            this.terrain = terrain;
-            this.explored = false;
-            this.resources = new ResourceNode();
-            this.moisture = moisture;
-            this.height = height;
-            this.movementModifier = TerrainType.getMovementModifier(terrain);
-            this.vegetationDensity = TerrainType.calculateVegetationDensity(terrain, moisture, height);
-        }
-
-        public Optional<Pair<ResourceType, Integer>> harvestResource() {
-            if (building == null || !building.canHarvestResources()) {
-                return Optional.empty();
+
+        public SurfaceTile(@NonNull SurfaceMap map, int x, int y) {
+            super(MapScale.SURFACE);
+            this.map = map;
+            this.x = x;
+            this.y = y;
+        }
+
+        private TileStore chunk() {
+            return map.getStore().getChunk(x, y);
+        }
+
+        @Override
+        public Position getPosition() {
+            return new Position(x, y, MapScale.SURFACE);
+        }
+
+        @Override
+        public Civilisation getOwner() {
+            TileStore chunk = chunk();
+            return map.getOwner(chunk.getOwnerId(chunk.index(x, y)));
+        }
+
+        @Override
+        public void setOwner(Civilisation owner) {
+            TileStore chunk = chunk();
+            chunk.setOwnerId(chunk.index(x, y), map.getOwnerId(owner));
+        }
+
+        public TerrainType getTerrain() {
+            TileStore chunk = chunk();
+            return chunk.getTerrain(chunk.index(x, y));
+        }
+
+        public void setTerrain(@NonNull TerrainType terrain) {
+            TileStore chunk = chunk();
+            chunk.setTerrain(chunk.index(x, y), terrain);
+        }
+
+        /**
+         * Reads the quantity of a resource on the tile without handing out a writable view.
+         */
+        public int getResourceQuantity(@NonNull ResourceType type) {
+            TileStore chunk = chunk();
+            return chunk.getResourceQuantity(chunk.index(x, y), type);
+        }
+
+        public ResourceNode getResources() {
+            if (resources == null) {
+                TileStore chunk = chunk();
+                resources = chunk.getResourceNode(chunk.index(x, y));
             }
+            return resources;
+        }
 
-            return Optional.of(building.harvestResources());
+        public BaseBuilding getBuilding() {
+            TileStore chunk = chunk();
+            return chunk.getBuilding(chunk.index(x, y));
+        }
+
+        /**
+         * Places a building on the tile. A building it replaces is stopped.
+         */
+        public void setBuilding(BaseBuilding building) {
+            TileStore chunk = chunk();
+            int index = chunk.index(x, y);
+
+            BaseBuilding previous = chunk.getBuilding(index);
+            if (previous != null && previous != building) {
+                previous.stop();
+            }
+            chunk.setBuilding(index, building);
+        }
+
+        public boolean isExplored() {
+            TileStore chunk = chunk();
+            return chunk.isExplored(chunk.index(x, y));
+        }
+
+        public void setExplored(boolean explored) {
+            TileStore chunk = chunk();
+            chunk.setExplored(chunk.index(x, y), explored);
+        }
+
+        public float getMoisture() {
+            TileStore chunk = chunk();
+            return chunk.getMoisture(chunk.index(x, y));
+        }
+
+        public float getHeight() {
+            TileStore chunk = chunk();
+            return chunk.getHeight(chunk.index(x, y));
+        }
+
+        public float getMovementModifier() {
+            return TerrainType.getMovementModifier(getTerrain());
+        }
+
+        public float getVegetationDensity() {
+            TileStore chunk = chunk();
+            return chunk.getVegetationDensity(chunk.index(x, y));
         }
 
         public void update() {
+            BaseBuilding building = getBuilding();
             if (building != null) {
                 building.update();
             }
         }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            SurfaceTile other = (SurfaceTile) o;
+            return map == other.map && x == other.x && y == other.y;
+        }
+
+        @Override
+        public int hashCode() {
+            return map.getStore().index(x, y);
+        }
+
+        @Override
+        public String toString() {
+            return "SurfaceTile[" + x + "," + y + "]";
+        }
     }
 
-    public SurfaceMap(int width, int height, MainGame game) {
+    public SurfaceMap(int width, int height, MainGame game, long seed) {
+        this(width, height, game, seed, 1);
+    }
+
+    public SurfaceMap(int width, int height, MainGame game, long seed, int generationThreads) {
         super(
             MapScale.SURFACE,
             width,
             height,
             game,
-            new SurfaceMapGenerator(),
+            new SurfaceMapGenerator(seed, generationThreads),
             new SurfaceMapRenderer(game),
-            new SurfaceTile[width][height],
             new SurfaceMapInput(game)
         );
         //this.vegetationManager = new VegetationManager();
@@ -77,8 +184,9 @@ public class SurfaceMap extends BaseMap<SurfaceTile> {
         // Update logic if needed
     }
 
+    @Override
     public SurfaceTile getTile(int x, int y) {
-        return (SurfaceTile) tiles[x][y];
+        return new SurfaceTile(this, x, y);
     }
 
     public Vector2 getTilePosition(int x, int y) {
@@ -1,41 +1,93 @@
 package org.lpc.map.maps;
 
 import com.badlogic.gdx.math.MathUtils;
-import org.lpc.map.BaseMap;
 import org.lpc.map.IMapGenerator;
-import org.lpc.map.MapScale;
+import org.lpc.map.TileStore;
 import org.lpc.terrain.TerrainType;
 import org.lpc.terrain.resources.ResourceType;
 import org.lpc.utility.PerlinNoise;
-import org.lpc.utility.Position;
+import org.lpc.utility.Seeds;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates surface terrain and resources.
+ * Every tile only depends on the world seed and its own coordinates, so a store is split into column strips
+ * that are generated independently on a fork-join pool when more than one thread is configured.
+ * The same seed always produces the same tiles, regardless of thread count or chunk layout.
+ * The pool lives as long as the generator, dispose it with the map.
+ */
+public class SurfaceMapGenerator implements IMapGenerator {
+    private static final int STRIPS_PER_THREAD = 4;
+
+    private static final double SCALE = 0.04;
+    private static final int OCTAVES = 5;
+    private static final float HEIGHT_PERSISTENCE = 0.001f;
+    private static final float RIVER_PERSISTENCE = 0.05f;
+    private static final float MOISTURE_PERSISTENCE = 0.5f;
+    private static final double MOISTURE_SMOOTHING = 1.5;
 
-import java.util.Random;
-
-public class SurfaceMapGenerator implements IMapGenerator<SurfaceMap.SurfaceTile> {
     private final PerlinNoise heightNoise;
     private final PerlinNoise moistureNoise;
+    private final long resourceSeed;
+    private final int parallelism;
+    private final ForkJoinPool pool;
 
-    public SurfaceMapGenerator() {
-        this.heightNoise = new PerlinNoise();
-        this.moistureNoise = new PerlinNoise();
+    @FunctionalInterface
+    private interface StripGenerator {
+        void generate(TileStore store, int fromX, int toX);
     }
 
-    @Override
-    public void generateTerrain(SurfaceMap.SurfaceTile[][] tiles, int width, int height) {
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                tiles[x][y] = generateTile(x, y);
-            }
-        }
+    public SurfaceMapGenerator(long seed) {
+        this(seed, 1);
     }
 
-    private SurfaceMap.SurfaceTile generateTile(int x, int y) {
-        double scale = 0.04;
+    /**
+     * @param seed World seed
+     * @param parallelism Number of generation threads, 1 generates on the calling thread
+     */
+    public SurfaceMapGenerator(long seed, int parallelism) {
+        this.heightNoise = new PerlinNoise(Seeds.derive(seed, Seeds.HEIGHT_LAYER));
+        this.moistureNoise = new PerlinNoise(Seeds.derive(seed, Seeds.MOISTURE_LAYER));
+        this.resourceSeed = Seeds.derive(seed, Seeds.RESOURCE_LAYER);
+        this.parallelism = Math.max(1, parallelism);
+        this.pool = this.parallelism > 1 ? new ForkJoinPool(this.parallelism) : null;
+    }
 
-        double heightValue = generateHeight(x, y, scale);
-        double moistureValue = generateMoisture(x, y, scale);
-        double riverValue = generateRiver(x, y, scale);
+    @Override
+    public void generateTerrain(TileStore store) {
+        forEachColumnStrip(store, this::generateTerrainColumns);
+    }
 
+    /**
+     * Samples the noise layers for a whole strip at once, in floats like the tiles store them.
+     * Height and river read the same noise at the same frequencies, so they share a single octave pass.
+     */
+    private void generateTerrainColumns(TileStore store, int fromX, int toX) {
+        int width = toX - fromX;
+        int height = store.getHeight();
+        int size = width * height;
+
+        float[] heightValues = new float[size];
+        float[] riverValues = new float[size];
+        float[] moistureValues = new float[size];
+
+        heightNoise.octaveNoiseBlock(fromX, store.getOriginY(), width, height, OCTAVES, SCALE,
+            new float[] { HEIGHT_PERSISTENCE, RIVER_PERSISTENCE }, new float[][] { heightValues, riverValues });
+        moistureNoise.octaveNoiseBlock(fromX, store.getOriginY(), width, height, OCTAVES,
+            MOISTURE_PERSISTENCE, SCALE, moistureValues);
+
+        // Strip columns are contiguous in the store, so strip and store indices advance together
+        int index = store.index(fromX, store.getOriginY());
+        for (int i = 0; i < size; i++) {
+            generateTile(store, index + i, heightValues[i], PerlinNoise.smooth(moistureValues[i], MOISTURE_SMOOTHING),
+                PerlinNoise.river(riverValues[i]));
+        }
+    }
+
+    private void generateTile(TileStore store, int index, double heightValue, double moistureValue, double riverValue) {
         heightValue = (heightValue + 1) / 2;
         moistureValue = (moistureValue + 1) / 2;
         riverValue = (riverValue + 1) / 2;
@@ -44,19 +96,7 @@ public class SurfaceMapGenerator implements IMapGenerator<SurfaceMap.SurfaceTile
 
         TerrainType terrain = determineTerrainType((float) heightValue, (float) moistureValue);
 
-        return new SurfaceMap.SurfaceTile(new Position(x, y, MapScale.SURFACE), terrain, (float) moistureValue, (float) heightValue);
-    }
-
-    private double generateHeight(int x, int y, double scale) {
-        return heightNoise.octaveNoise(x, y, 5, 0.001, scale);
-    }
-
-    private double generateMoisture(int x, int y, double scale) {
-        return moistureNoise.smoothNoise(x, y, 5, 0.5, scale, 1.5);
-    }
-
-    private double generateRiver(int x, int y, double scale) {
-        return heightNoise.riverNoise(x, y, 5, 0.05, scale);
+        store.setTile(index, terrain, (float) heightValue, (float) moistureValue);
     }
 
     private double applyRiverEffect(double heightValue, double riverValue) {
@@ -82,65 +122,82 @@ public class SurfaceMapGenerator implements IMapGenerator<SurfaceMap.SurfaceTile
     }
 
     @Override
-    public void generateResources(SurfaceMap.SurfaceTile[][] tiles) {
-        for (SurfaceMap.SurfaceTile[] row : tiles) {
-            for (SurfaceMap.SurfaceTile tile : row) {
-                generateResourcesForTile(tile);
+    public void generateResources(TileStore store) {
+        forEachColumnStrip(store, this::generateResourceColumns);
+    }
+
+    private void generateResourceColumns(TileStore store, int fromX, int toX) {
+        for (int x = fromX; x < toX; x++) {
+            int index = store.index(x, store.getOriginY());
+            for (int y = store.getOriginY(); y < store.getOriginY() + store.getHeight(); y++) {
+                SplittableRandom random = new SplittableRandom(Seeds.derive(resourceSeed, x, y));
+                generateResourcesForTile(store, index++, random);
             }
         }
     }
 
-    private void generateResourcesForTile(SurfaceMap.SurfaceTile tile) {
-        if (tile == null) throw new IllegalArgumentException("Tile cannot be null");
+    private void forEachColumnStrip(TileStore store, StripGenerator generator) {
+        int fromX = store.getOriginX();
+        int toX = fromX + store.getWidth();
+
+        if (pool == null) {
+            generator.generate(store, fromX, toX);
+            return;
+        }
+
+        int stripWidth = Math.max(1, store.getWidth() / (parallelism * STRIPS_PER_THREAD));
+        pool.invoke(new StripTask(store, fromX, toX, stripWidth, generator));
+    }
 
-        TerrainType terrain = tile.getTerrain();
+    private void generateResourcesForTile(TileStore store, int index, SplittableRandom random) {
+        TerrainType terrain = store.getTerrain(index);
 
-        float moisture = tile.getMoisture() * 2;
-        float height = tile.getHeight() * 2;
+        float moisture = store.getMoisture(index) * 2;
+        float height = store.getHeight(index) * 2;
 
         switch (terrain) {
             case WATER:
-                generateResource(tile, ResourceType.FOOD, 40, 100, moisture);
+                generateResource(store, index, random, ResourceType.FOOD, 40, 100, moisture);
                 break;
             case BEACH:
-                generateResource(tile, ResourceType.FOOD, 20, 40, moisture);
-                generateResource(tile, ResourceType.STONE, 0, 50, height);
-                generateResource(tile, ResourceType.IRON, 0, 40, height);
+                generateResource(store, index, random, ResourceType.FOOD, 20, 40, moisture);
+                generateResource(store, index, random, ResourceType.STONE, 0, 50, height);
+                generateResource(store, index, random, ResourceType.IRON, 0, 40, height);
                 break;
             case FOREST:
-                generateResource(tile, ResourceType.FOOD, 50, 100, moisture);
-                generateResource(tile, ResourceType.WOOD, 40, 80, height);
-                generateResource(tile, ResourceType.STONE, 0, 40, height);
-                generateResource(tile, ResourceType.IRON, 0, 20, height);
+                generateResource(store, index, random, ResourceType.FOOD, 50, 100, moisture);
+                generateResource(store, index, random, ResourceType.WOOD, 40, 80, height);
+                generateResource(store, index, random, ResourceType.STONE, 0, 40, height);
+                generateResource(store, index, random, ResourceType.IRON, 0, 20, height);
                 break;
             case PLAINS:
-                generateResource(tile, ResourceType.FOOD, 40, 80, moisture);
-                generateResource(tile, ResourceType.WOOD, 10, 20, height);
-                generateResource(tile, ResourceType.STONE, 0, 40, height);
-                generateResource(tile, ResourceType.IRON, 0, 20, height);
+                generateResource(store, index, random, ResourceType.FOOD, 40, 80, moisture);
+                generateResource(store, index, random, ResourceType.WOOD, 10, 20, height);
+                generateResource(store, index, random, ResourceType.STONE, 0, 40, height);
+                generateResource(store, index, random, ResourceType.IRON, 0, 20, height);
                 break;
             case DESERT:
-                generateResource(tile, ResourceType.FOOD, 3, 30, moisture);
-                generateResource(tile, ResourceType.GOLD, 0, 3, height / 10);
-                generateResource(tile, ResourceType.IRON, 0, 10, height);
+                generateResource(store, index, random, ResourceType.FOOD, 3, 30, moisture);
+                generateResource(store, index, random, ResourceType.GOLD, 0, 3, height / 10);
+                generateResource(store, index, random, ResourceType.IRON, 0, 10, height);
                 break;
             case HILLS:
-                generateResource(tile, ResourceType.FOOD, 20, 40, moisture);
-                generateResource(tile, ResourceType.WOOD, 10, 20, height);
-                generateResource(tile, ResourceType.STONE, 20, 80, height);
-                generateResource(tile, ResourceType.IRON, 10, 30, height);
+                generateResource(store, index, random, ResourceType.FOOD, 20, 40, moisture);
+                generateResource(store, index, random, ResourceType.WOOD, 10, 20, height);
+                generateResource(store, index, random, ResourceType.STONE, 20, 80, height);
+                generateResource(store, index, random, ResourceType.IRON, 10, 30, height);
                 break;
             case MOUNTAIN:
-                generateResource(tile, ResourceType.FOOD, 10, 20, moisture);
-                generateResource(tile, ResourceType.STONE, 40, 100, height);
-                generateResource(tile, ResourceType.IRON, 20, 60, height);
+                generateResource(store, index, random, ResourceType.FOOD, 10, 20, moisture);
+                generateResource(store, index, random, ResourceType.STONE, 40, 100, height);
+                generateResource(store, index, random, ResourceType.IRON, 20, 60, height);
                 break;
         }
     }
 
-    private void generateResource(SurfaceMap.SurfaceTile tile, ResourceType type, int min, int max, float modifier) {
-        Random random = new Random();
-        int quantity = random.nextInt(max - min) + min;
+    private void generateResource(TileStore store, int index, SplittableRandom random,
+                                  ResourceType type, int min, int max, float modifier) {
+        int quantity = random.nextInt(min, max);
 
         if (modifier > 0)
             quantity = (int) (quantity * modifier);
@@ -148,6 +205,45 @@ public class SurfaceMapGenerator implements IMapGenerator<SurfaceMap.SurfaceTile
         quantity = MathUtils.clamp(quantity, min, max);
 
         if (quantity > 0)
-            tile.getResources().addResource(type, quantity);
+            store.addResource(index, type, quantity);
+    }
+
+    @Override
+    public void dispose() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private static class StripTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final TileStore store;
+        private final int fromX;
+        private final int toX;
+        private final int stripWidth;
+        private final StripGenerator generator;
+
+        StripTask(TileStore store, int fromX, int toX, int stripWidth, StripGenerator generator) {
+            this.store = store;
+            this.fromX = fromX;
+            this.toX = toX;
+            this.stripWidth = stripWidth;
+            this.generator = generator;
+        }
+
+        @Override
+        protected void compute() {
+            if (toX - fromX <= stripWidth) {
+                generator.generate(store, fromX, toX);
+                return;
+            }
+
+            int middle = (fromX + toX) >>> 1;
+            invokeAll(
+                new StripTask(store, fromX, middle, stripWidth, generator),
+                new StripTask(store, middle, toX, stripWidth, generator)
+            );
+        }
     }
 }
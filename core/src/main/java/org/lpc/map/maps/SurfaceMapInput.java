@@ -69,6 +69,7 @@ public class SurfaceMapInput implements IMapInput {
             case Input.Keys.G -> toggleSetting(settings::toggleRenderGrid, "Render Grid");
             case Input.Keys.RIGHT -> adjustTickRate(settings::increaseTPS, "Increased");
             case Input.Keys.LEFT -> adjustTickRate(settings::decreaseTPS, "Decreased");
+            case Input.Keys.F -> toggleFastForward(settings);
         }
     }
 
@@ -82,6 +83,11 @@ public class SurfaceMapInput implements IMapInput {
         LOGGER.info("{} TPS to {}", action, game.getSettings().getTicksPerSecond());
     }
 
+    private void toggleFastForward(Settings settings) {
+        settings.toggleFastForward();
+        LOGGER.info("Fast forward {}", settings.isFastForward() ? "enabled" : "disabled");
+    }
+
     @Override
     public void handleScroll(BaseInputHandler handler, float amountX, float amountY) {
         clearSelection();
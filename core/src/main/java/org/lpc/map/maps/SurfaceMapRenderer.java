@@ -5,34 +5,36 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
-import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.utils.IntArray;
 import lombok.Getter;
 import org.lpc.MainGame;
+import org.lpc.civilisation.Civilisation;
 import org.lpc.map.BaseMap;
+import org.lpc.map.ChunkedTileStore;
 import org.lpc.map.IMapRenderer;
 import org.lpc.map.MapScale;
-import org.lpc.terrain.TerrainType;
+import org.lpc.map.TilePyramid;
+import org.lpc.map.TileStore;
 import org.lpc.terrain.buildings.BaseBuilding;
 import org.lpc.terrain.resources.ResourceType;
 
+import java.util.List;
+import java.util.Optional;
+
+import static org.lpc.utility.Constants.LOD_MIN_CELL_PIXELS;
+import static org.lpc.utility.Constants.MAX_BORDER_CHUNKS;
+import static org.lpc.utility.Constants.MAX_TERRAIN_TEXTURES;
+
 @Getter
 public class SurfaceMapRenderer implements IMapRenderer<SurfaceMap.SurfaceTile> {
     private final MainGame game;
     private final OrthographicCamera camera;
 
-    // Terrain colors
-    private static final Color WATER_COLOR       = new Color(0.1f, 0.3f, 0.5f, 1.0f); // Softer deep blue
-    private static final Color BEACH_COLOR       = new Color(0.8f, 0.7f, 0.5f, 1.0f); // More muted sandy
-    private static final Color DESERT_COLOR      = new Color(0.7f, 0.6f, 0.4f, 1.0f); // Softer muted tan
-    private static final Color FOREST_COLOR      = new Color(0.2f, 0.5f, 0.2f, 1.0f); // Softer dark green
-    private static final Color HILLS_COLOR       = new Color(0.4f, 0.3f, 0.2f, 1.0f); // Muted earthy brown
-    private static final Color MOUNTAIN_COLOR    = new Color(0.6f, 0.6f, 0.6f, 1.0f); // Softer neutral gray
-    private static final Color PLAINS_COLOR      = new Color(0.4f, 0.6f, 0.3f, 1.0f); // Softer olive green
-
     // Resource colors
     private static final Color FOOD_COLOR        = new Color(0.0f, 0.8f, 0.0f, 1.0f); // Bright green
     private static final Color GOLD_COLOR        = new Color(1.0f, 0.8f, 0.0f, 1.0f); // Bright yellow
@@ -40,36 +42,58 @@ public class SurfaceMapRenderer implements IMapRenderer<SurfaceMap.SurfaceTile>
     private static final Color STONE_COLOR       = new Color(0.5f, 0.5f, 0.5f, 1.0f); // Neutral gray
     private static final Color WOOD_COLOR        = new Color(0.5f, 0.3f, 0.0f, 1.0f); // Dark brown
 
-    private static class ViewBounds {
-        int startX, endX, startY, endY;
+    /**
+     * Inclusive tile rectangle visible through a camera.
+     */
+    public static class ViewBounds {
+        public int startX, endX, startY, endY;
     }
 
+    // Created with the first frame, the renderer is built before the map it draws
+    private TerrainChunkCache terrainCache;
+    private BorderEdgeCache borderCache;
+    private GridOverlay gridOverlay;
+    private BuildingSpriteCache buildingCache;
+
     public SurfaceMapRenderer(MainGame game) {
         this.game = game;
         this.camera = new OrthographicCamera(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
     }
 
     @Override
-    public void render(SurfaceMap.SurfaceTile[][] tiles, ShapeRenderer shapeRenderer, SpriteBatch batch) {
-        renderGameWorld(tiles, shapeRenderer, batch);
+    public void render(BaseMap<SurfaceMap.SurfaceTile> map, ShapeRenderer shapeRenderer, SpriteBatch batch) {
+        renderGameWorld(map, shapeRenderer, batch);
     }
 
-    private void renderGameWorld(SurfaceMap.SurfaceTile[][] tiles, ShapeRenderer shapeRenderer, SpriteBatch batch) {
+    private void renderGameWorld(BaseMap<SurfaceMap.SurfaceTile> map, ShapeRenderer shapeRenderer, SpriteBatch batch) {
+        ChunkedTileStore tiles = map.getStore();
+
+        // Bounds, level of detail and projection all come from the camera of the game screen
         OrthographicCamera gameCamera = game.getGameScreen().getCamera();
         gameCamera.update();
 
-        float tileSize = MapScale.SURFACE.getPixelsPerTile();
         ViewBounds viewBounds = calculateViewBounds(gameCamera, MapScale.SURFACE.getPixelsPerTile(), tiles);
+        int level = selectLevel(gameCamera.zoom, MapScale.SURFACE.getPixelsPerTile());
 
         shapeRenderer.setProjectionMatrix(gameCamera.combined);
         batch.setProjectionMatrix(gameCamera.combined);
 
-        // 1. Render solid terrain first
-        beginRenderShapes(shapeRenderer);
+        // 1. Render solid terrain first, a quad per chunk
+        beginRenderSprites(batch);
+        batch.disableBlending();
         {
-            renderTerrain(tiles, viewBounds.startX, viewBounds.endX, viewBounds.startY, viewBounds.endY, shapeRenderer);
+            renderTerrain(tiles, level, viewBounds.startX, viewBounds.endX, viewBounds.startY, viewBounds.endY, batch);
+        }
+        batch.enableBlending();
+        endRenderSprites(batch);
+
+        if (game.getSettings().isRenderResources() && gameCamera.zoom <= 4f) {
+            beginRenderShapes(shapeRenderer);
+            {
+                renderResources(tiles, viewBounds.startX, viewBounds.endX, viewBounds.startY, viewBounds.endY, shapeRenderer);
+            }
+            endRenderShapes(shapeRenderer);
         }
-        endRenderShapes(shapeRenderer);
 
         // Render transparent elements
         enableBlend();
@@ -77,120 +101,118 @@ public class SurfaceMapRenderer implements IMapRenderer<SurfaceMap.SurfaceTile>
             // 2. Render civilisation borders and grid
             beginRenderShapes(shapeRenderer);
             {
-                renderCivilisationBorders(tiles, viewBounds.startX, viewBounds.endX,
+                renderCivilisationBorders(map, level, viewBounds.startX, viewBounds.endX,
                     viewBounds.startY, viewBounds.endY, shapeRenderer);
-
-                if (game.getSettings().isRenderGrid()) {
-                    renderGrid(shapeRenderer, tiles.length, tiles[0].length, tileSize);
-                }
             }
             endRenderShapes(shapeRenderer);
 
-            // 3. Render all sprites
-            beginRenderSprites(batch);
-            {
+            if (game.getSettings().isRenderGrid()) {
+                renderGrid(tiles, viewBounds, level, gameCamera);
+            }
+
+            // 3. Render all sprites from the per chunk caches, buildings are too small to make out on coarser levels
+            if (level == 0) {
                 renderBuildingSprites(tiles, viewBounds.startX, viewBounds.endX,
-                    viewBounds.startY, viewBounds.endY, batch);
+                    viewBounds.startY, viewBounds.endY, gameCamera, batch);
             }
-            endRenderSprites(batch);
 
             // 4. Render progress bars
             beginRenderShapes(shapeRenderer);
             {
-                renderBuildingProgressBars(tiles, viewBounds.startX, viewBounds.endX,
-                    viewBounds.startY, viewBounds.endY, shapeRenderer);
+                renderBuildingProgressBars(game.getGameStateManager().getCivilisations(), viewBounds.startX,
+                    viewBounds.endX, viewBounds.startY, viewBounds.endY, gameCamera.zoom, shapeRenderer);
             }
             endRenderShapes(shapeRenderer);
         }
         disableBlend();
     }
 
-    private void renderTerrain(SurfaceMap.SurfaceTile[][] tiles, int startX, int endX, int startY, int endY,
-                               ShapeRenderer shapeRenderer) {
-        float tileSize = MapScale.SURFACE.getPixelsPerTile();
-
-        for (int x = startX; x <= endX; x++) {
-            for (int y = startY; y <= endY; y++) {
-                SurfaceMap.SurfaceTile tile = tiles[x][y];
-                renderTile(shapeRenderer, tile, x, y, tileSize);
+    private void renderTerrain(ChunkedTileStore tiles, int level, int startX, int endX, int startY, int endY,
+                               SpriteBatch batch) {
+        if (terrainCache == null) {
+            terrainCache = new TerrainChunkCache(tiles, MAX_TERRAIN_TEXTURES);
+        }
 
-                if (game.getSettings().isRenderResources()) {
-                    renderResources(tile, x, y, shapeRenderer);
-                }
+        float tileSize = MapScale.SURFACE.getPixelsPerTile();
+        int chunkSize = tiles.getChunkSize();
+
+        for (int chunkX = startX / chunkSize; chunkX <= endX / chunkSize; chunkX++) {
+            for (int chunkY = startY / chunkSize; chunkY <= endY / chunkSize; chunkY++) {
+                Texture texture = terrainCache.getTexture(chunkX, chunkY, level);
+                TileStore chunk = tiles.getChunkAt(chunkX, chunkY);
+                batch.draw(texture,
+                    chunk.getOriginX() * tileSize,
+                    chunk.getOriginY() * tileSize,
+                    chunk.getWidth() * tileSize,
+                    chunk.getHeight() * tileSize);
             }
         }
     }
 
-    private void renderGrid(ShapeRenderer shapeRenderer, int width, int height, float tileSize) {
-        shapeRenderer.setColor(new Color(0.8f, 0.8f, 0.8f, 0.1f));
-        shapeRenderer.set(ShapeRenderer.ShapeType.Line);
+    private void renderResources(ChunkedTileStore tiles, int startX, int endX, int startY, int endY,
+                                 ShapeRenderer shapeRenderer) {
+        shapeRenderer.set(ShapeRenderer.ShapeType.Filled);
+        tiles.forEachTile(startX, startY, endX, endY, (chunk, index, x, y) ->
+            renderResources(chunk, index, x, y, shapeRenderer)
+        );
+    }
 
-        for (int x = 0; x < width; x++) {
-            shapeRenderer.line(x * tileSize, 0, x * tileSize, height * tileSize);
+    private void renderGrid(ChunkedTileStore tiles, ViewBounds viewBounds, int level, OrthographicCamera view) {
+        if (gridOverlay == null) {
+            gridOverlay = new GridOverlay();
         }
 
-        for (int y = 0; y < height; y++) {
-            shapeRenderer.line(0, y * tileSize, width * tileSize, y * tileSize);
-        }
+        float cellPixels = (MapScale.SURFACE.getPixelsPerTile() << level) / view.zoom;
+        gridOverlay.render(view.combined, tiles, viewBounds, level, cellPixels);
     }
 
-    private void renderBuildingSprites(SurfaceMap.SurfaceTile[][] surfaceTiles, int startX, int endX,
-                                       int startY, int endY, SpriteBatch batch) {
-        float blur = 0;
-
-        if (camera.zoom > 2f) {
-            blur = camera.zoom - 2f;
+    private void renderBuildingSprites(ChunkedTileStore surfaceTiles, int startX, int endX,
+                                       int startY, int endY, OrthographicCamera view, SpriteBatch batch) {
+        if (buildingCache == null) {
+            buildingCache = new BuildingSpriteCache(surfaceTiles, game.getBlurShader());
         }
 
-        batch.setShader(game.getBlurShader());
-        game.getBlurShader().bind();
-        game.getBlurShader().setUniformf("blur", blur);
-
-        for (int x = startX; x <= endX; x++) {
-            for (int y = startY; y <= endY; y++) {
-                SurfaceMap.SurfaceTile tile = surfaceTiles[x][y];
-                if (tile.getBuilding() == null) continue;
-
-                BaseBuilding building = tile.getBuilding();
-                Sprite buildingSprite = building.getSprite();
+        float blur = 0;
 
-                buildingSprite.setPosition( x * MapScale.SURFACE.getPixelsPerTile(),
-                                            y * MapScale.SURFACE.getPixelsPerTile());
-                buildingSprite.draw(batch);
-            }
+        if (view.zoom > 2f) {
+            blur = view.zoom - 2f;
         }
 
-        batch.setShader(null);
+        buildingCache.render(view.combined, startX, endX, startY, endY, blur, batch);
     }
 
-    private void renderBuildingProgressBars(SurfaceMap.SurfaceTile[][] surfaceTiles, int startX, int endX,
-                                            int startY, int endY, ShapeRenderer renderer) {
-        if (camera.zoom > 2f) return;
-
-        for (int x = startX; x <= endX; x++) {
-            for (int y = startY; y <= endY; y++) {
-                SurfaceMap.SurfaceTile tile = surfaceTiles[x][y];
-                if (tile.getBuilding() == null) continue;
-
-                BaseBuilding building = tile.getBuilding();
-
-                if (building.getProgressPercentage().isPresent()) {
-                    renderBuildingProgress(renderer, building, x, y);
+    /**
+     * Draws the progress of the active buildings in view, walking the active building index of every
+     * civilisation instead of the visible tiles.
+     */
+    private void renderBuildingProgressBars(List<Civilisation> civilisations, int startX, int endX,
+                                            int startY, int endY, float zoom, ShapeRenderer renderer) {
+        if (zoom > 2f) return;
+
+        for (int c = 0; c < civilisations.size(); c++) {
+            List<BaseBuilding> buildings = civilisations.get(c).getTerritoryHandler().getActiveBuildings();
+
+            for (int i = 0; i < buildings.size(); i++) {
+                BaseBuilding building = buildings.get(i);
+                int x = building.getTile().getX();
+                int y = building.getTile().getY();
+                if (x < startX || x > endX || y < startY || y > endY) continue;
+
+                Optional<Integer> progress = building.getProgressPercentage();
+                if (progress.isPresent()) {
+                    renderBuildingProgress(renderer, progress.get() / 100f, x, y);
                 }
             }
         }
     }
 
-    private void renderBuildingProgress(ShapeRenderer renderer, BaseBuilding building, int x, int y) {
+    private void renderBuildingProgress(ShapeRenderer renderer, float progress, int x, int y) {
         float tileSize = MapScale.SURFACE.getPixelsPerTile();
         float padding = 2f;
         float tileX = x * tileSize + padding;
         float tileY = y * tileSize + padding;
         float innerTileSize = tileSize - (padding * 2);
 
-        if (building.getProgressPercentage().isEmpty()) throw new IllegalArgumentException("Building progress empty");
-
-        float progress = building.getProgressPercentage().get() / 100f;
         float progressWidth = innerTileSize * progress;
         float progressHeight = 4f;
 
@@ -205,70 +227,53 @@ public class SurfaceMapRenderer implements IMapRenderer<SurfaceMap.SurfaceTile>
         renderer.rect(tileX, tileY, innerTileSize, progressHeight);
     }
 
-    private void renderCivilisationBorders(SurfaceMap.SurfaceTile[][] tiles, int startX, int endX, int startY, int endY,
-                                           ShapeRenderer shapeRenderer) {
-        shapeRenderer.set(ShapeRenderer.ShapeType.Line);
-
-        int tileSize = MapScale.SURFACE.getPixelsPerTile();
-
-        for (int x = startX; x <= endX; x++) {
-            for (int y = startY; y <= endY; y++) {
-                renderTileBorders(tiles, x, y, tileSize, shapeRenderer);
-            }
+    private void renderCivilisationBorders(BaseMap<SurfaceMap.SurfaceTile> map, int level, int startX, int endX,
+                                           int startY, int endY, ShapeRenderer shapeRenderer) {
+        ChunkedTileStore tiles = map.getStore();
+        if (borderCache == null) {
+            borderCache = new BorderEdgeCache(tiles, MAX_BORDER_CHUNKS);
         }
-    }
-
-    private void renderTileBorders(SurfaceMap.SurfaceTile[][] tiles, int x, int y, int tileSize,
-                                   ShapeRenderer shapeRenderer) {
-        SurfaceMap.SurfaceTile tile = tiles[x][y];
-
-        if (tile.getOwner() == null) return;
-
-        renderTopBorder(tiles, x, y, tile, tileSize, shapeRenderer);
-        renderRightBorder(tiles, x, y, tile, tileSize, shapeRenderer);
-        renderBottomBorder(tiles, x, y, tile, tileSize, shapeRenderer);
-        renderLeftBorder(tiles, x, y, tile, tileSize, shapeRenderer);
-    }
-
-    private void renderTile(ShapeRenderer shapeRenderer, SurfaceMap.SurfaceTile tile, int x, int y, float tileSize) {
-        shapeRenderer.set(ShapeRenderer.ShapeType.Filled);
 
-        float tileX = x * tileSize;
-        float tileY = y * tileSize;
-        float tileHeight = tile.getHeight();
+        shapeRenderer.set(ShapeRenderer.ShapeType.Line);
 
-        Color finalColor;
-        if (tile.getTerrain() == TerrainType.WATER) {
-            Color heightShade = new Color(tileHeight, tileHeight, tileHeight, 1f);
-            finalColor = getTerrainColor(tile.getTerrain()).cpy();
-            finalColor.add(heightShade);
-        }
-        else if (tile.getTerrain() == TerrainType.MOUNTAIN) {
-            Color heightShade = new Color(tileHeight / 4, tileHeight / 4, tileHeight / 4, 1f);
-            finalColor = getTerrainColor(tile.getTerrain()).cpy();
-            finalColor.sub(heightShade);
-        }
-        else {
-            finalColor = getTerrainColor(tile.getTerrain()).cpy();
+        int cellSize = MapScale.SURFACE.getPixelsPerTile() << level;
+        int startCellX = startX >> level;
+        int endCellX = (endX >> level) + 1;
+        int startCellY = startY >> level;
+        int endCellY = (endY >> level) + 1;
+        int chunkSize = tiles.getChunkSize();
+
+        for (int chunkX = startX / chunkSize; chunkX <= endX / chunkSize; chunkX++) {
+            for (int chunkY = startY / chunkSize; chunkY <= endY / chunkSize; chunkY++) {
+                IntArray edges = borderCache.getEdges(chunkX, chunkY, level);
+                int[] items = edges.items;
+                int colorOwner = TileStore.NO_OWNER;
+
+                for (int i = 0; i < edges.size; i += BorderEdgeCache.EDGE_STRIDE) {
+                    int x0 = items[i + 1], y0 = items[i + 2], x1 = items[i + 3], y1 = items[i + 4];
+                    if (x1 < startCellX || x0 > endCellX || y1 < startCellY || y0 > endCellY) continue;
+
+                    if (items[i] != colorOwner) {
+                        colorOwner = items[i];
+                        shapeRenderer.setColor(map.getOwner((short) colorOwner).getColor());
+                    }
+                    shapeRenderer.line(x0 * cellSize, y0 * cellSize, x1 * cellSize, y1 * cellSize);
+                }
+            }
         }
-
-        shapeRenderer.setColor(finalColor);
-        shapeRenderer.rect(tileX, tileY, tileSize, tileSize);
     }
 
-    public void renderResources(SurfaceMap.SurfaceTile tile, int x, int y, ShapeRenderer shapeRenderer) {
-        if (camera.zoom > 4f) return;
-
+    public void renderResources(TileStore tiles, int index, int x, int y, ShapeRenderer shapeRenderer) {
         float tileSize = MapScale.SURFACE.getPixelsPerTile();
         float padding = 2f;
         float tileX = x * tileSize + padding;
         float tileY = y * tileSize + padding;
         float innerTileSize = tileSize - (padding * 2);
 
-        renderResourceDots(shapeRenderer, tile, tileX, tileY, innerTileSize);
+        renderResourceDots(shapeRenderer, tiles, index, tileX, tileY, innerTileSize);
     }
 
-    private void renderResourceDots(ShapeRenderer shapeRenderer, SurfaceMap.SurfaceTile tile,
+    private void renderResourceDots(ShapeRenderer shapeRenderer, TileStore tiles, int index,
                                     float tileX, float tileY, float innerTileSize) {
         int resourceSize = 4;
         float resourcePadding = 4f;
@@ -276,7 +281,7 @@ public class SurfaceMapRenderer implements IMapRenderer<SurfaceMap.SurfaceTile>
         float resourceY = tileY + resourcePadding;
 
         for (ResourceType type : ResourceType.values()) {
-            int quantity = tile.getResources().getResourceQuantity(type);
+            int quantity = tiles.getResourceQuantity(index, type);
             if (quantity == 0) continue;
 
             int dots = (quantity + 9) / 10;
@@ -294,65 +299,40 @@ public class SurfaceMapRenderer implements IMapRenderer<SurfaceMap.SurfaceTile>
         }
     }
 
-    private void renderTopBorder(SurfaceMap.SurfaceTile[][] tiles, int x, int y, SurfaceMap.SurfaceTile tile,
-                                 int tileSize, ShapeRenderer shapeRenderer) {
-        if (needsBorder(tiles, x, y + 1, tile)) {
-            drawLineColor(tile.getOwner().getColor(),
-                x * tileSize, (y + 1) * tileSize,
-                (x + 1) * tileSize, (y + 1) * tileSize,
-                shapeRenderer);
+    /**
+     * Picks the coarsest level of detail whose cells still cover {@code LOD_MIN_CELL_PIXELS} on screen,
+     * so the cells drawn per frame stay bounded however far the camera zooms out.
+     */
+    public static int selectLevel(float zoom, int pixelsPerTile) {
+        float tilePixels = pixelsPerTile / zoom;
+        int level = 0;
+        while (level < TilePyramid.LEVELS && tilePixels * (1 << level) < LOD_MIN_CELL_PIXELS) {
+            level++;
         }
+        return level;
     }
 
-    private void renderRightBorder(SurfaceMap.SurfaceTile[][] tiles, int x, int y, SurfaceMap.SurfaceTile tile,
-                                   int tileSize, ShapeRenderer shapeRenderer) {
-        if (needsBorder(tiles, x + 1, y, tile)) {
-            drawLineColor(tile.getOwner().getColor(),
-                (x + 1) * tileSize, y * tileSize,
-                (x + 1) * tileSize, (y + 1) * tileSize,
-                shapeRenderer);
+    @Override
+    public void dispose() {
+        if (terrainCache != null) {
+            terrainCache.dispose();
+            terrainCache = null;
         }
-    }
-
-    private void renderBottomBorder(SurfaceMap.SurfaceTile[][] tiles, int x, int y, SurfaceMap.SurfaceTile tile,
-                                    int tileSize, ShapeRenderer shapeRenderer) {
-        if (y > 0 && isDifferentOwner(tiles[x][y - 1], tile)) {
-            drawLineColor(tile.getOwner().getColor(),
-                x * tileSize, y * tileSize,
-                (x + 1) * tileSize, y * tileSize,
-                shapeRenderer);
+        if (borderCache != null) {
+            borderCache.clear();
+            borderCache = null;
         }
-    }
-
-    private void renderLeftBorder(SurfaceMap.SurfaceTile[][] tiles, int x, int y, SurfaceMap.SurfaceTile tile,
-                                  int tileSize, ShapeRenderer shapeRenderer) {
-        if (x > 0 && isDifferentOwner(tiles[x - 1][y], tile)) {
-            drawLineColor(tile.getOwner().getColor(),
-                x * tileSize, y * tileSize,
-                x * tileSize, (y + 1) * tileSize,
-                shapeRenderer);
+        if (gridOverlay != null) {
+            gridOverlay.dispose();
+            gridOverlay = null;
+        }
+        if (buildingCache != null) {
+            buildingCache.dispose();
+            buildingCache = null;
         }
-    }
-
-    private boolean needsBorder(SurfaceMap.SurfaceTile[][] tiles, int x, int y, SurfaceMap.SurfaceTile currentTile) {
-        return isWithinBounds(tiles, x, y) && isDifferentOwner(tiles[x][y], currentTile);
-    }
-
-    private boolean isWithinBounds(SurfaceMap.SurfaceTile[][] tiles, int x, int y) {
-        return x >= 0 && x < tiles.length && y >= 0 && y < tiles[0].length;
-    }
-
-    private boolean isDifferentOwner(SurfaceMap.SurfaceTile tile1, SurfaceMap.SurfaceTile tile2) {
-        return tile1 == null || tile1.getOwner() != tile2.getOwner();
-    }
-
-    private void drawLineColor(Color color, float x1, float y1, float x2, float y2, ShapeRenderer shapeRenderer) {
-        shapeRenderer.setColor(color);
-        shapeRenderer.line(x1, y1, x2, y2);
     }
 
     private void beginRenderShapes(ShapeRenderer shapeRenderer) {
-        shapeRenderer.setProjectionMatrix(camera.combined);
         shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
         shapeRenderer.setAutoShapeType(true);
     }
@@ -362,7 +342,6 @@ public class SurfaceMapRenderer implements IMapRenderer<SurfaceMap.SurfaceTile>
     }
 
     private void beginRenderSprites(SpriteBatch batch) {
-        batch.setProjectionMatrix(camera.combined);
         batch.begin();
     }
 
@@ -379,7 +358,10 @@ public class SurfaceMapRenderer implements IMapRenderer<SurfaceMap.SurfaceTile>
         Gdx.gl.glDisable(GL20.GL_BLEND);
     }
 
-    private ViewBounds calculateViewBounds(OrthographicCamera camera, float tileSize, SurfaceMap.SurfaceTile[][] tiles) {
+    /**
+     * Gets the tiles visible through a camera, padded by one tile and clipped to the map.
+     */
+    public static ViewBounds calculateViewBounds(OrthographicCamera camera, float tileSize, ChunkedTileStore tiles) {
         ViewBounds bounds = new ViewBounds();
 
         float leftX = camera.position.x - camera.viewportWidth / 2 * camera.zoom - tileSize;
@@ -388,25 +370,13 @@ public class SurfaceMapRenderer implements IMapRenderer<SurfaceMap.SurfaceTile>
         float topY = camera.position.y + camera.viewportHeight / 2 * camera.zoom + tileSize;
 
         bounds.startX = Math.max(0, (int) (leftX / tileSize));
-        bounds.endX = Math.min(tiles.length - 1, (int) (rightX / tileSize));
+        bounds.endX = Math.min(tiles.getWidth() - 1, (int) (rightX / tileSize));
         bounds.startY = Math.max(0, (int) (bottomY / tileSize));
-        bounds.endY = Math.min(tiles[0].length - 1, (int) (topY / tileSize));
+        bounds.endY = Math.min(tiles.getHeight() - 1, (int) (topY / tileSize));
 
         return bounds;
     }
 
-    private Color getTerrainColor(TerrainType terrain) {
-        return switch (terrain) {
-            case WATER -> WATER_COLOR;
-            case BEACH -> BEACH_COLOR;
-            case DESERT -> DESERT_COLOR;
-            case FOREST -> FOREST_COLOR;
-            case HILLS -> HILLS_COLOR;
-            case MOUNTAIN -> MOUNTAIN_COLOR;
-            case PLAINS -> PLAINS_COLOR;
-        };
-    }
-
     private Color getResourceColor(ResourceType type) {
         return switch (type) {
             case FOOD -> FOOD_COLOR;
@@ -0,0 +1,257 @@
+package org.lpc.map.maps;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import lombok.Getter;
+import lombok.NonNull;
+import org.lpc.map.ChunkedTileStore;
+import org.lpc.map.TilePyramid;
+import org.lpc.map.TileStore;
+import org.lpc.terrain.TerrainType;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Terrain colours of a {@link ChunkedTileStore} baked into one image per chunk with a texel per tile,
+ * or per cell of a coarser level of detail, so a frame draws a quad per visible chunk instead of a rectangle per
+ * visible tile. Chunks are baked on the CPU into pixmaps, and only again once the chunk or the level changed:
+ * a regenerated chunk is a new store, an edited one has a new terrain version.
+ * Textures are uploaded from the pixmaps when drawn after a bake.
+ * At most {@code capacity} chunks stay cached, the least recently used are dropped first.
+ * Only {@link #getTexture(int, int, int)} needs a GL context.
+ */
+public class TerrainChunkCache implements Disposable {
+    // Terrain colors
+    private static final Color WATER_COLOR       = new Color(0.1f, 0.3f, 0.5f, 1.0f); // Softer deep blue
+    private static final Color BEACH_COLOR       = new Color(0.8f, 0.7f, 0.5f, 1.0f); // More muted sandy
+    private static final Color DESERT_COLOR      = new Color(0.7f, 0.6f, 0.4f, 1.0f); // Softer muted tan
+    private static final Color FOREST_COLOR      = new Color(0.2f, 0.5f, 0.2f, 1.0f); // Softer dark green
+    private static final Color HILLS_COLOR       = new Color(0.4f, 0.3f, 0.2f, 1.0f); // Muted earthy brown
+    private static final Color MOUNTAIN_COLOR    = new Color(0.6f, 0.6f, 0.6f, 1.0f); // Softer neutral gray
+    private static final Color PLAINS_COLOR      = new Color(0.4f, 0.6f, 0.3f, 1.0f); // Softer olive green
+
+    private final ChunkedTileStore tiles;
+    @Getter private final int capacity;
+
+    // Per chunk slot, chunkX * chunksY + chunkY
+    private final Pixmap[] pixmaps;
+    private final Texture[] textures;
+    private final boolean[] uploaded;
+    private final TileStore[] bakedChunks;
+    private final int[] bakedVersions;
+    private final int[] bakedLevels;
+    private final long[] lastUse;
+    private final IntArray cached = new IntArray();
+    private long useClock;
+
+    // Number of bakes so far, for telling cache hits from rebuilds
+    @Getter private long bakeCount;
+
+    public TerrainChunkCache(@NonNull ChunkedTileStore tiles, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Terrain cache must hold at least one chunk: " + capacity);
+        }
+
+        int slots = tiles.getChunksX() * tiles.getChunksY();
+        this.tiles = tiles;
+        this.capacity = capacity;
+        this.pixmaps = new Pixmap[slots];
+        this.textures = new Texture[slots];
+        this.uploaded = new boolean[slots];
+        this.bakedChunks = new TileStore[slots];
+        this.bakedVersions = new int[slots];
+        this.bakedLevels = new int[slots];
+        this.lastUse = new long[slots];
+    }
+
+    /**
+     * Bakes a chunk at full detail unless its image is up to date.
+     * @return Whether the chunk was baked
+     */
+    public boolean refresh(int chunkX, int chunkY) {
+        return refresh(chunkX, chunkY, 0);
+    }
+
+    /**
+     * Bakes a chunk at a level of detail unless its image is up to date.
+     * @return Whether the chunk was baked
+     */
+    public boolean refresh(int chunkX, int chunkY, int level) {
+        int slot = chunkX * tiles.getChunksY() + chunkY;
+        lastUse[slot] = ++useClock;
+
+        TileStore chunk = tiles.getChunkAt(chunkX, chunkY);
+        if (pixmaps[slot] != null && bakedChunks[slot] == chunk && bakedLevels[slot] == level
+            && bakedVersions[slot] == chunk.getTerrainVersion()) {
+            return false;
+        }
+
+        int width = level == 0 ? chunk.getWidth() : chunk.getPyramid().getWidth(level);
+        int height = level == 0 ? chunk.getHeight() : chunk.getPyramid().getHeight(level);
+        if (pixmaps[slot] == null) {
+            cached.add(slot);
+            if (cached.size > capacity) {
+                evictLeastRecentlyUsed(slot);
+            }
+        } else if (pixmaps[slot].getWidth() != width || pixmaps[slot].getHeight() != height) {
+            disposeImages(slot);
+        }
+        if (pixmaps[slot] == null) {
+            pixmaps[slot] = new Pixmap(width, height, Pixmap.Format.RGBA8888);
+        }
+
+        bake(chunk, level, pixmaps[slot]);
+        bakedChunks[slot] = chunk;
+        bakedVersions[slot] = chunk.getTerrainVersion();
+        bakedLevels[slot] = level;
+        uploaded[slot] = false;
+        bakeCount++;
+        return true;
+    }
+
+    /**
+     * Gets the up to date full detail image of a chunk, texel (x, y) holds the tile at local x and height - 1 - y.
+     */
+    public Pixmap getPixmap(int chunkX, int chunkY) {
+        return getPixmap(chunkX, chunkY, 0);
+    }
+
+    /**
+     * Gets the up to date image of a chunk at a level of detail, a texel per cell, rows top down.
+     */
+    public Pixmap getPixmap(int chunkX, int chunkY, int level) {
+        refresh(chunkX, chunkY, level);
+        return pixmaps[chunkX * tiles.getChunksY() + chunkY];
+    }
+
+    /**
+     * Gets the up to date texture of a chunk at a level of detail, uploading the image if it changed.
+     */
+    public Texture getTexture(int chunkX, int chunkY, int level) {
+        refresh(chunkX, chunkY, level);
+
+        int slot = chunkX * tiles.getChunksY() + chunkY;
+        if (!uploaded[slot]) {
+            if (textures[slot] == null) {
+                textures[slot] = new Texture(pixmaps[slot]);
+                textures[slot].setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+            } else {
+                textures[slot].draw(pixmaps[slot], 0, 0);
+            }
+            uploaded[slot] = true;
+        }
+        return textures[slot];
+    }
+
+    public int getCachedChunkCount() {
+        return cached.size;
+    }
+
+    /**
+     * Writes the colour of every tile of a chunk into a pixmap of the same size, rows top down.
+     */
+    public static void bake(@NonNull TileStore chunk, @NonNull Pixmap pixmap) {
+        bake(chunk, 0, pixmap);
+    }
+
+    /**
+     * Writes the colour of every cell of a level of detail of a chunk into a pixmap of the same size, rows top down.
+     */
+    public static void bake(@NonNull TileStore chunk, int level, @NonNull Pixmap pixmap) {
+        TilePyramid pyramid = level == 0 ? null : chunk.getPyramid();
+        int width = level == 0 ? chunk.getWidth() : pyramid.getWidth(level);
+        int height = level == 0 ? chunk.getHeight() : pyramid.getHeight(level);
+        if (pixmap.getWidth() != width || pixmap.getHeight() != height || pixmap.getFormat() != Pixmap.Format.RGBA8888) {
+            throw new IllegalArgumentException("Pixmap does not match a " + width + "x" + height + " RGBA8888 image");
+        }
+
+        ByteBuffer pixels = pixmap.getPixels();
+        for (int x = 0; x < width; x++) {
+            int index = x * height;
+            for (int y = 0; y < height; y++, index++) {
+                int color = level == 0
+                    ? terrainColor(chunk.getTerrain(index), chunk.getHeight(index))
+                    : terrainColor(pyramid.getTerrain(level, x, y), pyramid.getHeight(level, x, y));
+                int offset = ((height - 1 - y) * width + x) * 4;
+                pixels.put(offset, (byte) (color >>> 24));
+                pixels.put(offset + 1, (byte) (color >>> 16));
+                pixels.put(offset + 2, (byte) (color >>> 8));
+                pixels.put(offset + 3, (byte) color);
+            }
+        }
+    }
+
+    /**
+     * Gets the opaque RGBA8888 colour of a tile. Water lightens and mountains darken with height.
+     */
+    public static int terrainColor(@NonNull TerrainType terrain, float height) {
+        Color base = getTerrainColor(terrain);
+        float shade = switch (terrain) {
+            case WATER -> height;
+            case MOUNTAIN -> -height / 4;
+            default -> 0f;
+        };
+        return Color.rgba8888(
+            MathUtils.clamp(base.r + shade, 0f, 1f),
+            MathUtils.clamp(base.g + shade, 0f, 1f),
+            MathUtils.clamp(base.b + shade, 0f, 1f),
+            1f
+        );
+    }
+
+    private static Color getTerrainColor(TerrainType terrain) {
+        return switch (terrain) {
+            case WATER -> WATER_COLOR;
+            case BEACH -> BEACH_COLOR;
+            case DESERT -> DESERT_COLOR;
+            case FOREST -> FOREST_COLOR;
+            case HILLS -> HILLS_COLOR;
+            case MOUNTAIN -> MOUNTAIN_COLOR;
+            case PLAINS -> PLAINS_COLOR;
+        };
+    }
+
+    private void evictLeastRecentlyUsed(int keepSlot) {
+        int victim = -1;
+        long oldest = Long.MAX_VALUE;
+
+        for (int i = 0; i < cached.size; i++) {
+            int slot = cached.get(i);
+            if (slot != keepSlot && lastUse[slot] < oldest) {
+                oldest = lastUse[slot];
+                victim = i;
+            }
+        }
+
+        if (victim >= 0) {
+            release(cached.removeIndex(victim));
+        }
+    }
+
+    private void release(int slot) {
+        disposeImages(slot);
+        bakedChunks[slot] = null;
+        uploaded[slot] = false;
+    }
+
+    private void disposeImages(int slot) {
+        pixmaps[slot].dispose();
+        pixmaps[slot] = null;
+        if (textures[slot] != null) {
+            textures[slot].dispose();
+            textures[slot] = null;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        for (int i = 0; i < cached.size; i++) {
+            release(cached.get(i));
+        }
+        cached.clear();
+    }
+}
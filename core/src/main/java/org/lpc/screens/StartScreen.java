@@ -2,11 +2,14 @@ package org.lpc.screens;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.actions.Actions;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Scaling;
@@ -14,6 +17,7 @@ import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.lpc.MainGame;
+import org.lpc.map.GenerationProgress;
 
 import javax.swing.*;
 
@@ -25,6 +29,10 @@ public class StartScreen implements Screen {
 
     private final MainGame game;
     private Stage stage;
+    private BitmapFont progressFont;
+    private Label progressLabel;
+    private Image pressSpaceImage;
+    private boolean pressSpaceShown;
 
     public StartScreen(final MainGame game) {
         LOGGER.info("Start screen created");
@@ -45,16 +53,18 @@ public class StartScreen implements Screen {
 
         Image backgroundImage = createImage("menu/background.png", Scaling.fill);
         Image titleImage = createImage("menu/start/legacy_white.png", Scaling.none);
-        Image pressSpaceImage = createImage("menu/start/press_space_2.png", Scaling.none);
+        pressSpaceImage = createImage("menu/start/press_space_2.png", Scaling.none);
         pressSpaceImage.getColor().a = 0;
+        pressSpaceShown = false;
 
-        Table table = createMainTable(titleImage, pressSpaceImage);
+        progressFont = new BitmapFont();
+        progressLabel = new Label("", new Label.LabelStyle(progressFont, Color.WHITE));
+
+        Table table = createMainTable(titleImage, pressSpaceImage, progressLabel);
         Table backgroundTable = createBackgroundTable(backgroundImage);
 
         stage.addActor(backgroundTable);
         stage.addActor(table);
-
-        animatePressSpaceImage(pressSpaceImage);
     }
 
     private Image createImage(String texturePath, Scaling scaling) {
@@ -64,12 +74,13 @@ public class StartScreen implements Screen {
         return image;
     }
 
-    private Table createMainTable(Image titleImage, Image pressSpaceImage) {
+    private Table createMainTable(Image titleImage, Image pressSpaceImage, Label progressLabel) {
         Table table = new Table();
         table.top().center();
         table.setFillParent(true);
         table.add(titleImage).padTop(0).padLeft(20).padRight(20).row();
         table.add(pressSpaceImage).padTop(120).row();
+        table.add(progressLabel).padTop(20).row();
         return table;
     }
 
@@ -91,6 +102,7 @@ public class StartScreen implements Screen {
     @Override
     public void render(float delta) {
         clearScreen();
+        updateProgress();
         checkInput();
         stage.act(Math.min(Gdx.graphics.getDeltaTime(), 1 / 30f));
         stage.draw();
@@ -101,8 +113,27 @@ public class StartScreen implements Screen {
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
     }
 
+    private void updateProgress() {
+        if (game.isWorldReady()) {
+            if (!pressSpaceShown) {
+                pressSpaceShown = true;
+                progressLabel.setText("");
+                animatePressSpaceImage(pressSpaceImage);
+            }
+            return;
+        }
+
+        if (game.getWorldLoader().isFailed()) {
+            progressLabel.setText("World generation failed: " + game.getWorldLoader().getFailure().getMessage());
+            return;
+        }
+
+        GenerationProgress progress = game.getWorldLoader().getProgress();
+        progressLabel.setText(progress.getPhase().getDescription() + "... " + progress.getPercentage() + "%");
+    }
+
     private void checkInput() {
-        if (Gdx.input.isKeyJustPressed(SPACE)) {
+        if (Gdx.input.isKeyJustPressed(SPACE) && game.isWorldReady()) {
             game.setScreen(game.getGameScreen());
         }
         if (Gdx.input.isKeyJustPressed(F11)) {
@@ -129,6 +160,7 @@ public class StartScreen implements Screen {
     public void dispose() {
         LOGGER.info("Start screen disposed");
         stage.dispose();
+        progressFont.dispose();
     }
 
     @Override
@@ -1,16 +1,18 @@
 package org.lpc.terrain.buildings;
 
-import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.Sprite;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.javatuples.Pair;
+import org.lpc.civilisation.Civilisation;
 import org.lpc.map.BaseMap;
 import org.lpc.map.maps.SurfaceMap;
+import org.lpc.terrain.resources.ResourceNode;
+import org.lpc.terrain.resources.ResourceSink;
 import org.lpc.terrain.resources.ResourceType;
+import org.lpc.utility.TickScheduler;
 
 import java.util.Optional;
 
@@ -20,32 +22,97 @@ public abstract class BaseBuilding {
     protected static final Logger LOGGER = LogManager.getLogger(BaseBuilding.class);
 
     @NonNull protected final BuildingFunctionality type;
-    @NonNull protected final Sprite sprite;
+    @NonNull protected final BuildingRegion region;
     @NonNull protected final SurfaceMap.SurfaceTile tile;
     protected final int maxHealth;
     protected int health;
 
+    // Set when the building is placed. Buildings keep their owner and resource view so harvesting,
+    // which runs in the parallel civilisation phase, never goes through the shared chunk cache
+    private Civilisation owner;
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private final ResourceNode resources;
+
     public BaseBuilding(
         @NonNull BuildingFunctionality functionality,
         int health,
-        @NonNull Sprite sprite,
+        @NonNull BuildingRegion region,
         @NonNull SurfaceMap.SurfaceTile tile
     ) {
         validateHealth(health);
         this.type = functionality;
         this.health = health;
         this.maxHealth = health;
-        this.sprite = sprite;
+        this.region = region;
         this.tile = tile;
+        this.resources = tile.getResources();
+    }
+
+    /**
+     * Starts the scheduled work of the building once it is placed on the map.
+     */
+    public void start(@NonNull TickScheduler scheduler) {
+        // Default no-op implementation
     }
 
-    public abstract boolean canHarvestResources();
+    /**
+     * Stops the scheduled work of the building when it is removed from the map.
+     */
+    public void stop() {
+        // Default no-op implementation
+    }
 
     public void update() {
         // Default no-op implementation
     }
 
-    public abstract Pair<ResourceType, Integer> harvestResources();
+    /**
+     * Harvests the resource of the tile into a sink.
+     * @return Amount harvested, 0 once the tile has nothing left to give
+     */
+    public abstract int harvestResources(@NonNull ResourceSink sink);
+
+    /**
+     * Harvests the tile into the stockpile of the civilisation owning the building.
+     * Resources do not grow back, so a harvest that yields nothing means the building is exhausted and is deactivated.
+     */
+    protected void harvest() {
+        ResourceSink sink = owner != null ? owner.getResourceHandler() : ResourceSink.DISCARD;
+
+        if (harvestResources(sink) == 0) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("{} at {} is exhausted", getClass().getSimpleName(), tile.getPosition());
+            }
+            deactivate();
+        }
+    }
+
+    /**
+     * Harvests a share of what is left of a resource on the tile.
+     * @return Amount harvested
+     */
+    protected int harvestShare(ResourceType type, float rate, ResourceSink sink) {
+        int amount = (int) (resources.getResourceQuantity(type) * rate);
+        if (amount == 0) {
+            return 0;
+        }
+
+        int harvested = resources.harvestResource(type, amount);
+        sink.addResource(type, harvested);
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Harvested {} {} with {}", harvested, type, getClass().getSimpleName());
+        }
+        return harvested;
+    }
+
+    private void deactivate() {
+        if (owner != null) {
+            owner.getTerritoryHandler().deactivateBuilding(this);
+        } else {
+            stop();
+        }
+    }
 
     public Optional<Integer> getProgressPercentage() {
         return Optional.empty();
@@ -59,7 +126,12 @@ public abstract class BaseBuilding {
         if (damage < 0) {
             throw new IllegalArgumentException("Damage cannot be negative");
         }
+        boolean wasDestroyed = isDestroyed();
         health = Math.max(health - damage, 0);
+
+        if (!wasDestroyed && isDestroyed()) {
+            deactivate();
+        }
     }
 
     public void repair(int repairAmount) {
@@ -0,0 +1,21 @@
+package org.lpc.terrain.buildings;
+
+import lombok.Getter;
+
+/**
+ * Art of a building, the name of its region in the building texture atlas.
+ * Buildings only keep this id, the renderer resolves it to the shared atlas region.
+ */
+@Getter
+public enum BuildingRegion {
+    FARM("farm"),
+    SAWMILL("sawmill");
+
+    public static final String ATLAS_PATH = "textures/buildings.atlas";
+
+    private final String regionName;
+
+    BuildingRegion(String regionName) {
+        this.regionName = regionName;
+    }
+}
@@ -0,0 +1,14 @@
+package org.lpc.terrain.resources;
+
+/**
+ * Told about quantity changes of a {@link ResourceNode}, so indexes over many nodes can stay up to date.
+ */
+@FunctionalInterface
+public interface ResourceListener {
+    /**
+     * @param offset Offset of the node in its backing array
+     * @param type Resource type that changed
+     * @param delta Change of the stored quantity, never 0
+     */
+    void resourceChanged(int offset, ResourceType type, int delta);
+}
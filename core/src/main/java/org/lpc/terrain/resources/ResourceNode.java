@@ -1,16 +1,42 @@
 package org.lpc.terrain.resources;
 
+import org.lpc.map.TileStore;
+
 import java.util.*;
 
+/**
+ * Resource quantities of a single tile.
+ * A node either owns its quantities or is a view into the resource column of a {@link TileStore}.
+ */
 public class ResourceNode {
-    private final EnumMap<ResourceType, Integer> resources;
+    private static final ResourceType[] TYPES = ResourceType.values();
+
+    private final short[] resources;
+    private final int offset;
+    private final ResourceListener listener;
 
     public ResourceNode() {
-        this.resources = new EnumMap<>(ResourceType.class);
-        // Initialize all resource types with zero quantity
-        for (ResourceType type : ResourceType.values()) {
-            resources.put(type, 0);
-        }
+        // All resource types start with zero quantity
+        this(new short[TYPES.length], 0);
+    }
+
+    /**
+     * Creates a view over an existing quantity array
+     * @param resources Backing array holding one entry per resource type
+     * @param offset Index of this node's first resource type in the array
+     */
+    public ResourceNode(short[] resources, int offset) {
+        this(resources, offset, null);
+    }
+
+    /**
+     * Creates a view over an existing quantity array that reports every change
+     * @param listener Told about every quantity that changes through this node, may be null
+     */
+    public ResourceNode(short[] resources, int offset, ResourceListener listener) {
+        this.resources = Objects.requireNonNull(resources, "Resource array cannot be null");
+        this.offset = offset;
+        this.listener = listener;
     }
 
     /**
@@ -20,7 +46,7 @@ public class ResourceNode {
      */
     public void addResource(ResourceType type, int quantity) {
         validatePositiveQuantity(quantity);
-        resources.put(type, resources.get(type) + quantity);
+        set(type, get(type) + quantity);
     }
 
     /**
@@ -29,9 +55,9 @@ public class ResourceNode {
      */
     public List<ResourceType> getAvailableResources() {
         List<ResourceType> available = new ArrayList<>();
-        for (Map.Entry<ResourceType, Integer> entry : resources.entrySet()) {
-            if (entry.getValue() > 0) {
-                available.add(entry.getKey());
+        for (ResourceType type : TYPES) {
+            if (get(type) > 0) {
+                available.add(type);
             }
         }
         return Collections.unmodifiableList(available);
@@ -42,18 +68,18 @@ public class ResourceNode {
      */
     public int getDifferentResourceCount() {
         int count = 0;
-        for (int quantity : resources.values()) {
-            if (quantity > 0) count++;
+        for (ResourceType type : TYPES) {
+            if (get(type) > 0) count++;
         }
         return count;
     }
 
     public int getResourceQuantity(ResourceType type) {
-        return resources.get(type);
+        return get(type);
     }
 
     public boolean isDepleted(ResourceType type) {
-        return resources.get(type) <= 0;
+        return get(type) <= 0;
     }
 
     /**
@@ -63,7 +89,7 @@ public class ResourceNode {
      */
     public int harvestResource(ResourceType type, int amount) {
         validatePositiveQuantity(amount);
-        int available = resources.get(type);
+        int available = get(type);
 
         if (available < amount) {
             throw new IllegalArgumentException(String.format(
@@ -73,7 +99,7 @@ public class ResourceNode {
         }
 
         if (!type.isRenewable()) {
-            resources.put(type, available - amount);
+            set(type, available - amount);
         }
         return amount;
     }
@@ -84,7 +110,7 @@ public class ResourceNode {
      */
     public int calculateHarvestableAmount(ResourceType type, int requestedAmount) {
         validatePositiveQuantity(requestedAmount);
-        int available = resources.get(type);
+        int available = get(type);
         return Math.min(available, requestedAmount);
     }
 
@@ -94,9 +120,22 @@ public class ResourceNode {
      */
     public int replenishResource(ResourceType type, int amount) {
         validatePositiveQuantity(amount);
-        int newTotal = resources.get(type) + amount;
-        resources.put(type, newTotal);
-        return newTotal;
+        set(type, get(type) + amount);
+        return get(type);
+    }
+
+    private int get(ResourceType type) {
+        return resources[offset + type.ordinal()];
+    }
+
+    private void set(ResourceType type, int quantity) {
+        int slot = offset + type.ordinal();
+        short previous = resources[slot];
+        resources[slot] = TileStore.saturate(quantity);
+
+        if (listener != null && resources[slot] != previous) {
+            listener.resourceChanged(offset, type, resources[slot] - previous);
+        }
     }
 
     private void validatePositiveQuantity(int quantity) {
@@ -118,7 +157,7 @@ public class ResourceNode {
         String format = "- %-" + (maxNameLength + 2) + "s: %6d%n";
 
         for (ResourceType type : ResourceType.values()) {
-            sb.append(String.format(format, type, resources.get(type)));
+            sb.append(String.format(format, type, get(type)));
         }
 
         return sb.toString();
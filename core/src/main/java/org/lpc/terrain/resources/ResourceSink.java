@@ -0,0 +1,15 @@
+package org.lpc.terrain.resources;
+
+/**
+ * Receives harvested resources.
+ * Amounts are passed as primitives so handing over a harvest allocates nothing.
+ */
+@FunctionalInterface
+public interface ResourceSink {
+    /**
+     * Sink for harvests nobody collects, such as from a building on unowned land.
+     */
+    ResourceSink DISCARD = (type, amount) -> { };
+
+    void addResource(ResourceType type, int amount);
+}
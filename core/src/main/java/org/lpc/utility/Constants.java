@@ -11,14 +11,31 @@ public class Constants {
     public static final float MAX_ZOOM      = 15.0f;
 
     // Map
-    public static final int SURFACE_MAP_WIDTH  = 300;
-    public static final int SURFACE_MAP_HEIGHT = 300;
+    public static final int SURFACE_MAP_WIDTH   = 300;
+    public static final int SURFACE_MAP_HEIGHT  = 300;
+    public static final int CHUNK_SIZE          = 64;
+    public static final int MAX_RESIDENT_CHUNKS = 256; // ~27 MB of tile data at 64x64 tiles per chunk
+    public static final int PRELOAD_RADIUS      = 3 * CHUNK_SIZE; // Tiles around the map centre generated before the game starts
+
+    // Rendering
+    public static final int MAX_TERRAIN_TEXTURES = 64; // Baked chunk terrain, 16 KB of texture per 64x64 chunk
+    public static final int MAX_BORDER_CHUNKS    = 256; // Chunks with merged border edges kept for drawing
+    public static final int LOD_MIN_CELL_PIXELS  = 16; // Smallest on-screen size of a tile or level of detail cell
+    public static final int GRID_FADE_PIXELS     = 32; // Grid cells smaller than this on screen are drawn fainter
+    public static final int GRID_MAX_LINES       = 512; // Lines per direction in the prebuilt grid meshes
+    public static final int MAX_CACHED_BUILDINGS = 8191; // Building sprites cached for drawing, the most a SpriteCache holds
 
     // Window
     public static final int WINDOW_WIDTH            = 1000;
     public static final int WINDOW_HEIGHT           = 600;
     public static final boolean START_FULLSCREEN    = false;
 
+    // Game time, the tick delays below are written against it
+    public static final int TICKS_PER_GAME_SECOND = 20;
+
+    // Economy
+    public static final int RESOURCE_HISTORY_SECONDS = 60;
+
     // Building delays
     public static final int SAWMILL_HARVEST_DELAY_TICKS = 20 * 20; // 20 seconds
     public static final int FARM_HARVEST_DELAY_TICKS    = 20 * 8; // 8 seconds
@@ -30,4 +47,12 @@ public class Constants {
     // Population delays
     public static final int POPULATION_CHANGE_DELAY_TICKS           = 20 * 12; // 12 seconds
     public static final int POPULATION_FOOD_CONSUMPTION_DELAY_TICKS = 20 * 12; // 12 seconds
+
+    // Expansion
+    public static final int EXPANSION_DELAY_TICKS             = 20 * 4; // 4 seconds
+    public static final int EXPANSION_POPULATION_PER_TILE     = 2; // People needed to hold a tile
+    public static final int EXPANSION_POPULATION_PER_CLAIM    = 50; // Tiles claimed per expansion grow with population
+    public static final float EXPANSION_TERRAIN_WEIGHT        = 100f; // Score per unit of terrain movement modifier
+    public static final float EXPANSION_RESOURCE_WEIGHT       = 0.5f; // Score per unit of resources on the tile
+    public static final float EXPANSION_DISTANCE_WEIGHT       = 10f; // Score lost per tile away from the core
 }
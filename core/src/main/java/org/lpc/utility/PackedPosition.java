@@ -0,0 +1,32 @@
+package org.lpc.utility;
+
+/**
+ * Grid coordinates packed into a single long, x in the high half and y in the low half.
+ * Lets hot paths keep positions in primitive arrays, sets and maps instead of allocating {@link Position}s.
+ */
+public class PackedPosition {
+    private PackedPosition() { throw new IllegalStateException("Utility class for packed coordinates"); }
+
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    public static int x(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    public static int y(long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * Spreads a packed position over all bits, for tables indexed by the top bits of the hash.
+     */
+    static long hash(long packed) {
+        return packed * 0x9E3779B97F4A7C15L;
+    }
+
+    public static String toString(long packed) {
+        return "[" + x(packed) + "," + y(packed) + "]";
+    }
+}
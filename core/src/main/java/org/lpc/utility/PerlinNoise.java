@@ -1,8 +1,7 @@
 package org.lpc.utility;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 
 public class PerlinNoise {
     private static final int[] PERMUTATION = { 151,160,137,91,90,15,131,13,201,95,
@@ -23,15 +22,23 @@ public class PerlinNoise {
 
     private final int[] p = new int[512];
 
-    public PerlinNoise() {
-        List<Integer> permutationList = new ArrayList<>();
-        for (int i = 0; i < 256; i++) {
-            permutationList.add(PERMUTATION[i]);
+    /**
+     * @param seed Seed of the permutation shuffle, equal seeds give equal noise
+     */
+    public PerlinNoise(long seed) {
+        int[] permutation = PERMUTATION.clone();
+        SplittableRandom random = new SplittableRandom(seed);
+
+        // Fisher-Yates shuffle
+        for (int i = permutation.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = swap;
         }
-        Collections.shuffle(permutationList);
 
         for (int i = 0; i < 256; i++) {
-            p[256 + i] = p[i] = permutationList.get(i);
+            p[256 + i] = p[i] = permutation[i];
         }
     }
 
@@ -69,15 +76,202 @@ public class PerlinNoise {
         return total / maxAmplitude; // Normalize to [0,1]
     }
 
-    public double smoothNoise(double x, double y, int octaves, double persistence, double scale, double smoothing) {
-        double rawNoise = octaveNoise(x, y, octaves, persistence, scale);
-        return Math.pow(rawNoise, smoothing); // Adjusts sharpness or smoothness
+    /**
+     * Adjusts sharpness or smoothness of a raw octave noise value
+     */
+    public static double smooth(double rawNoise, double smoothing) {
+        if (smoothing == 1.5) {
+            return rawNoise * Math.sqrt(rawNoise); // Common case, much cheaper than pow
+        }
+        return Math.pow(rawNoise, smoothing);
+    }
+
+    /**
+     * Turns a raw octave noise value into a river value
+     */
+    public static double river(double rawNoise) {
+        double riverValue = Math.abs(rawNoise - 0.5); // Creates paths where the noise is close to 0.5
+        return riverValue * riverValue; // Narrows the river
+    }
+
+    /**
+     * Batch version of {@link #octaveNoise} for a block of integer grid coordinates.
+     * Fills {@code out[i * height + j]} with the octave noise at {@code (originX + i, originY + j)},
+     * giving the same values as calling octaveNoise point by point.
+     */
+    public void octaveNoiseBlock(int originX, int originY, int width, int height,
+                                 int octaves, double persistence, double scale, double[] out) {
+        octaveNoiseBlock(originX, originY, width, height, octaves, scale,
+            new double[] { persistence }, new double[][] { out });
     }
 
-    public double riverNoise(double x, double y, int octaves, double persistence, double scale) {
-        double riverValue = octaveNoise(x, y, octaves, persistence, scale);
-        riverValue = Math.abs(riverValue - 0.5); // Creates paths where the noise is close to 0.5
-        return Math.pow(riverValue, 2); // Narrows the river
+    /**
+     * Float version of {@link #octaveNoiseBlock(int, int, int, int, int, double, double, double[])}.
+     */
+    public void octaveNoiseBlock(int originX, int originY, int width, int height,
+                                 int octaves, float persistence, double scale, float[] out) {
+        octaveNoiseBlock(originX, originY, width, height, octaves, scale,
+            new float[] { persistence }, new float[][] { out });
+    }
+
+    /**
+     * Evaluates one octave stack over a block and accumulates it into several layers at once.
+     * Layers sampling the same noise at the same frequencies only differ in how octaves are weighted,
+     * so each noise sample is computed once and added to every layer with that layer's amplitude.
+     * Lattice coordinates, offsets and fade weights are hoisted per row and per column,
+     * leaving only the permutation lookups and gradients in the inner loop.
+     *
+     * @param persistences Persistence of each layer
+     * @param outs Output of each layer, at least {@code width * height} long, laid out column by column
+     */
+    public void octaveNoiseBlock(int originX, int originY, int width, int height,
+                                 int octaves, double scale, double[] persistences, double[][] outs) {
+        int layers = persistences.length;
+        int size = width * height;
+
+        if (outs.length != layers) {
+            throw new IllegalArgumentException("Expected " + layers + " output layers, got " + outs.length);
+        }
+
+        double[] amplitudes = new double[layers];
+        double[] maxAmplitudes = new double[layers];
+        for (int layer = 0; layer < layers; layer++) {
+            amplitudes[layer] = 1;
+            Arrays.fill(outs[layer], 0, size, 0);
+        }
+
+        int[] rowLattice = new int[height];
+        double[] rowOffset = new double[height];
+        double[] rowFade = new double[height];
+
+        double frequency = 1;
+        for (int octave = 0; octave < octaves; octave++) {
+            for (int j = 0; j < height; j++) {
+                double sampleY = (originY + j) * frequency * scale;
+                double floorY = Math.floor(sampleY);
+                rowLattice[j] = (int) floorY & 255;
+                rowOffset[j] = sampleY - floorY;
+                rowFade[j] = fade(rowOffset[j]);
+            }
+
+            for (int i = 0; i < width; i++) {
+                double sampleX = (originX + i) * frequency * scale;
+                double floorX = Math.floor(sampleX);
+                int latticeX = (int) floorX & 255;
+                double x = sampleX - floorX;
+                double u = fade(x);
+                int pX = p[latticeX];
+                int pX1 = p[latticeX + 1];
+                int column = i * height;
+
+                for (int j = 0; j < height; j++) {
+                    double y = rowOffset[j];
+                    int A = pX + rowLattice[j];
+                    int B = pX1 + rowLattice[j];
+
+                    double sample = lerp(rowFade[j], lerp(u, grad(p[A], x, y), grad(p[B], x - 1, y)),
+                        lerp(u, grad(p[A + 1], x, y - 1), grad(p[B + 1], x - 1, y - 1)));
+
+                    for (int layer = 0; layer < layers; layer++) {
+                        outs[layer][column + j] += sample * amplitudes[layer];
+                    }
+                }
+            }
+
+            for (int layer = 0; layer < layers; layer++) {
+                maxAmplitudes[layer] += amplitudes[layer];
+                amplitudes[layer] *= persistences[layer];
+            }
+            frequency *= 2;
+        }
+
+        for (int layer = 0; layer < layers; layer++) {
+            double[] out = outs[layer];
+            double maxAmplitude = maxAmplitudes[layer];
+            for (int k = 0; k < size; k++) {
+                out[k] /= maxAmplitude;
+            }
+        }
+    }
+
+    /**
+     * Float version of the multi-layer {@link #octaveNoiseBlock(int, int, int, int, int, double, double[], double[][])},
+     * for callers that store their layers as floats anyway. Sample positions and lattice indices are still worked
+     * out in double precision per row and column, so large coordinates keep their fractional part; only the
+     * offsets within a lattice cell, the gradients and the accumulated layers are floats.
+     * Results differ from the double version by rounding only.
+     *
+     * @param persistences Persistence of each layer
+     * @param outs Output of each layer, at least {@code width * height} long, laid out column by column
+     */
+    public void octaveNoiseBlock(int originX, int originY, int width, int height,
+                                 int octaves, double scale, float[] persistences, float[][] outs) {
+        int layers = persistences.length;
+        int size = width * height;
+
+        if (outs.length != layers) {
+            throw new IllegalArgumentException("Expected " + layers + " output layers, got " + outs.length);
+        }
+
+        float[] amplitudes = new float[layers];
+        float[] maxAmplitudes = new float[layers];
+        for (int layer = 0; layer < layers; layer++) {
+            amplitudes[layer] = 1;
+            Arrays.fill(outs[layer], 0, size, 0);
+        }
+
+        int[] rowLattice = new int[height];
+        float[] rowOffset = new float[height];
+        float[] rowFade = new float[height];
+
+        double frequency = 1;
+        for (int octave = 0; octave < octaves; octave++) {
+            for (int j = 0; j < height; j++) {
+                double sampleY = (originY + j) * frequency * scale;
+                double floorY = Math.floor(sampleY);
+                rowLattice[j] = (int) floorY & 255;
+                rowOffset[j] = (float) (sampleY - floorY);
+                rowFade[j] = fade(rowOffset[j]);
+            }
+
+            for (int i = 0; i < width; i++) {
+                double sampleX = (originX + i) * frequency * scale;
+                double floorX = Math.floor(sampleX);
+                int latticeX = (int) floorX & 255;
+                float x = (float) (sampleX - floorX);
+                float u = fade(x);
+                int pX = p[latticeX];
+                int pX1 = p[latticeX + 1];
+                int column = i * height;
+
+                for (int j = 0; j < height; j++) {
+                    float y = rowOffset[j];
+                    int A = pX + rowLattice[j];
+                    int B = pX1 + rowLattice[j];
+
+                    float sample = lerp(rowFade[j], lerp(u, grad(p[A], x, y), grad(p[B], x - 1, y)),
+                        lerp(u, grad(p[A + 1], x, y - 1), grad(p[B + 1], x - 1, y - 1)));
+
+                    for (int layer = 0; layer < layers; layer++) {
+                        outs[layer][column + j] += sample * amplitudes[layer];
+                    }
+                }
+            }
+
+            for (int layer = 0; layer < layers; layer++) {
+                maxAmplitudes[layer] += amplitudes[layer];
+                amplitudes[layer] *= persistences[layer];
+            }
+            frequency *= 2;
+        }
+
+        for (int layer = 0; layer < layers; layer++) {
+            float[] out = outs[layer];
+            float maxAmplitude = maxAmplitudes[layer];
+            for (int k = 0; k < size; k++) {
+                out[k] /= maxAmplitude;
+            }
+        }
     }
 
     private double fade(double t) {
@@ -94,4 +288,19 @@ public class PerlinNoise {
         double v = h < 2 ? y : x;
         return ((h & 1) == 0 ? u : -u) + ((h & 2) == 0 ? v : -v);
     }
+
+    private float fade(float t) {
+        return t * t * t * (t * (t * 6 - 15) + 10);
+    }
+
+    private float lerp(float t, float a, float b) {
+        return a + t * (b - a);
+    }
+
+    private float grad(int hash, float x, float y) {
+        int h = hash & 3;
+        float u = h < 2 ? x : y;
+        float v = h < 2 ? y : x;
+        return ((h & 1) == 0 ? u : -u) + ((h & 2) == 0 ? v : -v);
+    }
 }
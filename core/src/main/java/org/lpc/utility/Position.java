@@ -7,7 +7,6 @@ import org.lpc.map.MapScale;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
 @Getter
 @Setter
@@ -39,16 +38,25 @@ public class Position {
         return Math.abs(this.gridX - other.gridX) + Math.abs(this.gridY - other.gridY);
     }
 
+    public long pack() {
+        return PackedPosition.pack(gridX, gridY);
+    }
+
+    /**
+     * Visits every tile within a Manhattan distance on the map, without allocating per tile.
+     */
+    public void forEachInRange(int range, int mapWidth, int mapHeight, TileVisitor visitor) {
+        Stencil.diamond(range).forEach(gridX, gridY, mapWidth, mapHeight, visitor);
+    }
+
+    /**
+     * Lists every tile within a Manhattan distance on the map. Allocates a position per tile,
+     * hot paths use {@link #forEachInRange(int, int, int, TileVisitor)}.
+     */
     public List<Position> getPositionsInRange(int range, int mapWidth, int mapHeight, MapScale scale) {
-        List<Position> positions = new ArrayList<>();
-        for (int x = Math.max(0, gridX - range); x <= Math.min(mapWidth - 1, gridX + range); x++) {
-            for (int y = Math.max(0, gridY - range); y <= Math.min(mapHeight - 1, gridY + range); y++) {
-                Position pos = new Position(x, y, scale);
-                if (this.getDistanceTo(pos) <= range) {
-                    positions.add(pos);
-                }
-            }
-        }
+        Stencil stencil = Stencil.diamond(range);
+        List<Position> positions = new ArrayList<>(stencil.getSize());
+        stencil.forEach(gridX, gridY, mapWidth, mapHeight, (x, y) -> positions.add(new Position(x, y, scale)));
         return positions;
     }
 
@@ -62,7 +70,7 @@ public class Position {
 
     @Override
     public int hashCode() {
-        return Objects.hash(gridX, gridY);
+        return 31 * gridX + gridY;
     }
 
     @Override
@@ -0,0 +1,157 @@
+package org.lpc.utility;
+
+import java.util.Arrays;
+
+/**
+ * Map from packed positions to ints, see {@link PackedPosition}.
+ * Same open addressing layout as {@link PositionSet}, with values in a parallel array.
+ */
+public class PositionIntMap {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int[] values;
+    private int shift;
+    private int mask;
+    private int threshold;
+    private int size;
+    private boolean hasOrigin;
+    private int originValue;
+
+    public PositionIntMap() {
+        this(16);
+    }
+
+    public PositionIntMap(int expectedSize) {
+        allocate(PositionSet.tableSize(expectedSize));
+    }
+
+    public void put(int x, int y, int value) {
+        put(PackedPosition.pack(x, y), value);
+    }
+
+    public void put(long packed, int value) {
+        if (packed == 0) {
+            if (!hasOrigin) {
+                hasOrigin = true;
+                size++;
+            }
+            originValue = value;
+            return;
+        }
+
+        int slot = slot(packed);
+        while (keys[slot] != 0) {
+            if (keys[slot] == packed) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = packed;
+        values[slot] = value;
+        if (++size >= threshold) {
+            resize(keys.length << 1);
+        }
+    }
+
+    public int get(int x, int y, int defaultValue) {
+        return get(PackedPosition.pack(x, y), defaultValue);
+    }
+
+    public int get(long packed, int defaultValue) {
+        if (packed == 0) return hasOrigin ? originValue : defaultValue;
+
+        for (int slot = slot(packed); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == packed) return values[slot];
+        }
+        return defaultValue;
+    }
+
+    public boolean containsKey(long packed) {
+        if (packed == 0) return hasOrigin;
+
+        for (int slot = slot(packed); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == packed) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return The removed value, or the default if the position had none
+     */
+    public int remove(long packed, int defaultValue) {
+        if (packed == 0) {
+            if (!hasOrigin) return defaultValue;
+            hasOrigin = false;
+            size--;
+            return originValue;
+        }
+
+        int slot = slot(packed);
+        while (keys[slot] != packed) {
+            if (keys[slot] == 0) return defaultValue;
+            slot = (slot + 1) & mask;
+        }
+        int removed = values[slot];
+
+        // Shift later entries of the probe run back so lookups never stop at the hole early
+        int hole = slot;
+        for (slot = (slot + 1) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            int home = slot(keys[slot]);
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = 0;
+        size--;
+        return removed;
+    }
+
+    /**
+     * Empties the map, keeping its table.
+     */
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(keys, 0);
+        hasOrigin = false;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int slot(long packed) {
+        return (int) (PackedPosition.hash(packed) >>> shift);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0) continue;
+            int slot = slot(oldKeys[i]);
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        shift = Long.numberOfLeadingZeros(mask);
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+}
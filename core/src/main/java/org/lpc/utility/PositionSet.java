@@ -0,0 +1,160 @@
+package org.lpc.utility;
+
+import java.util.Arrays;
+
+/**
+ * Set of packed positions, see {@link PackedPosition}.
+ * Open addressing with linear probing over a plain long array, so adding and looking up never allocates
+ * once the table is big enough. Position 0, 0 packs to the empty slot marker and is tracked on the side.
+ */
+public class PositionSet {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int shift;
+    private int mask;
+    private int threshold;
+    private int size;
+    private boolean hasOrigin;
+
+    public PositionSet() {
+        this(16);
+    }
+
+    public PositionSet(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    public boolean add(int x, int y) {
+        return add(PackedPosition.pack(x, y));
+    }
+
+    /**
+     * @return Whether the position was not in the set yet
+     */
+    public boolean add(long packed) {
+        if (packed == 0) {
+            if (hasOrigin) return false;
+            hasOrigin = true;
+            size++;
+            return true;
+        }
+
+        int slot = slot(packed);
+        while (keys[slot] != 0) {
+            if (keys[slot] == packed) return false;
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = packed;
+        if (++size >= threshold) {
+            resize(keys.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(int x, int y) {
+        return contains(PackedPosition.pack(x, y));
+    }
+
+    public boolean contains(long packed) {
+        if (packed == 0) return hasOrigin;
+
+        for (int slot = slot(packed); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == packed) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return Whether the position was in the set
+     */
+    public boolean remove(long packed) {
+        if (packed == 0) {
+            if (!hasOrigin) return false;
+            hasOrigin = false;
+            size--;
+            return true;
+        }
+
+        int slot = slot(packed);
+        while (keys[slot] != packed) {
+            if (keys[slot] == 0) return false;
+            slot = (slot + 1) & mask;
+        }
+
+        // Shift later keys of the probe run back so lookups never stop at the hole early
+        int hole = slot;
+        for (slot = (slot + 1) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            int home = slot(keys[slot]);
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = keys[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = 0;
+        size--;
+        return true;
+    }
+
+    /**
+     * Calls the visitor for every position, in no particular order.
+     */
+    public void forEach(TileVisitor visitor) {
+        if (hasOrigin) visitor.visit(0, 0);
+        for (long key : keys) {
+            if (key != 0) {
+                visitor.visit(PackedPosition.x(key), PackedPosition.y(key));
+            }
+        }
+    }
+
+    /**
+     * Empties the set, keeping its table.
+     */
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(keys, 0);
+        hasOrigin = false;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int slot(long packed) {
+        return (int) (PackedPosition.hash(packed) >>> shift);
+    }
+
+    private void resize(int capacity) {
+        long[] old = keys;
+        allocate(capacity);
+        for (long key : old) {
+            if (key == 0) continue;
+            int slot = slot(key);
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+        shift = Long.numberOfLeadingZeros(mask);
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    static int tableSize(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, (int) Math.ceil(expectedSize / LOAD_FACTOR)) - 1) << 1;
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Too many positions: " + expectedSize);
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,37 @@
+package org.lpc.utility;
+
+/**
+ * Derives independent seeds from the world seed.
+ * Derived seeds only depend on their inputs, never on call order or thread,
+ * so anything seeded from them is reproducible for a given world seed.
+ */
+public class Seeds {
+    private Seeds() { throw new IllegalStateException("Utility class for seed derivation"); }
+
+    // Same odd constant SplittableRandom uses to advance its state
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    // Generation layers, each gets its own seed
+    public static final long HEIGHT_LAYER       = 1;
+    public static final long MOISTURE_LAYER     = 2;
+    public static final long RESOURCE_LAYER     = 3;
+    public static final long CIVILISATION_LAYER = 4;
+
+    public static long derive(long seed, long salt) {
+        return mix64(seed + (salt + 1) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Derives the seed of a single tile, independent of chunk layout.
+     */
+    public static long derive(long seed, int x, int y) {
+        return derive(derive(seed, x), y);
+    }
+
+    // Stafford variant 13 finaliser, as used by SplittableRandom
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
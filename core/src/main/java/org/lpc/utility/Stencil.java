@@ -0,0 +1,95 @@
+package org.lpc.utility;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Precomputed tile offsets of a shape around a centre, for range queries that visit tiles through a callback
+ * instead of building position lists.
+ * Every supported shape is symmetric, so a stencil is stored as the half height of each column. Visiting clips
+ * whole columns against the map once, tiles are then walked column by column, x then y ascending,
+ * without a bounds or distance check per tile.
+ */
+public class Stencil {
+    private static final int CACHED_RADII = 64;
+    // Stencils are immutable, a race only builds an equal one twice
+    private static final Stencil[][] CACHE = new Stencil[Shape.values().length][CACHED_RADII + 1];
+
+    public enum Shape {
+        SQUARE,     // Chebyshev distance
+        DIAMOND,    // Manhattan distance
+        CIRCLE      // Euclidean distance
+    }
+
+    @Getter private final Shape shape;
+    @Getter private final int radius;
+    @Getter private final int size;
+    // Half height of the column at dx = i - radius
+    private final int[] extents;
+
+    private Stencil(Shape shape, int radius) {
+        this.shape = shape;
+        this.radius = radius;
+        this.extents = new int[2 * radius + 1];
+
+        int tiles = 0;
+        for (int dx = -radius; dx <= radius; dx++) {
+            int extent = switch (shape) {
+                case SQUARE -> radius;
+                case DIAMOND -> radius - Math.abs(dx);
+                case CIRCLE -> (int) Math.sqrt((double) radius * radius - (double) dx * dx);
+            };
+            extents[dx + radius] = extent;
+            tiles += 2 * extent + 1;
+        }
+        this.size = tiles;
+    }
+
+    public static Stencil square(int radius) {
+        return of(Shape.SQUARE, radius);
+    }
+
+    public static Stencil diamond(int radius) {
+        return of(Shape.DIAMOND, radius);
+    }
+
+    public static Stencil circle(int radius) {
+        return of(Shape.CIRCLE, radius);
+    }
+
+    public static Stencil of(@NonNull Shape shape, int radius) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("Stencil radius cannot be negative: " + radius);
+        }
+        if (radius > CACHED_RADII) {
+            return new Stencil(shape, radius);
+        }
+
+        Stencil stencil = CACHE[shape.ordinal()][radius];
+        if (stencil == null) {
+            stencil = new Stencil(shape, radius);
+            CACHE[shape.ordinal()][radius] = stencil;
+        }
+        return stencil;
+    }
+
+    /**
+     * Visits every tile of the stencil around a centre that lies within a width x height map.
+     */
+    public void forEach(int centerX, int centerY, int width, int height, @NonNull TileVisitor visitor) {
+        int fromX = Math.max(0, centerX - radius);
+        int toX = Math.min(width - 1, centerX + radius);
+
+        for (int x = fromX; x <= toX; x++) {
+            int extent = extents[x - centerX + radius];
+            int toY = Math.min(height - 1, centerY + extent);
+            for (int y = Math.max(0, centerY - extent); y <= toY; y++) {
+                visitor.visit(x, y);
+            }
+        }
+    }
+
+    public boolean contains(int dx, int dy) {
+        return dx >= -radius && dx <= radius && Math.abs(dy) <= extents[dx + radius];
+    }
+}
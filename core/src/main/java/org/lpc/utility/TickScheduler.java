@@ -0,0 +1,157 @@
+package org.lpc.utility;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Hierarchical timing wheel keyed by absolute tick number.
+ * Each level has 64 slots, level n covering 64^n ticks per slot. A task is filed on the lowest level whose
+ * slot range still separates its due tick from the current tick, and moves down a level whenever the wheel
+ * reaches its slot. Scheduling and cancelling are O(1), advancing one tick only touches tasks that are due
+ * plus the occasional cascade, so idle timers cost nothing per tick.
+ */
+public class TickScheduler {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 5; // 2^30 ticks ahead, tasks further out are re-filed on the top level
+
+    private final Task[] heads = new Task[LEVELS * SLOTS];
+    private final Task[] tails = new Task[LEVELS * SLOTS];
+
+    @Getter private long currentTick;
+    @Getter private int scheduledCount;
+
+    /**
+     * Work to run on a given tick. A task is in at most one scheduler at a time.
+     */
+    public abstract static class Task {
+        private long dueTick;
+        private int bucket = -1;
+        private Task previous;
+        private Task next;
+
+        public boolean isScheduled() {
+            return bucket >= 0;
+        }
+
+        public long getDueTick() {
+            return dueTick;
+        }
+
+        /**
+         * Called once the due tick is reached. The task is no longer scheduled and may reschedule itself.
+         */
+        protected abstract void run(TickScheduler scheduler);
+    }
+
+    /**
+     * Schedules a task to run a number of ticks from now, moving it if it was already scheduled.
+     * @param delay Ticks from now, at least 1
+     */
+    public void schedule(@NonNull Task task, long delay) {
+        if (delay < 1) {
+            throw new IllegalArgumentException("Delay must be at least one tick: " + delay);
+        }
+
+        if (task.isScheduled()) {
+            unlink(task);
+        } else {
+            scheduledCount++;
+        }
+
+        task.dueTick = currentTick + delay;
+        file(task);
+    }
+
+    public void cancel(@NonNull Task task) {
+        if (!task.isScheduled()) return;
+
+        unlink(task);
+        scheduledCount--;
+    }
+
+    /**
+     * Moves to the next tick and runs every task due on it, in the order they were filed.
+     * @return Number of tasks run
+     */
+    public int advance() {
+        currentTick++;
+        cascade();
+
+        // Tasks scheduled while running never land in the current slot, so this drains
+        int bucket = (int) (currentTick & SLOT_MASK);
+        int ran = 0;
+
+        Task task;
+        while ((task = heads[bucket]) != null) {
+            unlink(task);
+            scheduledCount--;
+            task.run(this);
+            ran++;
+        }
+        return ran;
+    }
+
+    /**
+     * Re-files the tasks of every higher level slot the wheel just reached, one level down or onto the current slot.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = level * SLOT_BITS;
+            if ((currentTick & ((1L << shift) - 1)) != 0) return;
+
+            int bucket = level * SLOTS + (int) ((currentTick >>> shift) & SLOT_MASK);
+            Task task = heads[bucket];
+            heads[bucket] = null;
+            tails[bucket] = null;
+
+            while (task != null) {
+                Task next = task.next;
+                task.previous = null;
+                task.next = null;
+                file(task);
+                task = next;
+            }
+        }
+    }
+
+    private void file(Task task) {
+        long difference = task.dueTick ^ currentTick;
+        int level = difference == 0 ? 0 : (63 - Long.numberOfLeadingZeros(difference)) / SLOT_BITS;
+        level = Math.min(level, LEVELS - 1);
+
+        int bucket = level * SLOTS + (int) ((task.dueTick >>> (level * SLOT_BITS)) & SLOT_MASK);
+
+        task.bucket = bucket;
+        task.previous = tails[bucket];
+        task.next = null;
+
+        if (tails[bucket] == null) {
+            heads[bucket] = task;
+        } else {
+            tails[bucket].next = task;
+        }
+        tails[bucket] = task;
+    }
+
+    private void unlink(Task task) {
+        int bucket = task.bucket;
+
+        if (task.previous == null) {
+            heads[bucket] = task.next;
+        } else {
+            task.previous.next = task.next;
+        }
+
+        if (task.next == null) {
+            tails[bucket] = task.previous;
+        } else {
+            task.next.previous = task.previous;
+        }
+
+        task.previous = null;
+        task.next = null;
+        task.bucket = -1;
+    }
+}
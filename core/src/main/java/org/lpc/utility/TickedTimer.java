@@ -1,28 +1,50 @@
 package org.lpc.utility;
 
-public class TickedTimer {
-    private int ticks;
-    private final int delay;
+import lombok.Getter;
+import lombok.NonNull;
 
-    public TickedTimer(int delay) {
+/**
+ * Repeating timer that runs an action every {@code delay} ticks.
+ * The timer is filed in a {@link TickScheduler} and only does work on the ticks it fires.
+ */
+public class TickedTimer extends TickScheduler.Task {
+    @Getter private final int delay;
+    private final Runnable action;
+    private TickScheduler scheduler;
+
+    public TickedTimer(int delay, @NonNull Runnable action) {
+        if (delay < 1) {
+            throw new IllegalArgumentException("Timer delay must be at least one tick: " + delay);
+        }
         this.delay = delay;
-        this.ticks = 0;
+        this.action = action;
     }
 
-    public void tick() {
-        ticks++;
+    /**
+     * Starts the timer, its action first runs {@code delay} ticks from now.
+     */
+    public void start(@NonNull TickScheduler scheduler) {
+        this.scheduler = scheduler;
+        scheduler.schedule(this, delay);
     }
 
-    public boolean isTime() {
-        if (ticks >= delay) {
-            ticks = 0;  // Reset ticks after the delay
-            return true;
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.cancel(this);
         }
-        return false;
+    }
+
+    @Override
+    protected void run(TickScheduler scheduler) {
+        // Reschedule first so the action can stop the timer
+        scheduler.schedule(this, delay);
+        action.run();
     }
 
     public int getProgressPercentage() {
-        return (int) ((float) ticks / (float) delay * 100);
+        if (!isScheduled()) return 0;
+
+        long remaining = getDueTick() - scheduler.getCurrentTick();
+        return (int) ((float) (delay - remaining) / (float) delay * 100);
     }
 }
-
@@ -0,0 +1,9 @@
+package org.lpc.utility;
+
+/**
+ * Callback for walking tiles by grid coordinates without allocating a position per tile.
+ */
+@FunctionalInterface
+public interface TileVisitor {
+    void visit(int x, int y);
+}
@@ -0,0 +1,128 @@
+package org.lpc.civilisation;
+
+import org.junit.jupiter.api.Test;
+import org.lpc.utility.PackedPosition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrontierTest {
+    private static final long A = PackedPosition.pack(1, 1);
+    private static final long B = PackedPosition.pack(2, 1);
+    private static final long C = PackedPosition.pack(3, 1);
+    private static final long D = PackedPosition.pack(4, 1);
+
+    @Test
+    void tiesPollInJoinOrder() {
+        Frontier frontier = new Frontier();
+        frontier.add(C, 5);
+        frontier.add(A, 5);
+        frontier.add(D, 9);
+        frontier.add(B, 5);
+
+        assertEquals(List.of(D, C, A, B), pollAll(frontier));
+    }
+
+    @Test
+    void addingATileTwiceKeepsItsFirstScore() {
+        Frontier frontier = new Frontier();
+        assertTrue(frontier.add(A, 1));
+        frontier.add(B, 5);
+
+        assertFalse(frontier.add(A, 9));
+        assertEquals(2, frontier.size());
+        assertEquals(B, frontier.poll());
+    }
+
+    @Test
+    void removedTileIsSkipped() {
+        Frontier frontier = new Frontier();
+        frontier.add(A, 3);
+        frontier.add(B, 7);
+        frontier.add(C, 5);
+
+        assertTrue(frontier.remove(B));
+        assertFalse(frontier.remove(B));
+        assertFalse(frontier.contains(B));
+        assertEquals(List.of(C, A), pollAll(frontier));
+    }
+
+    @Test
+    void reAddedTileTakesItsNewScoreAndJoinsLast() {
+        Frontier frontier = new Frontier();
+        frontier.add(A, 5);
+        frontier.add(B, 5);
+        frontier.add(C, 2);
+
+        frontier.remove(A);
+        frontier.add(A, 5);
+        assertEquals(List.of(B, A, C), pollAll(frontier));
+
+        frontier.add(A, 5);
+        frontier.add(B, 5);
+        frontier.remove(B);
+        frontier.add(B, 8);
+        assertEquals(List.of(B, A), pollAll(frontier));
+    }
+
+    @Test
+    void pollOnEmptyFrontierThrows() {
+        assertThrows(NoSuchElementException.class, () -> new Frontier().poll());
+    }
+
+    @Test
+    void pollOrderMatchesSortedTilesThroughAddsAndRemoves() {
+        SplittableRandom random = new SplittableRandom(42);
+        Frontier frontier = new Frontier();
+        // Tiles in join order with their scores, the brute-force model
+        List<long[]> model = new ArrayList<>();
+
+        for (int step = 0; step < 2000; step++) {
+            long tile = PackedPosition.pack(random.nextInt(30), random.nextInt(30));
+            int index = indexOf(model, tile);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    // Few distinct scores, so most of the order comes from join order
+                    int score = random.nextInt(4);
+                    assertEquals(index < 0, frontier.add(tile, score));
+                    if (index < 0) model.add(new long[] { tile, score });
+                }
+                case 1 -> {
+                    assertEquals(index >= 0, frontier.remove(tile));
+                    if (index >= 0) model.remove(index);
+                }
+                default -> {
+                    if (model.isEmpty()) continue;
+                    int best = 0;
+                    for (int i = 1; i < model.size(); i++) {
+                        if (model.get(i)[1] > model.get(best)[1]) best = i;
+                    }
+                    assertEquals(model.remove(best)[0], frontier.poll());
+                }
+            }
+            assertEquals(model.size(), frontier.size());
+        }
+    }
+
+    private static int indexOf(List<long[]> model, long tile) {
+        for (int i = 0; i < model.size(); i++) {
+            if (model.get(i)[0] == tile) return i;
+        }
+        return -1;
+    }
+
+    private static List<Long> pollAll(Frontier frontier) {
+        List<Long> polled = new ArrayList<>();
+        while (!frontier.isEmpty()) {
+            polled.add(frontier.poll());
+        }
+        return polled;
+    }
+}
@@ -0,0 +1,169 @@
+package org.lpc.civilisation;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lpc.MainGame;
+import org.lpc.map.TileStore;
+import org.lpc.map.maps.SurfaceMap;
+import org.lpc.terrain.resources.ResourceType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResourceTileIndexTest {
+    private static final ResourceType[] RESOURCE_TYPES = ResourceType.values();
+    private static final int MAP_SIZE = 64;
+    // Few distinct quantities, so most ranks are decided by claim order
+    private static final int MAX_QUANTITY = 4;
+
+    private SurfaceMap map;
+    private ResourceTileIndex index;
+    // Claimed tiles in claim order, the brute-force model
+    private List<int[]> claimed;
+    private List<Boolean> built;
+
+    @BeforeAll
+    static void setUpGdx() {
+        // The map renderer sizes its camera from Gdx.graphics, nothing is drawn
+        Gdx.graphics = new MockGraphics();
+    }
+
+    @BeforeEach
+    void setUp() {
+        map = new SurfaceMap(MAP_SIZE, MAP_SIZE, new MainGame(), 42L);
+        index = new ResourceTileIndex(map);
+        claimed = new ArrayList<>();
+        built = new ArrayList<>();
+    }
+
+    @Test
+    void emptyIndexHasNoBestTile() {
+        assertNull(index.best(ResourceType.FOOD));
+        assertTrue(index.best(ResourceType.FOOD, 5).isEmpty());
+        assertEquals(0, index.size(ResourceType.FOOD));
+    }
+
+    @Test
+    void tilesWithoutTheResourceAreNotRanked() {
+        setQuantity(3, 3, ResourceType.FOOD, 0);
+        setQuantity(3, 3, ResourceType.WOOD, 2);
+        claim(3, 3);
+
+        assertEquals(0, index.size(ResourceType.FOOD));
+        assertEquals(1, index.size(ResourceType.WOOD));
+    }
+
+    @Test
+    void equalQuantitiesRankInClaimOrder() {
+        for (int i = 0; i < 6; i++) {
+            setQuantity(i, 0, ResourceType.STONE, 3);
+            claim(i, 0);
+        }
+        setQuantity(4, 0, ResourceType.STONE, 1);
+        index.quantityChanged(4, 0);
+
+        assertEquals(List.of(map.getTile(0, 0), map.getTile(1, 0), map.getTile(2, 0), map.getTile(3, 0),
+            map.getTile(5, 0), map.getTile(4, 0)), index.best(ResourceType.STONE, 10));
+    }
+
+    @Test
+    void rankingMatchesSortedTilesThroughAddsRemovesAndChanges() {
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int step = 0; step < 600; step++) {
+            int operation = random.nextInt(4);
+            if (operation == 0 || claimed.isEmpty()) {
+                int x = random.nextInt(MAP_SIZE);
+                int y = random.nextInt(MAP_SIZE);
+                if (isClaimed(x, y)) continue;
+                for (ResourceType type : RESOURCE_TYPES) {
+                    setQuantity(x, y, type, random.nextInt(MAX_QUANTITY + 1));
+                }
+                claim(x, y);
+            } else {
+                int id = random.nextInt(claimed.size());
+                int x = claimed.get(id)[0];
+                int y = claimed.get(id)[1];
+                if (operation == 1 && !built.get(id)) {
+                    setQuantity(x, y, RESOURCE_TYPES[random.nextInt(RESOURCE_TYPES.length)],
+                        random.nextInt(MAX_QUANTITY + 1));
+                    index.quantityChanged(x, y);
+                } else if (operation == 2 && !built.get(id)) {
+                    built.set(id, true);
+                    index.buildingPlaced(x, y);
+                } else if (operation == 3 && built.get(id)) {
+                    built.set(id, false);
+                    index.buildingRemoved(x, y);
+                }
+            }
+
+            if (step % 20 == 0) {
+                assertSameRanking();
+            }
+        }
+        assertSameRanking();
+    }
+
+    private void assertSameRanking() {
+        for (ResourceType type : RESOURCE_TYPES) {
+            List<SurfaceMap.SurfaceTile> expected = sortedTiles(type);
+
+            assertEquals(expected.size(), index.size(type), type.name());
+            assertEquals(expected.isEmpty() ? null : expected.get(0), index.best(type), type.name());
+            for (int k : new int[] { 0, 1, 3, expected.size(), expected.size() + 5 }) {
+                assertEquals(expected.subList(0, Math.min(k, expected.size())), index.best(type, k),
+                    type + ", best " + k);
+            }
+        }
+    }
+
+    private List<SurfaceMap.SurfaceTile> sortedTiles(ResourceType type) {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 0; id < claimed.size(); id++) {
+            if (!built.get(id) && quantity(id, type) > 0) {
+                ids.add(id);
+            }
+        }
+        // Stable sort, equal quantities keep claim order
+        ids.sort(Comparator.comparingInt((Integer id) -> quantity(id, type)).reversed());
+
+        List<SurfaceMap.SurfaceTile> tiles = new ArrayList<>();
+        for (int id : ids) {
+            tiles.add(map.getTile(claimed.get(id)[0], claimed.get(id)[1]));
+        }
+        return tiles;
+    }
+
+    private void claim(int x, int y) {
+        claimed.add(new int[] { x, y });
+        built.add(false);
+        index.add(x, y);
+    }
+
+    private boolean isClaimed(int x, int y) {
+        for (int[] tile : claimed) {
+            if (tile[0] == x && tile[1] == y) return true;
+        }
+        return false;
+    }
+
+    private int quantity(int id, ResourceType type) {
+        TileStore chunk = map.getStore().getChunk(claimed.get(id)[0], claimed.get(id)[1]);
+        return chunk.getResourceQuantity(chunk.index(claimed.get(id)[0], claimed.get(id)[1]), type);
+    }
+
+    private void setQuantity(int x, int y, ResourceType type, int quantity) {
+        TileStore chunk = map.getStore().getChunk(x, y);
+        int tile = chunk.index(x, y);
+        chunk.addResource(tile, type, quantity - chunk.getResourceQuantity(tile, type));
+    }
+}
@@ -0,0 +1,125 @@
+package org.lpc.civilisation;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lpc.GameStateManager;
+import org.lpc.MainGame;
+import org.lpc.Settings;
+import org.lpc.map.ChunkedTileStore;
+import org.lpc.map.TileStore;
+import org.lpc.terrain.TerrainType;
+import org.lpc.utility.PackedPosition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TerritoryFrontierTest {
+    private static final int[] NEIGHBOR_DX = { 1, -1, 0, 0 };
+    private static final int[] NEIGHBOR_DY = { 0, 0, 1, -1 };
+
+    private GameStateManager gameStateManager;
+    private ChunkedTileStore store;
+
+    @BeforeAll
+    static void setUpGdx() {
+        // The map renderer sizes its camera from Gdx.graphics, nothing is drawn
+        Gdx.graphics = new MockGraphics();
+    }
+
+    @BeforeEach
+    void setUp() {
+        Settings settings = new Settings();
+        settings.setWorldSeed(42L);
+        settings.setMapWidth(256);
+        settings.setMapHeight(256);
+        settings.setCivilisationCount(2);
+        settings.setSimulationThreads(1);
+        gameStateManager = new GameStateManager(new MainGame(), settings);
+        store = gameStateManager.getMapSystem().getSurfaceMap().getStore();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameStateManager.dispose();
+    }
+
+    @Test
+    void frontierHoldsTheUnownedLandAroundTheTerritory() {
+        Civilisation civilisation = gameStateManager.getCivilisations().get(0);
+        Frontier frontier = civilisation.getTerritoryHandler().getFrontier();
+
+        int expected = 0;
+        for (int x = 0; x < store.getWidth(); x++) {
+            for (int y = 0; y < store.getHeight(); y++) {
+                boolean onFrontier = isUnownedLand(x, y) && bordersOwner(x, y, civilisation);
+                assertEquals(onFrontier, frontier.contains(PackedPosition.pack(x, y)), "Tile " + x + ", " + y);
+                if (onFrontier) expected++;
+            }
+        }
+        assertEquals(expected, frontier.size());
+    }
+
+    @Test
+    void claimTakesTheTileOffTheFrontierOfItsNeighbours() {
+        Civilisation first = gameStateManager.getCivilisations().get(0);
+        Civilisation second = gameStateManager.getCivilisations().get(1);
+        long tile = anyFrontierTile(first);
+        int x = PackedPosition.x(tile);
+        int y = PackedPosition.y(tile);
+
+        assertTrue(second.getTerritoryHandler().claimTile(x, y));
+
+        assertFalse(first.getTerritoryHandler().getFrontier().contains(tile));
+        assertFalse(second.getTerritoryHandler().getFrontier().contains(tile));
+        assertTrue(second.getTerritoryHandler().getTerritory().contains(x, y));
+        // Its unowned land neighbours joined the frontier of the new owner
+        for (int i = 0; i < NEIGHBOR_DX.length; i++) {
+            int neighborX = x + NEIGHBOR_DX[i];
+            int neighborY = y + NEIGHBOR_DY[i];
+            if (store.isWithinBounds(neighborX, neighborY) && isUnownedLand(neighborX, neighborY)) {
+                assertTrue(second.getTerritoryHandler().getFrontier().contains(PackedPosition.pack(neighborX, neighborY)));
+            }
+        }
+    }
+
+    @Test
+    void ownedTileCannotBeClaimedAgain() {
+        Civilisation first = gameStateManager.getCivilisations().get(0);
+        Civilisation second = gameStateManager.getCivilisations().get(1);
+        long tile = anyFrontierTile(first);
+
+        assertTrue(first.getTerritoryHandler().claimTile(PackedPosition.x(tile), PackedPosition.y(tile)));
+        assertFalse(second.getTerritoryHandler().claimTile(PackedPosition.x(tile), PackedPosition.y(tile)));
+    }
+
+    private long anyFrontierTile(Civilisation civilisation) {
+        for (int x = 0; x < store.getWidth(); x++) {
+            for (int y = 0; y < store.getHeight(); y++) {
+                long tile = PackedPosition.pack(x, y);
+                if (civilisation.getTerritoryHandler().getFrontier().contains(tile)) return tile;
+            }
+        }
+        throw new IllegalStateException(civilisation.getName() + " has no frontier");
+    }
+
+    private boolean isUnownedLand(int x, int y) {
+        return store.getOwnerId(x, y) == TileStore.NO_OWNER && store.getTerrain(x, y) != TerrainType.WATER;
+    }
+
+    private boolean bordersOwner(int x, int y, Civilisation civilisation) {
+        for (int i = 0; i < NEIGHBOR_DX.length; i++) {
+            int neighborX = x + NEIGHBOR_DX[i];
+            int neighborY = y + NEIGHBOR_DY[i];
+            if (store.isWithinBounds(neighborX, neighborY)
+                && civilisation.getTerritoryHandler().getTerritory().contains(neighborX, neighborY)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,80 @@
+package org.lpc.map;
+
+import org.junit.jupiter.api.Test;
+import org.lpc.terrain.TerrainType;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClaimableCountTest {
+    private static final int CHUNK_SIZE = 16;
+    // Not a multiple of the chunk size, so the last row and column of chunks are narrower
+    private static final int WIDTH = 4 * CHUNK_SIZE + 5;
+    private static final int HEIGHT = 3 * CHUNK_SIZE + 9;
+
+    @Test
+    void countMatchesGeneratedTerrain() {
+        ChunkedTileStore store = new ChunkedTileStore(WIDTH, HEIGHT, CHUNK_SIZE, 4, new PatternGenerator());
+        assertRandomRectangles(store, new SplittableRandom(42));
+    }
+
+    @Test
+    void countFollowsClaimsAndTerrainChanges() {
+        ChunkedTileStore store = new ChunkedTileStore(WIDTH, HEIGHT, CHUNK_SIZE, 4, new PatternGenerator());
+        SplittableRandom random = new SplittableRandom(7);
+
+        for (int round = 0; round < 20; round++) {
+            for (int change = 0; change < 15; change++) {
+                int x = random.nextInt(WIDTH);
+                int y = random.nextInt(HEIGHT);
+                TileStore chunk = store.getChunk(x, y);
+                int index = chunk.index(x, y);
+                switch (random.nextInt(4)) {
+                    case 0 -> chunk.setTerrain(index, TerrainType.WATER);
+                    case 1 -> chunk.setTerrain(index, TerrainType.PLAINS);
+                    // Changing hands keeps the tile unclaimable
+                    case 2 -> chunk.setOwnerId(index, (short) (1 + random.nextInt(3)));
+                    default -> chunk.setOwnerId(index, TileStore.NO_OWNER);
+                }
+            }
+            assertRandomRectangles(store, random);
+        }
+    }
+
+    @Test
+    void singleTileRectangles() {
+        ChunkedTileStore store = new ChunkedTileStore(WIDTH, HEIGHT, CHUNK_SIZE, 4, new PatternGenerator());
+        TileStore chunk = store.getChunk(CHUNK_SIZE, CHUNK_SIZE);
+        chunk.setTerrain(chunk.index(CHUNK_SIZE, CHUNK_SIZE), TerrainType.FOREST);
+
+        assertEquals(1, store.countClaimable(CHUNK_SIZE, CHUNK_SIZE, CHUNK_SIZE, CHUNK_SIZE));
+        chunk.setOwnerId(chunk.index(CHUNK_SIZE, CHUNK_SIZE), (short) 2);
+        assertEquals(0, store.countClaimable(CHUNK_SIZE, CHUNK_SIZE, CHUNK_SIZE, CHUNK_SIZE));
+    }
+
+    private static void assertRandomRectangles(ChunkedTileStore store, SplittableRandom random) {
+        for (int query = 0; query < 50; query++) {
+            int startX = random.nextInt(WIDTH);
+            int startY = random.nextInt(HEIGHT);
+            int endX = Math.min(WIDTH - 1, startX + random.nextInt(2 * CHUNK_SIZE));
+            int endY = Math.min(HEIGHT - 1, startY + random.nextInt(2 * CHUNK_SIZE));
+
+            assertEquals(bruteForceCount(store, startX, startY, endX, endY),
+                store.countClaimable(startX, startY, endX, endY),
+                startX + ", " + startY + " to " + endX + ", " + endY);
+        }
+    }
+
+    private static int bruteForceCount(ChunkedTileStore store, int startX, int startY, int endX, int endY) {
+        int count = 0;
+        for (int x = startX; x <= endX; x++) {
+            for (int y = startY; y <= endY; y++) {
+                if (store.getOwnerId(x, y) == TileStore.NO_OWNER && store.getTerrain(x, y) != TerrainType.WATER) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,44 @@
+package org.lpc.map;
+
+import org.lpc.terrain.TerrainType;
+import org.lpc.terrain.resources.ResourceType;
+
+/**
+ * Test generator whose tiles only follow their world position, so a regenerated chunk equals the evicted one.
+ * Every fifth tile is water and about a third of the tiles hold each resource.
+ */
+public class PatternGenerator implements IMapGenerator {
+    private static final TerrainType[] LAND = { TerrainType.PLAINS, TerrainType.FOREST, TerrainType.HILLS };
+    private static final ResourceType[] RESOURCE_TYPES = ResourceType.values();
+
+    @Override
+    public void generateTerrain(TileStore store) {
+        for (int x = store.getOriginX(); x < store.getOriginX() + store.getWidth(); x++) {
+            for (int y = store.getOriginY(); y < store.getOriginY() + store.getHeight(); y++) {
+                TerrainType terrain = (x * 7 + y * 3) % 5 == 0 ? TerrainType.WATER : LAND[(x + y) % LAND.length];
+                store.setTile(store.index(x, y), terrain, ((x * 7 + y) % 10) / 10f, 0.5f);
+            }
+        }
+    }
+
+    @Override
+    public void generateResources(TileStore store) {
+        for (int x = store.getOriginX(); x < store.getOriginX() + store.getWidth(); x++) {
+            for (int y = store.getOriginY(); y < store.getOriginY() + store.getHeight(); y++) {
+                for (ResourceType type : RESOURCE_TYPES) {
+                    int quantity = quantity(x, y, type);
+                    if (quantity != 0) {
+                        store.addResource(store.index(x, y), type, quantity);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the generated quantity of a resource on a tile.
+     */
+    public static int quantity(int x, int y, ResourceType type) {
+        return (x * 31 + y * 17 + type.ordinal() * 5) % 3 == 0 ? (x * 13 + y * 7 + type.ordinal()) % 90 + 10 : 0;
+    }
+}
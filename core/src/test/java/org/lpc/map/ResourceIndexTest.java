@@ -0,0 +1,111 @@
+package org.lpc.map;
+
+import org.junit.jupiter.api.Test;
+import org.lpc.terrain.resources.ResourceType;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResourceIndexTest {
+    private static final ResourceType[] RESOURCE_TYPES = ResourceType.values();
+    private static final int CHUNK_SIZE = 16;
+    // Not a multiple of the chunk size, so the last row and column of chunks are narrower
+    private static final int WIDTH = 5 * CHUNK_SIZE + 7;
+    private static final int HEIGHT = 4 * CHUNK_SIZE + 3;
+
+    @Test
+    void sumMatchesGeneratedQuantities() {
+        ChunkedTileStore store = new ChunkedTileStore(WIDTH, HEIGHT, CHUNK_SIZE, 4, new PatternGenerator());
+        assertRandomRectangles(store, new SplittableRandom(42));
+    }
+
+    @Test
+    void sumFollowsHarvestsAndEvictions() {
+        // Two resident chunks at most, so rectangles keep evicting the chunks nobody wrote to
+        ChunkedTileStore store = new ChunkedTileStore(WIDTH, HEIGHT, CHUNK_SIZE, 2, new PatternGenerator());
+        SplittableRandom random = new SplittableRandom(7);
+
+        for (int round = 0; round < 20; round++) {
+            for (int harvest = 0; harvest < 10; harvest++) {
+                int x = random.nextInt(WIDTH);
+                int y = random.nextInt(HEIGHT);
+                TileStore chunk = store.getChunk(x, y);
+                // Goes below zero or past the short range now and then, the store saturates it
+                chunk.addResource(chunk.index(x, y), RESOURCE_TYPES[random.nextInt(RESOURCE_TYPES.length)],
+                    random.nextInt(-120, 60));
+            }
+            assertRandomRectangles(store, random);
+        }
+    }
+
+    @Test
+    void wholeChunksAreCountedWithoutLoadingThem() {
+        ChunkedTileStore store = new ChunkedTileStore(WIDTH, HEIGHT, CHUNK_SIZE, 2, new PatternGenerator());
+
+        long sum = store.getResourceIndex().sum(ResourceType.FOOD, 0, 0, WIDTH - 1, HEIGHT - 1);
+
+        assertEquals(0, store.getResidentChunkCount());
+        assertEquals(bruteForceSum(store, ResourceType.FOOD, 0, 0, WIDTH - 1, HEIGHT - 1), sum);
+    }
+
+    @Test
+    void largeQueryKeepsTheChunksInUse() {
+        // Room for the chunk in use and the eight chunks on the edge of the query, not for the twelve inside it
+        ChunkedTileStore store = new ChunkedTileStore(WIDTH, HEIGHT, CHUNK_SIZE, 9, new PatternGenerator());
+        TileStore inUse = store.getChunkAt(0, 0);
+
+        // Cuts through the chunks of the last row and column only
+        store.getResourceIndex().sum(ResourceType.WOOD, 0, 0, 4 * CHUNK_SIZE + 2, 3 * CHUNK_SIZE + 1);
+
+        assertSame(inUse, store.getChunkAt(0, 0));
+        assertFalse(store.isChunkResident(2, 2));
+    }
+
+    @Test
+    void onlyChangedResourcesMarkTheBlockModified() {
+        TileStore tiles = new TileStore(2, 2);
+        tiles.addResource(0, ResourceType.GOLD, Short.MAX_VALUE);
+        tiles.markGenerated();
+
+        // Saturated both ways, nothing is written
+        tiles.addResource(0, ResourceType.GOLD, 5);
+        tiles.addResource(1, ResourceType.GOLD, -5);
+        tiles.addResource(2, ResourceType.GOLD, 0);
+        assertFalse(tiles.isModified());
+        assertFalse(tiles.isPinned());
+
+        tiles.addResource(0, ResourceType.GOLD, -1);
+        assertTrue(tiles.isModified());
+    }
+
+    private static void assertRandomRectangles(ChunkedTileStore store, SplittableRandom random) {
+        for (int query = 0; query < 50; query++) {
+            // Reaches past the world on every side now and then, sums clip to it
+            int startX = random.nextInt(-4, WIDTH);
+            int startY = random.nextInt(-4, HEIGHT);
+            int endX = startX + random.nextInt(3 * CHUNK_SIZE);
+            int endY = startY + random.nextInt(3 * CHUNK_SIZE);
+            ResourceType type = RESOURCE_TYPES[random.nextInt(RESOURCE_TYPES.length)];
+
+            assertEquals(bruteForceSum(store, type, startX, startY, endX, endY),
+                store.getResourceIndex().sum(type, startX, startY, endX, endY),
+                type + " over " + startX + ", " + startY + " to " + endX + ", " + endY);
+        }
+    }
+
+    private static long bruteForceSum(ChunkedTileStore store, ResourceType type,
+                                      int startX, int startY, int endX, int endY) {
+        long sum = 0;
+        for (int x = Math.max(0, startX); x <= Math.min(WIDTH - 1, endX); x++) {
+            for (int y = Math.max(0, startY); y <= Math.min(HEIGHT - 1, endY); y++) {
+                TileStore chunk = store.getChunk(x, y);
+                sum += chunk.getResourceQuantity(chunk.index(x, y), type);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,191 @@
+package org.lpc.map;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TerritoryBitSetTest {
+    // Width, height and chunk size: whole chunks, narrower last chunks, and pages that end inside a word
+    private static final int[][] LAYOUTS = { { 32, 32, 16 }, { 37, 23, 8 }, { 10, 11, 3 }, { 20, 7, 9 } };
+
+    @Test
+    void addRemoveAndContainsFollowTheTiles() {
+        for (int[] layout : LAYOUTS) {
+            SplittableRandom random = new SplittableRandom(42);
+            TerritoryBitSet set = new TerritoryBitSet(layout[0], layout[1], layout[2]);
+            boolean[][] model = new boolean[layout[0]][layout[1]];
+
+            for (int step = 0; step < 1000; step++) {
+                int x = random.nextInt(layout[0]);
+                int y = random.nextInt(layout[1]);
+                if (random.nextBoolean()) {
+                    assertEquals(!model[x][y], set.add(x, y));
+                    model[x][y] = true;
+                } else {
+                    assertEquals(model[x][y], set.remove(x, y));
+                    model[x][y] = false;
+                }
+            }
+            assertSameTiles(model, set);
+        }
+    }
+
+    @Test
+    void setOperationsMatchTileByTileResults() {
+        for (int[] layout : LAYOUTS) {
+            SplittableRandom random = new SplittableRandom(7);
+            boolean[][] first = randomTiles(layout, random);
+            boolean[][] second = randomTiles(layout, random);
+            TerritoryBitSet a = toSet(layout, first);
+            TerritoryBitSet b = toSet(layout, second);
+
+            boolean[][] union = new boolean[layout[0]][layout[1]];
+            boolean[][] intersection = new boolean[layout[0]][layout[1]];
+            boolean[][] difference = new boolean[layout[0]][layout[1]];
+            int intersectionSize = 0;
+            for (int x = 0; x < layout[0]; x++) {
+                for (int y = 0; y < layout[1]; y++) {
+                    union[x][y] = first[x][y] || second[x][y];
+                    intersection[x][y] = first[x][y] && second[x][y];
+                    difference[x][y] = first[x][y] && !second[x][y];
+                    if (intersection[x][y]) intersectionSize++;
+                }
+            }
+
+            assertSameTiles(union, a.union(b));
+            assertSameTiles(intersection, a.intersection(b));
+            assertSameTiles(difference, a.difference(b));
+            assertEquals(intersectionSize, a.intersectionSize(b));
+            assertEquals(intersectionSize > 0, a.intersects(b));
+            // The operands are left as they were
+            assertSameTiles(first, a);
+            assertSameTiles(second, b);
+        }
+    }
+
+    @Test
+    void resultsOfSetOperationsCanBeEditedOnTheirOwn() {
+        TerritoryBitSet a = new TerritoryBitSet(20, 20, 8);
+        TerritoryBitSet b = new TerritoryBitSet(20, 20, 8);
+        a.add(1, 1);
+        b.add(12, 12);
+
+        // Pages only one operand has are copied, not shared
+        TerritoryBitSet union = a.union(b);
+        union.add(13, 13);
+        union.remove(1, 1);
+
+        assertEquals(1, a.size());
+        assertTrue(a.contains(1, 1));
+        assertFalse(b.contains(13, 13));
+        assertEquals(2, union.size());
+    }
+
+    @Test
+    void emptyResultPagesAreDropped() {
+        TerritoryBitSet a = new TerritoryBitSet(20, 20, 8);
+        TerritoryBitSet b = new TerritoryBitSet(20, 20, 8);
+        a.add(1, 1);
+        b.add(2, 2);
+
+        TerritoryBitSet intersection = a.intersection(b);
+        assertTrue(intersection.isEmpty());
+        assertFalse(a.intersects(b));
+
+        TerritoryBitSet difference = a.difference(a);
+        assertEquals(0, difference.size());
+        difference.add(1, 1);
+        assertEquals(1, difference.size());
+    }
+
+    @Test
+    void clearEmptiesTheSet() {
+        TerritoryBitSet set = new TerritoryBitSet(10, 11, 3);
+        set.add(9, 10);
+        set.add(0, 0);
+
+        set.clear();
+
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(9, 10));
+        assertTrue(set.add(9, 10));
+    }
+
+    @Test
+    void tilesOutsideTheMapAreRejected() {
+        TerritoryBitSet set = new TerritoryBitSet(10, 11, 3);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> set.add(10, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> set.remove(0, -1));
+        assertFalse(set.contains(-1, 0));
+        assertFalse(set.contains(0, 11));
+    }
+
+    @Test
+    void setsOfDifferentLayoutsCannotBeCombined() {
+        TerritoryBitSet set = new TerritoryBitSet(10, 11, 3);
+
+        assertThrows(IllegalArgumentException.class, () -> set.union(new TerritoryBitSet(10, 11, 4)));
+        assertThrows(IllegalArgumentException.class, () -> set.intersectionSize(new TerritoryBitSet(11, 11, 3)));
+    }
+
+    private static boolean[][] randomTiles(int[] layout, SplittableRandom random) {
+        boolean[][] tiles = new boolean[layout[0]][layout[1]];
+        for (int x = 0; x < layout[0]; x++) {
+            for (int y = 0; y < layout[1]; y++) {
+                // Sparse, so some pages stay empty or come out empty
+                tiles[x][y] = random.nextInt(4) == 0 && (x / layout[2] + y / layout[2]) % 3 != 0;
+            }
+        }
+        return tiles;
+    }
+
+    private static TerritoryBitSet toSet(int[] layout, boolean[][] tiles) {
+        TerritoryBitSet set = new TerritoryBitSet(layout[0], layout[1], layout[2]);
+        for (int x = 0; x < layout[0]; x++) {
+            for (int y = 0; y < layout[1]; y++) {
+                if (tiles[x][y]) set.add(x, y);
+            }
+        }
+        return set;
+    }
+
+    private static void assertSameTiles(boolean[][] expected, TerritoryBitSet actual) {
+        int count = 0;
+        for (int x = 0; x < expected.length; x++) {
+            for (int y = 0; y < expected[x].length; y++) {
+                assertEquals(expected[x][y], actual.contains(x, y), "Tile " + x + ", " + y);
+                if (expected[x][y]) count++;
+            }
+        }
+        assertEquals(count, actual.size());
+
+        // Every tile once, chunk by chunk
+        List<int[]> visited = new ArrayList<>();
+        actual.forEach((x, y) -> visited.add(new int[] { x, y }));
+        assertEquals(count, visited.size());
+        int chunkSize = actual.getChunkSize();
+        int chunksY = (actual.getHeight() + chunkSize - 1) / chunkSize;
+        for (int i = 0; i < visited.size(); i++) {
+            int[] tile = visited.get(i);
+            assertTrue(expected[tile[0]][tile[1]], "Visited " + tile[0] + ", " + tile[1]);
+            if (i > 0) {
+                int[] previous = visited.get(i - 1);
+                long previousOrder = storageOrder(previous, chunkSize, chunksY);
+                assertTrue(previousOrder < storageOrder(tile, chunkSize, chunksY), "Visit order at " + i);
+            }
+        }
+    }
+
+    private static long storageOrder(int[] tile, int chunkSize, int chunksY) {
+        long slot = (tile[0] / chunkSize) * (long) chunksY + tile[1] / chunkSize;
+        return slot * chunkSize * chunkSize + (tile[0] % chunkSize) * chunkSize + tile[1] % chunkSize;
+    }
+}
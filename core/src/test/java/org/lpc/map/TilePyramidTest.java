@@ -0,0 +1,148 @@
+package org.lpc.map;
+
+import org.junit.jupiter.api.Test;
+import org.lpc.terrain.TerrainType;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TilePyramidTest {
+    private static final TerrainType[] TERRAIN_TYPES = TerrainType.values();
+
+    @Test
+    void cellTakesTheDominantTerrainAndAverageHeight() {
+        TileStore tiles = new TileStore(2, 2);
+        tiles.setTile(tiles.index(0, 0), TerrainType.FOREST, 0.2f, 0f);
+        tiles.setTile(tiles.index(0, 1), TerrainType.FOREST, 0.4f, 0f);
+        tiles.setTile(tiles.index(1, 0), TerrainType.WATER, 0.6f, 0f);
+        tiles.setTile(tiles.index(1, 1), TerrainType.FOREST, 0.8f, 0f);
+
+        TilePyramid pyramid = tiles.getPyramid();
+
+        assertEquals(TerrainType.FOREST, pyramid.getTerrain(1, 0, 0));
+        assertEquals(0.5f, pyramid.getHeight(1, 0, 0), 1e-6f);
+    }
+
+    @Test
+    void terrainTieGoesToTheLowerOrdinal() {
+        TileStore tiles = new TileStore(2, 2);
+        tiles.setTile(tiles.index(0, 0), TerrainType.MOUNTAIN, 0f, 0f);
+        tiles.setTile(tiles.index(0, 1), TerrainType.BEACH, 0f, 0f);
+        tiles.setTile(tiles.index(1, 0), TerrainType.MOUNTAIN, 0f, 0f);
+        tiles.setTile(tiles.index(1, 1), TerrainType.BEACH, 0f, 0f);
+
+        TerrainType lower = TerrainType.BEACH.ordinal() < TerrainType.MOUNTAIN.ordinal()
+            ? TerrainType.BEACH
+            : TerrainType.MOUNTAIN;
+        assertEquals(lower, tiles.getPyramid().getTerrain(1, 0, 0));
+    }
+
+    @Test
+    void cellTakesTheMajorityOwner() {
+        // A 4x4 cell: six tiles of owner 1, five of owner 2, five unowned
+        TileStore tiles = new TileStore(4, 4);
+        setOwners(tiles, 1, 1, 1, 1, 1, 1, 2, 2, 2, 2, 2, 0, 0, 0, 0, 0);
+
+        assertEquals(1, tiles.getPyramid().getOwnerId(2, 0, 0));
+    }
+
+    @Test
+    void unownedTilesCountAsAnOwner() {
+        TileStore tiles = new TileStore(4, 4);
+        setOwners(tiles, 1, 1, 1, 1, 1, 2, 2, 2, 2, 2, 0, 0, 0, 0, 0, 0);
+
+        assertEquals(TileStore.NO_OWNER, tiles.getPyramid().getOwnerId(2, 0, 0));
+    }
+
+    @Test
+    void ownerTieGoesToTheLowerId() {
+        TileStore tiles = new TileStore(2, 2);
+        setOwners(tiles, 3, 2, 3, 2);
+        assertEquals(2, tiles.getPyramid().getOwnerId(1, 0, 0));
+
+        TileStore halfOwned = new TileStore(2, 2);
+        setOwners(halfOwned, 1, 0, 0, 1);
+        assertEquals(TileStore.NO_OWNER, halfOwned.getPyramid().getOwnerId(1, 0, 0));
+    }
+
+    @Test
+    void edgeCellsCoverWhatIsLeftOfTheBlock() {
+        TileStore tiles = new TileStore(5, 3);
+        tiles.setTile(tiles.index(4, 2), TerrainType.HILLS, 0.7f, 0f);
+        tiles.setOwnerId(tiles.index(4, 2), (short) 4);
+
+        TilePyramid pyramid = tiles.getPyramid();
+
+        assertEquals(3, pyramid.getWidth(1));
+        assertEquals(2, pyramid.getHeight(1));
+        assertEquals(1, pyramid.getWidth(3));
+        assertEquals(TerrainType.HILLS, pyramid.getTerrain(1, 2, 1));
+        assertEquals(0.7f, pyramid.getHeight(1, 2, 1), 1e-6f);
+        assertEquals(4, pyramid.getOwnerId(1, 2, 1));
+    }
+
+    @Test
+    void levelZeroReadsTheTiles() {
+        TileStore tiles = new TileStore(3, 3);
+        tiles.setTile(tiles.index(1, 2), TerrainType.DESERT, 0.3f, 0f);
+        tiles.setOwnerId(tiles.index(1, 2), (short) 7);
+
+        TilePyramid pyramid = tiles.getPyramid();
+
+        assertEquals(TerrainType.DESERT, pyramid.getTerrain(0, 1, 2));
+        assertEquals(0.3f, pyramid.getHeight(0, 1, 2));
+        assertEquals(7, pyramid.getOwnerId(0, 1, 2));
+    }
+
+    @Test
+    void tileChangesKeepEveryLevelEqualToAFreshBuild() {
+        SplittableRandom random = new SplittableRandom(42);
+        TileStore tiles = new TileStore(8, 16, 20, 12);
+        TilePyramid pyramid = tiles.getPyramid();
+        long cellUpdatesBefore = pyramid.getCellUpdates();
+
+        for (int edit = 0; edit < 500; edit++) {
+            int index = random.nextInt(tiles.size());
+            switch (random.nextInt(3)) {
+                case 0 -> tiles.setTerrain(index, TERRAIN_TYPES[random.nextInt(TERRAIN_TYPES.length)]);
+                case 1 -> tiles.setHeight(index, random.nextInt(100) / 100f);
+                default -> tiles.setOwnerId(index, (short) random.nextInt(4));
+            }
+        }
+
+        // One cell per level and edit
+        assertEquals(500L * TilePyramid.LEVELS, pyramid.getCellUpdates() - cellUpdatesBefore);
+        assertSameLevels(copyOf(tiles).getPyramid(), pyramid);
+    }
+
+    private static void setOwners(TileStore tiles, int... owners) {
+        for (int i = 0; i < owners.length; i++) {
+            tiles.setOwnerId(i, (short) owners[i]);
+        }
+    }
+
+    private static TileStore copyOf(TileStore tiles) {
+        TileStore copy = new TileStore(tiles.getOriginX(), tiles.getOriginY(), tiles.getWidth(), tiles.getHeight());
+        for (int index = 0; index < tiles.size(); index++) {
+            copy.setTile(index, tiles.getTerrain(index), tiles.getHeight(index), tiles.getMoisture(index));
+            copy.setOwnerId(index, tiles.getOwnerId(index));
+        }
+        return copy;
+    }
+
+    private static void assertSameLevels(TilePyramid expected, TilePyramid actual) {
+        for (int level = 1; level <= TilePyramid.LEVELS; level++) {
+            assertEquals(expected.getWidth(level), actual.getWidth(level));
+            assertEquals(expected.getHeight(level), actual.getHeight(level));
+            for (int x = 0; x < expected.getWidth(level); x++) {
+                for (int y = 0; y < expected.getHeight(level); y++) {
+                    String cell = "Level " + level + " cell " + x + ", " + y;
+                    assertEquals(expected.getTerrain(level, x, y), actual.getTerrain(level, x, y), cell);
+                    assertEquals(expected.getHeight(level, x, y), actual.getHeight(level, x, y), 1e-5f, cell);
+                    assertEquals(expected.getOwnerId(level, x, y), actual.getOwnerId(level, x, y), cell);
+                }
+            }
+        }
+    }
+}
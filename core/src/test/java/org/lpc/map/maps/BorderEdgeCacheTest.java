@@ -0,0 +1,208 @@
+package org.lpc.map.maps;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lpc.map.ChunkedTileStore;
+import org.lpc.map.PatternGenerator;
+import org.lpc.map.TileStore;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.lpc.map.maps.BorderEdgeCache.BOTTOM_BORDER;
+import static org.lpc.map.maps.BorderEdgeCache.EDGE_STRIDE;
+import static org.lpc.map.maps.BorderEdgeCache.LEFT_BORDER;
+import static org.lpc.map.maps.BorderEdgeCache.RIGHT_BORDER;
+import static org.lpc.map.maps.BorderEdgeCache.TOP_BORDER;
+
+class BorderEdgeCacheTest {
+    private static final int CHUNK_SIZE = 16;
+    // Not a multiple of the chunk size, the last chunks are narrower and odd sized
+    private static final int WIDTH = 2 * CHUNK_SIZE + 9;
+    private static final int HEIGHT = 2 * CHUNK_SIZE + 5;
+
+    private ChunkedTileStore tiles;
+    private BorderEdgeCache cache;
+
+    @BeforeEach
+    void setUp() {
+        tiles = new ChunkedTileStore(WIDTH, HEIGHT, CHUNK_SIZE, 16, new PatternGenerator());
+        cache = new BorderEdgeCache(tiles, 16);
+
+        // Blocks of three owners with scattered tiles of other owners, so runs get cut short
+        SplittableRandom random = new SplittableRandom(42);
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                int owner = random.nextInt(8) == 0 ? random.nextInt(4) : (x / 7 + y / 5) % 4;
+                setOwner(x, y, owner);
+            }
+        }
+    }
+
+    @Test
+    void mergedEdgesCoverEveryBorderSideAtTileLevel() {
+        assertEdgesMatchMasks(0);
+    }
+
+    @Test
+    void mergedEdgesCoverEveryBorderSideAtTheFirstLevelOfDetail() {
+        assertEdgesMatchMasks(1);
+    }
+
+    @Test
+    void upToDateChunkIsNotMergedAgain() {
+        assertTrue(cache.refresh(0, 0, 0));
+        assertFalse(cache.refresh(0, 0, 0));
+        assertEquals(1, cache.getMergeCount());
+    }
+
+    @Test
+    void changeInANeighbouringChunkMergesAgain() {
+        cache.refresh(0, 0, 0);
+
+        // First column of the chunk to the right, next to the last column of chunk 0, 0
+        setOwner(CHUNK_SIZE, 3, 9);
+
+        assertTrue(cache.refresh(0, 0, 0));
+        assertEdgesOfChunkMatchMasks(0, 0, 0);
+    }
+
+    @Test
+    void changeInADiagonalChunkKeepsTheEdges() {
+        cache.refresh(0, 0, 0);
+
+        setOwner(CHUNK_SIZE, CHUNK_SIZE, 9);
+
+        assertFalse(cache.refresh(0, 0, 0));
+    }
+
+    @Test
+    void otherLevelMergesAgain() {
+        cache.refresh(1, 1, 0);
+
+        assertTrue(cache.refresh(1, 1, 1));
+        assertTrue(cache.refresh(1, 1, 0));
+    }
+
+    private void assertEdgesMatchMasks(int level) {
+        for (int chunkX = 0; chunkX < tiles.getChunksX(); chunkX++) {
+            for (int chunkY = 0; chunkY < tiles.getChunksY(); chunkY++) {
+                assertEdgesOfChunkMatchMasks(chunkX, chunkY, level);
+            }
+        }
+    }
+
+    /**
+     * Expands the merged edges of a chunk back to unit sides and compares them with the sides found cell by cell.
+     */
+    private void assertEdgesOfChunkMatchMasks(int chunkX, int chunkY, int level) {
+        String chunk = "Chunk " + chunkX + ", " + chunkY + " at level " + level;
+        TileStore store = tiles.getChunkAt(chunkX, chunkY);
+        int originX = store.getOriginX() >> level;
+        int originY = store.getOriginY() >> level;
+        int width = level == 0 ? store.getWidth() : store.getPyramid().getWidth(level);
+        int height = level == 0 ? store.getHeight() : store.getPyramid().getHeight(level);
+
+        Set<List<Integer>> expected = new HashSet<>();
+        for (int cellX = originX; cellX < originX + width; cellX++) {
+            for (int cellY = originY; cellY < originY + height; cellY++) {
+                short owner = tiles.getOwnerId(level, cellX, cellY);
+                if (owner == TileStore.NO_OWNER) continue;
+
+                int mask = borderMask(level, cellX, cellY, owner);
+                if ((mask & TOP_BORDER) != 0) expected.add(List.of((int) owner, 0, cellX, cellY + 1));
+                if ((mask & BOTTOM_BORDER) != 0) expected.add(List.of((int) owner, 0, cellX, cellY));
+                if ((mask & RIGHT_BORDER) != 0) expected.add(List.of((int) owner, 1, cellX + 1, cellY));
+                if ((mask & LEFT_BORDER) != 0) expected.add(List.of((int) owner, 1, cellX, cellY));
+            }
+        }
+
+        IntArray edges = cache.getEdges(chunkX, chunkY, level);
+        Set<List<Integer>> actual = new HashSet<>();
+        int sides = 0;
+        for (int i = 0; i < edges.size; i += EDGE_STRIDE) {
+            int owner = edges.get(i);
+            int x0 = edges.get(i + 1);
+            int y0 = edges.get(i + 2);
+            int x1 = edges.get(i + 3);
+            int y1 = edges.get(i + 4);
+            if (y0 == y1) {
+                for (int x = x0; x < x1; x++, sides++) actual.add(List.of(owner, 0, x, y0));
+            } else {
+                assertEquals(x0, x1, chunk + ": edge " + i / EDGE_STRIDE + " is not axis aligned");
+                for (int y = y0; y < y1; y++, sides++) actual.add(List.of(owner, 1, x0, y));
+            }
+        }
+
+        assertEquals(expected, actual, chunk);
+        assertEquals(expected.size(), sides, chunk + ": edges overlap");
+        assertRunsAreMerged(edges, level, chunk);
+        assertGroupedByOwner(edges, chunk);
+    }
+
+    /**
+     * No edge continues another of the same owner on the same side of the same line. The top sides of one row
+     * and the bottom sides of the next can meet on a line, they are separate runs.
+     */
+    private void assertRunsAreMerged(IntArray edges, int level, String chunk) {
+        for (int i = 0; i < edges.size; i += EDGE_STRIDE) {
+            for (int j = 0; j < edges.size; j += EDGE_STRIDE) {
+                boolean sameOwner = edges.get(i) == edges.get(j);
+                boolean continues = edges.get(i + 3) == edges.get(j + 1) && edges.get(i + 4) == edges.get(j + 2);
+                boolean sameSide = side(edges, i, level) == side(edges, j, level);
+                assertFalse(i != j && sameOwner && continues && sameSide,
+                    chunk + ": edges " + i / EDGE_STRIDE + " and " + j / EDGE_STRIDE + " were not merged");
+            }
+        }
+    }
+
+    /**
+     * Gets the side of its cells an edge runs along, from the owner of the cell below or left of its start.
+     */
+    private int side(IntArray edges, int i, int level) {
+        int owner = edges.get(i);
+        int x0 = edges.get(i + 1);
+        int y0 = edges.get(i + 2);
+        if (y0 == edges.get(i + 4)) {
+            return y0 > 0 && tiles.getOwnerId(level, x0, y0 - 1) == owner ? TOP_BORDER : BOTTOM_BORDER;
+        }
+        return x0 > 0 && tiles.getOwnerId(level, x0 - 1, y0) == owner ? RIGHT_BORDER : LEFT_BORDER;
+    }
+
+    private static void assertGroupedByOwner(IntArray edges, String chunk) {
+        Set<Integer> finished = new HashSet<>();
+        for (int i = EDGE_STRIDE; i < edges.size; i += EDGE_STRIDE) {
+            if (edges.get(i) != edges.get(i - EDGE_STRIDE)) {
+                assertTrue(finished.add(edges.get(i - EDGE_STRIDE)), chunk + ": owners are not grouped");
+                assertFalse(finished.contains(edges.get(i)), chunk + ": owners are not grouped");
+            }
+        }
+    }
+
+    /**
+     * Border sides of a cell found from its four neighbours, sides on the map edge get none.
+     */
+    private int borderMask(int level, int cellX, int cellY, short owner) {
+        int borders = 0;
+        if (needsBorder(level, cellX, cellY + 1, owner)) borders |= TOP_BORDER;
+        if (needsBorder(level, cellX + 1, cellY, owner)) borders |= RIGHT_BORDER;
+        if (needsBorder(level, cellX, cellY - 1, owner)) borders |= BOTTOM_BORDER;
+        if (needsBorder(level, cellX - 1, cellY, owner)) borders |= LEFT_BORDER;
+        return borders;
+    }
+
+    private boolean needsBorder(int level, int cellX, int cellY, short owner) {
+        return tiles.isWithinBounds(cellX << level, cellY << level) && tiles.getOwnerId(level, cellX, cellY) != owner;
+    }
+
+    private void setOwner(int x, int y, int owner) {
+        TileStore chunk = tiles.getChunk(x, y);
+        chunk.setOwnerId(chunk.index(x, y), (short) owner);
+    }
+}
@@ -0,0 +1,43 @@
+package org.lpc.map.maps;
+
+import org.junit.jupiter.api.Test;
+import org.lpc.map.TilePyramid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.lpc.utility.Constants.LOD_MIN_CELL_PIXELS;
+
+class SurfaceMapRendererTest {
+    private static final int PIXELS_PER_TILE = 128;
+
+    @Test
+    void tilesAreDrawnWhileTheyCoverTheMinimumCellSize() {
+        float lastTileZoom = (float) PIXELS_PER_TILE / LOD_MIN_CELL_PIXELS;
+
+        assertEquals(0, SurfaceMapRenderer.selectLevel(0.5f, PIXELS_PER_TILE));
+        assertEquals(0, SurfaceMapRenderer.selectLevel(1f, PIXELS_PER_TILE));
+        assertEquals(0, SurfaceMapRenderer.selectLevel(lastTileZoom, PIXELS_PER_TILE));
+        assertEquals(1, SurfaceMapRenderer.selectLevel(lastTileZoom * 1.01f, PIXELS_PER_TILE));
+    }
+
+    @Test
+    void eachLevelCoversTwiceTheZoomOfThePreviousOne() {
+        float lastTileZoom = (float) PIXELS_PER_TILE / LOD_MIN_CELL_PIXELS;
+
+        for (int level = 1; level < TilePyramid.LEVELS; level++) {
+            float lastZoom = lastTileZoom * (1 << level);
+            assertEquals(level, SurfaceMapRenderer.selectLevel(lastZoom, PIXELS_PER_TILE));
+            assertEquals(level + 1, SurfaceMapRenderer.selectLevel(lastZoom * 1.01f, PIXELS_PER_TILE));
+        }
+    }
+
+    @Test
+    void coarsestLevelIsKeptWhenZoomingOutFurther() {
+        assertEquals(TilePyramid.LEVELS, SurfaceMapRenderer.selectLevel(1000f, PIXELS_PER_TILE));
+    }
+
+    @Test
+    void largerTilesStayAtFullDetailLonger() {
+        assertEquals(1, SurfaceMapRenderer.selectLevel(15f, PIXELS_PER_TILE));
+        assertEquals(0, SurfaceMapRenderer.selectLevel(15f, 2 * PIXELS_PER_TILE));
+    }
+}
@@ -0,0 +1,180 @@
+package org.lpc.map.maps;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lpc.map.ChunkedTileStore;
+import org.lpc.map.IMapGenerator;
+import org.lpc.map.TilePyramid;
+import org.lpc.map.TileStore;
+import org.lpc.terrain.TerrainType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TerrainChunkCacheTest {
+    private static final TerrainType[] TERRAIN_TYPES = TerrainType.values();
+    private static final int CHUNK_SIZE = 16;
+
+    private ChunkedTileStore tiles;
+    private TerrainChunkCache cache;
+
+    @BeforeAll
+    static void loadNatives() {
+        GdxNativesLoader.load();
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Two chunks side by side, only one resident at a time
+        tiles = new ChunkedTileStore(2 * CHUNK_SIZE, CHUNK_SIZE, CHUNK_SIZE, 1, new PatternGenerator());
+        cache = new TerrainChunkCache(tiles, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.dispose();
+    }
+
+    @Test
+    void bakeWritesEveryTileRowsTopDown() {
+        TileStore chunk = new TileStore(4, 3);
+        new PatternGenerator().generateTerrain(chunk);
+        Pixmap pixmap = new Pixmap(4, 3, Pixmap.Format.RGBA8888);
+
+        TerrainChunkCache.bake(chunk, pixmap);
+
+        for (int x = 0; x < 4; x++) {
+            for (int y = 0; y < 3; y++) {
+                int index = chunk.index(x, y);
+                assertEquals(TerrainChunkCache.terrainColor(chunk.getTerrain(index), chunk.getHeight(index)),
+                    pixmap.getPixel(x, 2 - y), "Tile " + x + ", " + y);
+            }
+        }
+        pixmap.dispose();
+    }
+
+    @Test
+    void bakeWritesEveryCellOfALevel() {
+        TileStore chunk = tiles.getChunkAt(0, 0);
+        TilePyramid pyramid = chunk.getPyramid();
+        Pixmap pixmap = new Pixmap(pyramid.getWidth(2), pyramid.getHeight(2), Pixmap.Format.RGBA8888);
+
+        TerrainChunkCache.bake(chunk, 2, pixmap);
+
+        for (int x = 0; x < pyramid.getWidth(2); x++) {
+            for (int y = 0; y < pyramid.getHeight(2); y++) {
+                assertEquals(TerrainChunkCache.terrainColor(pyramid.getTerrain(2, x, y), pyramid.getHeight(2, x, y)),
+                    pixmap.getPixel(x, pyramid.getHeight(2) - 1 - y), "Cell " + x + ", " + y);
+            }
+        }
+        pixmap.dispose();
+    }
+
+    @Test
+    void bakeRejectsPixmapOfAnotherSize() {
+        TileStore chunk = new TileStore(4, 3);
+        Pixmap pixmap = new Pixmap(3, 4, Pixmap.Format.RGBA8888);
+
+        assertThrows(IllegalArgumentException.class, () -> TerrainChunkCache.bake(chunk, pixmap));
+        pixmap.dispose();
+    }
+
+    @Test
+    void terrainColorShadesWaterAndMountainsByHeight() {
+        assertTrue(red(TerrainChunkCache.terrainColor(TerrainType.WATER, 0.5f))
+            > red(TerrainChunkCache.terrainColor(TerrainType.WATER, 0f)));
+        assertTrue(red(TerrainChunkCache.terrainColor(TerrainType.MOUNTAIN, 0.8f))
+            < red(TerrainChunkCache.terrainColor(TerrainType.MOUNTAIN, 0f)));
+        assertEquals(TerrainChunkCache.terrainColor(TerrainType.PLAINS, 0f),
+            TerrainChunkCache.terrainColor(TerrainType.PLAINS, 0.9f));
+    }
+
+    @Test
+    void refreshSkipsUpToDateChunk() {
+        assertTrue(cache.refresh(0, 0));
+        assertFalse(cache.refresh(0, 0));
+        assertEquals(1, cache.getBakeCount());
+    }
+
+    @Test
+    void refreshBakesAgainAfterTerrainChanged() {
+        TileStore chunk = tiles.getChunkAt(0, 0);
+        cache.refresh(0, 0);
+
+        int index = chunk.index(5, 7);
+        chunk.setTerrain(index, TerrainType.DESERT);
+
+        assertTrue(cache.refresh(0, 0));
+        assertEquals(TerrainChunkCache.terrainColor(TerrainType.DESERT, chunk.getHeight(index)),
+            cache.getPixmap(0, 0).getPixel(5, CHUNK_SIZE - 1 - 7));
+        assertFalse(cache.refresh(0, 0));
+    }
+
+    @Test
+    void refreshBakesAgainWhenTheLevelChanges() {
+        assertTrue(cache.refresh(0, 0, 0));
+        assertTrue(cache.refresh(0, 0, 1));
+        assertEquals(CHUNK_SIZE / 2, cache.getPixmap(0, 0, 1).getWidth());
+        assertFalse(cache.refresh(0, 0, 1));
+
+        assertTrue(cache.refresh(0, 0, 0));
+        assertEquals(CHUNK_SIZE, cache.getPixmap(0, 0, 0).getWidth());
+        assertEquals(3, cache.getBakeCount());
+    }
+
+    @Test
+    void refreshBakesAgainWhenTheChunkWasRegenerated() {
+        TileStore chunk = tiles.getChunkAt(0, 0);
+        cache.refresh(0, 0);
+
+        // Loading the other chunk evicts the first, it comes back as a new store with the same contents
+        tiles.getChunkAt(1, 0);
+        assertNotSame(chunk, tiles.getChunkAt(0, 0));
+
+        assertTrue(cache.refresh(0, 0));
+    }
+
+    @Test
+    void leastRecentlyUsedChunkIsDroppedOverCapacity() {
+        TerrainChunkCache single = new TerrainChunkCache(tiles, 1);
+        single.refresh(0, 0);
+        single.refresh(1, 0);
+
+        assertEquals(1, single.getCachedChunkCount());
+        assertTrue(single.refresh(0, 0));
+        single.dispose();
+    }
+
+    private static int red(int rgba8888) {
+        return rgba8888 >>> 24;
+    }
+
+    /**
+     * Terrain and height follow the world position, so a regenerated chunk equals the evicted one.
+     */
+    private static class PatternGenerator implements IMapGenerator {
+        @Override
+        public void generateTerrain(TileStore store) {
+            for (int x = 0; x < store.getWidth(); x++) {
+                for (int y = 0; y < store.getHeight(); y++) {
+                    int worldX = store.getOriginX() + x;
+                    int worldY = store.getOriginY() + y;
+                    TerrainType terrain = TERRAIN_TYPES[(worldX / 3 + worldY / 2) % TERRAIN_TYPES.length];
+                    store.setTile(store.index(worldX, worldY), terrain, ((worldX * 7 + worldY) % 10) / 10f, 0.5f);
+                }
+            }
+        }
+
+        @Override
+        public void generateResources(TileStore store) {
+            // Terrain only
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.lpc.utility;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PerlinNoiseTest {
+    private static final int OCTAVES = 5;
+    private static final double SCALE = 0.04;
+
+    @Test
+    void blockEqualsPointByPoint() {
+        PerlinNoise noise = new PerlinNoise(42L);
+        double[] block = new double[7 * 5];
+
+        noise.octaveNoiseBlock(-3, 1000, 7, 5, OCTAVES, 0.5, SCALE, block);
+
+        for (int i = 0; i < 7; i++) {
+            for (int j = 0; j < 5; j++) {
+                assertEquals(noise.octaveNoise(-3 + i, 1000 + j, OCTAVES, 0.5, SCALE), block[i * 5 + j],
+                    "Tile " + i + ", " + j);
+            }
+        }
+    }
+
+    @Test
+    void layersEqualSeparateBlocks() {
+        PerlinNoise noise = new PerlinNoise(7L);
+        double[] first = new double[16 * 16];
+        double[] second = new double[16 * 16];
+        double[] expected = new double[16 * 16];
+
+        noise.octaveNoiseBlock(64, 0, 16, 16, OCTAVES, SCALE, new double[] { 0.001, 0.5 },
+            new double[][] { first, second });
+
+        noise.octaveNoiseBlock(64, 0, 16, 16, OCTAVES, 0.001, SCALE, expected);
+        assertArrayEquals(expected, first);
+        noise.octaveNoiseBlock(64, 0, 16, 16, OCTAVES, 0.5, SCALE, expected);
+        assertArrayEquals(expected, second);
+    }
+
+    @Test
+    void floatBlockOnlyDiffersByRounding() {
+        PerlinNoise noise = new PerlinNoise(42L);
+        // Far from the origin, where float sample positions would have lost their fraction
+        int originX = 1 << 20;
+        double[] expected = new double[32 * 32];
+        float[] actual = new float[32 * 32];
+
+        noise.octaveNoiseBlock(originX, 0, 32, 32, OCTAVES, 0.5, SCALE, expected);
+        noise.octaveNoiseBlock(originX, 0, 32, 32, OCTAVES, 0.5f, SCALE, actual);
+
+        for (int k = 0; k < expected.length; k++) {
+            assertEquals(expected[k], actual[k], 1e-5, "Index " + k);
+        }
+    }
+}
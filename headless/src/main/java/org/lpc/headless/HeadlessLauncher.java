@@ -0,0 +1,62 @@
+package org.lpc.headless;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.lpc.Settings;
+
+/**
+ * Runs the simulation without a window or GL context, for benchmarks and soak runs.
+ * Options are passed as {@code --name=value}:
+ * <ul>
+ *     <li>{@code --seed} World seed, defaults to 42 so runs are comparable</li>
+ *     <li>{@code --width}, {@code --height} Map size in tiles</li>
+ *     <li>{@code --ticks} Number of measured ticks</li>
+ *     <li>{@code --warmup} Number of ticks run before measuring</li>
+ *     <li>{@code --threads} World generation threads</li>
+ *     <li>{@code --civs} Number of civilisations</li>
+ *     <li>{@code --sim-threads} Threads ticking civilisations, results do not depend on it</li>
+ *     <li>{@code --max-bytes-per-tick} Fails the run when measured ticks allocate more than this on average</li>
+ *     <li>{@code --log-level} Log level, defaults to INFO so debug logging does not skew timings</li>
+ * </ul>
+ */
+public class HeadlessLauncher {
+    public static void main(String[] args) {
+        Settings settings = new Settings();
+        settings.setWorldSeed(42L);
+
+        int ticks = 100_000;
+        int warmupTicks = 1_000;
+        long maxBytesPerTick = -1;
+        Level logLevel = Level.INFO;
+
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            if (option.length != 2 || !option[0].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+
+            String value = option[1];
+            switch (option[0]) {
+                case "--seed" -> settings.setWorldSeed(Long.parseLong(value));
+                case "--width" -> settings.setMapWidth(Integer.parseInt(value));
+                case "--height" -> settings.setMapHeight(Integer.parseInt(value));
+                case "--ticks" -> ticks = Integer.parseInt(value);
+                case "--warmup" -> warmupTicks = Integer.parseInt(value);
+                case "--threads" -> settings.setGenerationThreads(Integer.parseInt(value));
+                case "--civs" -> settings.setCivilisationCount(Integer.parseInt(value));
+                case "--sim-threads" -> settings.setSimulationThreads(Integer.parseInt(value));
+                case "--max-bytes-per-tick" -> maxBytesPerTick = Long.parseLong(value);
+                case "--log-level" -> logLevel = Level.valueOf(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + option[0]);
+            }
+        }
+
+        Configurator.setRootLevel(logLevel);
+
+        HeadlessApplicationConfiguration configuration = new HeadlessApplicationConfiguration();
+        configuration.updatesPerSecond = -1; // The simulation drives itself, no render loop needed
+        new HeadlessApplication(new HeadlessSimulation(settings, ticks, warmupTicks, maxBytesPerTick), configuration);
+    }
+}
@@ -0,0 +1,215 @@
+package org.lpc.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.sun.management.ThreadMXBean;
+import lombok.NonNull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lpc.GameStateManager;
+import org.lpc.MainGame;
+import org.lpc.Settings;
+import org.lpc.civilisation.Civilisation;
+import org.lpc.map.ChunkedTileStore;
+import org.lpc.map.TileStore;
+import org.lpc.terrain.buildings.BaseBuilding;
+import org.lpc.terrain.resources.ResourceType;
+import org.lpc.utility.TileVisitor;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Builds a world and runs a fixed number of ticks back to back, then reports throughput,
+ * per-tick latency percentiles, bytes allocated per tick on all simulation threads and checksums of the final state.
+ * Equal seeds, sizes and tick counts must give equal checksums, which makes runs comparable across changes.
+ * With an allocation budget the run fails when the measured ticks allocate more than that per tick on average,
+ * so garbage creeping back into the tick shows up as a failing run.
+ */
+public class HeadlessSimulation extends ApplicationAdapter {
+    private static final Logger LOGGER = LogManager.getLogger(HeadlessSimulation.class);
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final Settings settings;
+    private final int ticks;
+    private final int warmupTicks;
+    private final long maxBytesPerTick;
+    private boolean budgetExceeded;
+
+    /**
+     * @param maxBytesPerTick Allocation budget per measured tick, negative to only report allocations
+     */
+    public HeadlessSimulation(@NonNull Settings settings, int ticks, int warmupTicks, long maxBytesPerTick) {
+        if (ticks < 1) {
+            throw new IllegalArgumentException("Tick count must be positive: " + ticks);
+        }
+        this.settings = settings;
+        this.ticks = ticks;
+        this.warmupTicks = Math.max(0, warmupTicks);
+        this.maxBytesPerTick = maxBytesPerTick;
+    }
+
+    @Override
+    public void create() {
+        try {
+            run();
+        } finally {
+            Gdx.app.exit();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (budgetExceeded) {
+            System.exit(1);
+        }
+    }
+
+    private void run() {
+        LOGGER.info("Headless run: {}x{} map, seed {}, {} civilisations on {} threads, {} ticks after {} warmup ticks",
+            settings.getMapWidth(), settings.getMapHeight(), settings.getWorldSeed(), settings.getCivilisationCount(),
+            settings.getSimulationThreads(), ticks, warmupTicks);
+
+        // The game is never started, the map only hands it to its renderer and input which stay unused here
+        long generationStart = System.nanoTime();
+        GameStateManager gameStateManager = new GameStateManager(new MainGame(), settings);
+        long generationNanos = System.nanoTime() - generationStart;
+
+        for (int i = 0; i < warmupTicks; i++) {
+            gameStateManager.update();
+        }
+
+        long[] tickNanos = new long[ticks];
+        long allocatedBefore = allocatedBytes(gameStateManager);
+        long runStart = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            long tickStart = System.nanoTime();
+            gameStateManager.update();
+            tickNanos[i] = System.nanoTime() - tickStart;
+        }
+        long runNanos = System.nanoTime() - runStart;
+        double bytesPerTick = (double) (allocatedBytes(gameStateManager) - allocatedBefore) / ticks;
+
+        printReport(gameStateManager, generationNanos, runNanos, tickNanos, bytesPerTick);
+        gameStateManager.dispose();
+
+        // Whole bytes only, the JVM itself allocates on these threads every now and then
+        if (maxBytesPerTick >= 0 && (long) bytesPerTick > maxBytesPerTick) {
+            LOGGER.error("Ticks allocated {} bytes each, over the budget of {}", String.format("%.1f", bytesPerTick), maxBytesPerTick);
+            budgetExceeded = true;
+        }
+    }
+
+    /**
+     * Runs ticks back to back and measures what they allocate on average, see {@link #allocatedBytes(GameStateManager)}.
+     */
+    static double measureBytesPerTick(@NonNull GameStateManager gameStateManager, int ticks) {
+        long allocatedBefore = allocatedBytes(gameStateManager);
+        for (int i = 0; i < ticks; i++) {
+            gameStateManager.update();
+        }
+        return (double) (allocatedBytes(gameStateManager) - allocatedBefore) / ticks;
+    }
+
+    /**
+     * Gets the bytes allocated so far by the ticking thread and the pipeline workers, which update civilisations
+     * in parallel. Workers that were replaced in between take their bytes with them, which steady ticking avoids.
+     */
+    static long allocatedBytes(@NonNull GameStateManager gameStateManager) {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        for (Thread worker : gameStateManager.getPipeline().getWorkerThreads()) {
+            long bytes = threads.getThreadAllocatedBytes(worker.getId());
+            if (bytes > 0) allocated += bytes; // -1 once a worker retired
+        }
+        return allocated;
+    }
+
+    private void printReport(GameStateManager gameStateManager, long generationNanos, long runNanos,
+                             long[] tickNanos, double bytesPerTick) {
+        Arrays.sort(tickNanos);
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("World generation: %.1f ms%n", generationNanos / 1e6));
+        report.append(String.format("Ticks:            %d in %.1f ms%n", ticks, runNanos / 1e6));
+        report.append(String.format("Ticks/second:     %.0f%n", ticks / (runNanos / 1e9)));
+        for (double percentile : PERCENTILES) {
+            report.append(String.format("Tick p%-5s       %.2f us%n", formatPercentile(percentile),
+                percentile(tickNanos, percentile) / 1e3));
+        }
+        report.append(String.format("Tick max:         %.2f us%n", tickNanos[tickNanos.length - 1] / 1e3));
+        report.append(String.format("Allocated/tick:   %.1f bytes%n", bytesPerTick));
+        report.append(String.format("Civilisation:     %016x%n", civilisationChecksum(gameStateManager)));
+        report.append(String.format("Territory:        %016x%n", territoryChecksum(gameStateManager)));
+
+        System.out.print(report);
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * Hashes population and resources of every civilisation, in civilisation order.
+     */
+    private static long civilisationChecksum(GameStateManager gameStateManager) {
+        long hash = FNV_OFFSET;
+        for (Civilisation civilisation : gameStateManager.getCivilisations()) {
+            hash = mix(hash, civilisation.getPopulationHandler().getPopulation());
+            for (ResourceType type : ResourceType.values()) {
+                hash = mix(hash, civilisation.getResourceAmount(type));
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes ownership, resources and buildings of every owned tile, in civilisation order and memory order within a territory.
+     */
+    private static long territoryChecksum(GameStateManager gameStateManager) {
+        TerritoryHasher hasher = new TerritoryHasher(gameStateManager.getMapSystem().getSurfaceMap().getStore());
+        for (Civilisation civilisation : gameStateManager.getCivilisations()) {
+            civilisation.getTerritoryHandler().getTerritory().forEach(hasher);
+        }
+        return hasher.hash;
+    }
+
+    private static class TerritoryHasher implements TileVisitor {
+        private final ChunkedTileStore store;
+        private long hash = FNV_OFFSET;
+
+        TerritoryHasher(ChunkedTileStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public void visit(int x, int y) {
+            TileStore chunk = store.getChunk(x, y);
+            int index = chunk.index(x, y);
+
+            hash = mix(hash, x);
+            hash = mix(hash, y);
+            hash = mix(hash, chunk.getOwnerId(index));
+            for (ResourceType type : ResourceType.values()) {
+                hash = mix(hash, chunk.getResourceQuantity(index, type));
+            }
+
+            BaseBuilding building = chunk.getBuilding(index);
+            if (building != null) {
+                hash = mix(hash, building.getClass().getSimpleName().hashCode());
+                hash = mix(hash, building.getHealth());
+            }
+        }
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+}
@@ -0,0 +1,70 @@
+package org.lpc.headless;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.lpc.GameStateManager;
+import org.lpc.MainGame;
+import org.lpc.Settings;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fails the build when garbage creeps back into the tick, on the ticking thread or on the pipeline workers.
+ */
+class HeadlessSimulationTest {
+    private static final int WARMUP_TICKS = 5_000;
+    private static final int MEASURED_TICKS = 20_000;
+
+    // Measured at about 0.4: chunks loaded as territories grow, averaged over the measured ticks.
+    // The margin of a few bytes absorbs how far the territories get, a single boxed value per tick breaks it
+    private static final long SEQUENTIAL_BUDGET = 4;
+    // Measured at about 24.5: the ticking thread also gets a waiter node from the pool every time it waits
+    // for the update phase. The same margin on top of it
+    private static final long PARALLEL_BUDGET = 32;
+
+    @BeforeAll
+    static void setUpGdx() {
+        GdxNativesLoader.load();
+        Gdx.graphics = new MockGraphics();
+        // The debug level of assets/log4j2.xml formats log arguments in the tick and would be measured with it
+        Configurator.setRootLevel(Level.WARN);
+    }
+
+    @Test
+    void sequentialTicksStayWithinAllocationBudget() {
+        assertWithinBudget(createWorld(1), SEQUENTIAL_BUDGET);
+    }
+
+    @Test
+    void parallelTicksStayWithinAllocationBudget() {
+        assertWithinBudget(createWorld(3), PARALLEL_BUDGET);
+    }
+
+    private static void assertWithinBudget(GameStateManager gameStateManager, long budget) {
+        try {
+            for (int i = 0; i < WARMUP_TICKS; i++) {
+                gameStateManager.update();
+            }
+            double bytesPerTick = HeadlessSimulation.measureBytesPerTick(gameStateManager, MEASURED_TICKS);
+            assertTrue(bytesPerTick <= budget,
+                String.format("Ticks allocated %.1f bytes each, over the budget of %d", bytesPerTick, budget));
+        } finally {
+            gameStateManager.dispose();
+        }
+    }
+
+    private static GameStateManager createWorld(int simulationThreads) {
+        Settings settings = new Settings();
+        settings.setWorldSeed(42L);
+        settings.setMapWidth(512);
+        settings.setMapHeight(512);
+        settings.setCivilisationCount(24);
+        settings.setSimulationThreads(simulationThreads);
+        return new GameStateManager(new MainGame(), settings);
+    }
+}